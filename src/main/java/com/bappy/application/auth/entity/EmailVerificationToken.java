@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class EmailVerificationToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_verification_tokens_id_seq")
+    @SequenceGenerator(name = "email_verification_tokens_id_seq", sequenceName = "email_verification_tokens_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 500)
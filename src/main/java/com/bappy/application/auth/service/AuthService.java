@@ -14,6 +14,7 @@ import com.bappy.application.exception.EmailAlreadyExistsException;
 import com.bappy.application.exception.ResourceNotFoundException;
 import com.bappy.application.security.UserPrincipal;
 import com.bappy.application.security.jwt.JwtTokenProvider;
+import com.bappy.application.security.password.BreachedPasswordService;
 import com.bappy.application.user.entity.AuthProvider;
 import com.bappy.application.user.entity.Role;
 import com.bappy.application.user.entity.User;
@@ -52,6 +53,7 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final AppConfig appConfig;
     private final com.bappy.application.email.service.EmailService emailService;
+    private final BreachedPasswordService breachedPasswordService;
 
     /**
      * Register new user
@@ -65,6 +67,9 @@ public class AuthService {
             throw new EmailAlreadyExistsException(request.getEmail());
         }
 
+        // Reject known breached passwords before spending BCrypt work
+        assertPasswordNotBreached(request.getPassword());
+
         // Get default user role
         Role userRole = roleRepository.findByName(Role.USER)
                 .orElseThrow(() -> new RuntimeException("User role not found. Please run database migrations."));
@@ -235,6 +240,8 @@ public class AuthService {
             throw new BadRequestException("Password reset token has expired or already been used");
         }
 
+        assertPasswordNotBreached(newPassword);
+
         User user = resetToken.getUser();
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
@@ -293,6 +300,15 @@ public class AuthService {
     }
 
     // ==================== Helper Methods ====================
+    /**
+     * Reject passwords found in the offline breached-password corpus
+     */
+    private void assertPasswordNotBreached(String password) {
+        if (breachedPasswordService.isBreached(password)) {
+            throw new BadRequestException("This password has appeared in a data breach. Please choose a different password.");
+        }
+    }
+
     /**
      * Create email verification token
      */
@@ -0,0 +1,369 @@
+package com.bappy.application.common.collection;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Concurrent hash map from primitive long keys to primitive long values.
+ * Lock-striped segments use open addressing with linear probing over plain arrays, so there is
+ * no boxing and no per-entry object: an entry costs 16 bytes plus load-factor slack.
+ * Reads are optimistic and never block unless they race a write to the same segment.
+ * Key 0 is reserved as the empty-slot marker.
+ */
+public class ConcurrentLongLongMap {
+
+    private static final long EMPTY = 0L;
+
+    private static final int DEFAULT_SEGMENTS = 64;
+
+    private static final int DEFAULT_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] segments;
+
+    private final int segmentMask;
+
+    public ConcurrentLongLongMap() {
+        this(DEFAULT_SEGMENTS, DEFAULT_SEGMENT_CAPACITY);
+    }
+
+    public ConcurrentLongLongMap(int concurrencyLevel, int initialSegmentCapacity) {
+        int segmentCount = powerOfTwo(concurrencyLevel);
+        this.segments = new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(powerOfTwo(Math.max(initialSegmentCapacity, 2)));
+        }
+    }
+
+    /**
+     * Get the value for a key, or the default if absent
+     */
+    public long get(long key, long defaultValue) {
+        long hash = hash(checkKey(key));
+        return segmentFor(hash).get(key, hash, defaultValue);
+    }
+
+    /**
+     * Check if a key is present
+     */
+    public boolean containsKey(long key) {
+        long hash = hash(checkKey(key));
+        return segmentFor(hash).indexOf(key, hash) >= 0;
+    }
+
+    /**
+     * Associate a value with a key, returning the previous value or the default if absent
+     */
+    public long put(long key, long value, long defaultValue) {
+        long hash = hash(checkKey(key));
+        return segmentFor(hash).put(key, hash, value, defaultValue, false);
+    }
+
+    /**
+     * Associate a value with a key only if absent, returning the existing value or the default
+     */
+    public long putIfAbsent(long key, long value, long defaultValue) {
+        long hash = hash(checkKey(key));
+        return segmentFor(hash).put(key, hash, value, defaultValue, true);
+    }
+
+    /**
+     * Add a delta to a key's value (absent counts as 0) and return the new value
+     */
+    public long addAndGet(long key, long delta) {
+        long hash = hash(checkKey(key));
+        return segmentFor(hash).addAndGet(key, hash, delta);
+    }
+
+    /**
+     * Remove a key, returning its value or the default if absent
+     */
+    public long remove(long key, long defaultValue) {
+        long hash = hash(checkKey(key));
+        return segmentFor(hash).remove(key, hash, defaultValue);
+    }
+
+    /**
+     * Number of entries (sum of segment sizes, not an atomic snapshot)
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Visit every key. Each segment is copied before visiting, so the consumer may modify the map;
+     * keys added or removed concurrently may or may not be seen.
+     */
+    public void forEachKey(LongConsumer consumer) {
+        for (Segment segment : segments) {
+            for (long key : segment.keySnapshot()) {
+                if (key != EMPTY) {
+                    consumer.accept(key);
+                }
+            }
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 32) & segmentMask];
+    }
+
+    private static long checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        return key;
+    }
+
+    /**
+     * MurmurHash3 finalizer: spreads sequential ids across segments and slots
+     */
+    private static long hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int powerOfTwo(int value) {
+        int n = Math.max(1, value);
+        return n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    /**
+     * One lock stripe: linear-probing table resized at 75% load
+     */
+    private static final class Segment {
+
+        private final StampedLock lock = new StampedLock();
+
+        private long[] keys;
+
+        private long[] values;
+
+        private int size;
+
+        Segment(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+        }
+
+        long get(long key, long hash, long defaultValue) {
+            long stamp = lock.tryOptimisticRead();
+            long result = probe(keys, values, key, hash, defaultValue);
+            if (lock.validate(stamp)) {
+                return result;
+            }
+
+            stamp = lock.readLock();
+            try {
+                return probe(keys, values, key, hash, defaultValue);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        int indexOf(long key, long hash) {
+            long stamp = lock.readLock();
+            try {
+                return slotOf(keys, key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long put(long key, long hash, long value, long defaultValue, boolean onlyIfAbsent) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = slotOf(keys, key, hash);
+                if (slot >= 0) {
+                    long previous = values[slot];
+                    if (!onlyIfAbsent) {
+                        values[slot] = value;
+                    }
+                    return previous;
+                }
+                insert(key, hash, value);
+                return defaultValue;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        long addAndGet(long key, long hash, long delta) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = slotOf(keys, key, hash);
+                if (slot >= 0) {
+                    return values[slot] += delta;
+                }
+                insert(key, hash, delta);
+                return delta;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        long remove(long key, long hash, long defaultValue) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = slotOf(keys, key, hash);
+                if (slot < 0) {
+                    return defaultValue;
+                }
+                long previous = values[slot];
+                deleteAt(slot);
+                size--;
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                Arrays.fill(keys, EMPTY);
+                Arrays.fill(values, 0L);
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        long[] keySnapshot() {
+            long stamp = lock.readLock();
+            try {
+                return keys.clone();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Lookup tolerant of torn reads: bounded by table length and validated by the caller
+         */
+        private static long probe(long[] keys, long[] values, long key, long hash, long defaultValue) {
+            if (keys.length != values.length) {
+                return defaultValue;
+            }
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+            for (int i = 0; i <= mask; i++) {
+                long current = keys[slot];
+                if (current == key) {
+                    return values[slot];
+                }
+                if (current == EMPTY) {
+                    return defaultValue;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return defaultValue;
+        }
+
+        private static int slotOf(long[] keys, long key, long hash) {
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+            while (true) {
+                long current = keys[slot];
+                if (current == key) {
+                    return slot;
+                }
+                if (current == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void insert(long key, long hash, long value) {
+            if ((size + 1) * 4L > keys.length * 3L) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            long[] newKeys = new long[oldKeys.length * 2];
+            long[] newValues = new long[oldValues.length * 2];
+            int mask = newKeys.length - 1;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                long key = oldKeys[i];
+                if (key != EMPTY) {
+                    int slot = (int) hash(key) & mask;
+                    while (newKeys[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    newKeys[slot] = key;
+                    newValues[slot] = oldValues[i];
+                }
+            }
+
+            keys = newKeys;
+            values = newValues;
+        }
+
+        /**
+         * Backward-shift deletion: pull later entries of the probe run into the gap so no tombstones are needed
+         */
+        private void deleteAt(int slot) {
+            int mask = keys.length - 1;
+            int gap = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                long key = keys[next];
+                if (key == EMPTY) {
+                    break;
+                }
+                int home = (int) hash(key) & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = key;
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            keys[gap] = EMPTY;
+            values[gap] = 0L;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.bappy.application.common.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel for large numbers of short, mostly-cancelled or coarse timeouts.
+ * Scheduling is O(1) and lock-free: tasks are handed to a single wheel thread that buckets them
+ * by expiry tick and, once per tick, runs whatever is due in the current bucket. Tasks further out
+ * than one revolution wait out extra rounds in their bucket.
+ * Tasks run on the wheel thread and never fire early; they typically fire within one tick of their deadline.
+ */
+@Slf4j
+public class HashedTimingWheel implements AutoCloseable {
+
+    private final long tickNanos;
+
+    private final int mask;
+
+    private final List<Timeout>[] buckets;
+
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+
+    private final Thread worker;
+
+    private final long startNanos;
+
+    private volatile boolean running = true;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, long tickMs, int wheelSize) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.mask = Math.max(size, 1) - 1;
+        this.buckets = new List[mask + 1];
+        for (int i = 0; i <= mask; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Run a task once the delay has elapsed
+     */
+    public Timeout schedule(long delay, TimeUnit unit, Runnable task) {
+        if (!running) {
+            throw new IllegalStateException("Timing wheel is closed");
+        }
+
+        Timeout timeout = new Timeout(System.nanoTime() + unit.toNanos(Math.max(delay, 0)), task);
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stop the wheel; pending tasks are dropped
+     */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    // ==================== Wheel Thread ====================
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleep;
+            while (running && (sleep = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (!running) {
+                return;
+            }
+
+            transferIncoming(tick);
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    /**
+     * Move newly scheduled tasks into their buckets; only called from the wheel thread
+     */
+    private void transferIncoming(long currentTick) {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+
+            long expiryTick = Math.max((timeout.deadlineNanos - startNanos + tickNanos - 1) / tickNanos - 1, currentTick);
+            timeout.remainingRounds = (expiryTick - currentTick) / buckets.length;
+            buckets[(int) (expiryTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                try {
+                    timeout.task.run();
+                } catch (Exception e) {
+                    log.error("Timing wheel task failed", e);
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    /**
+     * Handle to a scheduled task
+     */
+    public static final class Timeout {
+
+        private final long deadlineNanos;
+
+        private final Runnable task;
+
+        private long remainingRounds;
+
+        private volatile boolean cancelled;
+
+        private Timeout(long deadlineNanos, Runnable task) {
+            this.deadlineNanos = deadlineNanos;
+            this.task = task;
+        }
+
+        /**
+         * Prevent the task from running if it has not run yet
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
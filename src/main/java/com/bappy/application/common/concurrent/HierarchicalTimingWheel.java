@@ -0,0 +1,213 @@
+package com.bappy.application.common.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hierarchical timing wheel for timers spread over long horizons.
+ * Level 0 has one bucket per tick; each higher level has buckets one full revolution of the level
+ * below wide. A task is placed on the lowest level whose span covers its delay and cascades down a
+ * level each time the level below completes a revolution, so every task is touched at most once per
+ * level instead of once per revolution. Scheduling is O(1) and lock-free; tasks run on the wheel
+ * thread and never fire early.
+ */
+@Slf4j
+public class HierarchicalTimingWheel implements AutoCloseable {
+
+    private final long tickNanos;
+
+    private final int bits;
+
+    private final int mask;
+
+    private final List<Timeout>[][] levels;
+
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+
+    private final Thread worker;
+
+    private final long startNanos;
+
+    private volatile boolean running = true;
+
+    /**
+     * Tick the wheel thread has reached; only accessed from the wheel thread
+     */
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(String name, long tickMs, int wheelBits, int levelCount) {
+        if (tickMs <= 0 || wheelBits <= 0 || levelCount <= 0 || (long) wheelBits * levelCount > 62) {
+            throw new IllegalArgumentException("Invalid timing wheel geometry");
+        }
+
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.bits = wheelBits;
+        this.mask = (1 << wheelBits) - 1;
+        this.levels = new List[levelCount][mask + 1];
+        for (List<Timeout>[] level : levels) {
+            for (int i = 0; i <= mask; i++) {
+                level[i] = new ArrayList<>();
+            }
+        }
+
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Run a task once the delay has elapsed; delays beyond the top level wait there and re-cascade
+     */
+    public Timeout schedule(long delay, TimeUnit unit, Runnable task) {
+        if (!running) {
+            throw new IllegalStateException("Timing wheel is closed");
+        }
+
+        Timeout timeout = new Timeout(System.nanoTime() + unit.toNanos(Math.max(delay, 0)), task);
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stop the wheel; pending tasks are dropped
+     */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    // ==================== Wheel Thread ====================
+
+    private void run() {
+        while (running) {
+            long deadline = startNanos + (currentTick + 1) * tickNanos;
+            long sleep;
+            while (running && (sleep = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (!running) {
+                return;
+            }
+
+            transferIncoming();
+            cascade();
+            expire(levels[0][(int) (currentTick & mask)]);
+            currentTick++;
+        }
+    }
+
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (!timeout.cancelled) {
+                timeout.expiryTick = Math.max(
+                        (timeout.deadlineNanos - startNanos + tickNanos - 1) / tickNanos - 1, currentTick);
+                place(timeout);
+            }
+        }
+    }
+
+    /**
+     * Put a task on the lowest level whose span covers its remaining delay
+     */
+    private void place(Timeout timeout) {
+        long delta = timeout.expiryTick - currentTick;
+        int level = 0;
+        while (level < levels.length - 1 && delta >= 1L << (bits * (level + 1))) {
+            level++;
+        }
+
+        long expiryTick = level == levels.length - 1
+                ? Math.min(timeout.expiryTick, currentTick + (1L << (bits * (level + 1))) - 1)
+                : timeout.expiryTick;
+        levels[level][(int) ((expiryTick >>> (bits * level)) & mask)].add(timeout);
+    }
+
+    /**
+     * When lower levels complete a revolution, redistribute the next bucket of each level above
+     */
+    private void cascade() {
+        for (int level = 1; level < levels.length; level++) {
+            if ((currentTick & ((1L << (bits * level)) - 1)) != 0) {
+                return;
+            }
+
+            List<Timeout> bucket = levels[level][(int) ((currentTick >>> (bits * level)) & mask)];
+            if (bucket.isEmpty()) {
+                continue;
+            }
+
+            List<Timeout> due = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Timeout timeout : due) {
+                if (!timeout.cancelled) {
+                    place(timeout);
+                }
+            }
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        if (bucket.isEmpty()) {
+            return;
+        }
+
+        List<Timeout> due = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Timeout timeout : due) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            if (timeout.expiryTick > currentTick) {
+                // Parked on the top level beyond its span; goes round again
+                place(timeout);
+                continue;
+            }
+
+            try {
+                timeout.task.run();
+            } catch (Exception e) {
+                log.error("Timing wheel task failed", e);
+            }
+        }
+    }
+
+    /**
+     * Handle to a scheduled task
+     */
+    public static final class Timeout {
+
+        private final long deadlineNanos;
+
+        private final Runnable task;
+
+        private long expiryTick;
+
+        private volatile boolean cancelled;
+
+        private Timeout(long deadlineNanos, Runnable task) {
+            this.deadlineNanos = deadlineNanos;
+            this.task = task;
+        }
+
+        /**
+         * Prevent the task from running if it has not run yet
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.bappy.application.common.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Periodically measures how far each replica lags behind the primary and takes lagging or unreachable
+ * replicas out of rotation. A replica that has replayed everything it received counts as caught up,
+ * so an idle primary does not make replicas look stale; a database that is not in recovery has no lag.
+ * A standby without a streaming WAL receiver receives nothing more to replay and would look caught up
+ * forever, so it counts as unhealthy. The receiver's status is only visible to roles with
+ * {@code pg_read_all_stats} (e.g. {@code pg_monitor}); without it, a running receiver is taken as streaming.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver
+                                        WHERE status = 'streaming' OR status IS NULL) THEN NULL
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    private static final int QUERY_TIMEOUT_SECONDS = 2;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final long maxLagMs;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, long maxLagMs, MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.maxLagMs = maxLagMs;
+        for (ReplicaPool replica : routingDataSource.getReplicas()) {
+            Gauge.builder("datasource.replica.lag", replica, ReplicaPool::getLagMs)
+                    .tag("pool", replica.getName())
+                    .description("Replication lag of a read replica in milliseconds, -1 when unknown")
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", replica, pool -> pool.isHealthy() ? 1 : 0)
+                    .tag("pool", replica.getName())
+                    .description("Whether a read replica currently receives reads")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Check every replica's lag (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.routing.lag-check-ms:1000}")
+    public void check() {
+        for (ReplicaPool replica : routingDataSource.getReplicas()) {
+            long lagMs = measureLag(replica);
+            boolean healthy = lagMs >= 0 && lagMs <= maxLagMs;
+            if (healthy != replica.isHealthy()) {
+                log.info("Replica {} is now {} (lag {} ms)", replica.getName(), healthy ? "in rotation" : "out of rotation", lagMs);
+            }
+            replica.update(lagMs, healthy);
+        }
+        routingDataSource.expireRecentWrites();
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Lag in milliseconds, or -1 when the replica cannot be queried or has no live upstream
+     */
+    private long measureLag(ReplicaPool replica) {
+        try (Connection connection = replica.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            try (ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                rs.next();
+                double lagMs = rs.getDouble(1);
+                return rs.wasNull() ? -1 : Math.round(lagMs);
+            }
+        } catch (SQLException e) {
+            log.debug("Lag check failed for replica {}: {}", replica.getName(), e.getMessage());
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.bappy.application.common.datasource;
+
+import lombok.Getter;
+
+import javax.sql.DataSource;
+
+/**
+ * A read replica connection pool and its last observed replication state.
+ * Replicas start unhealthy and only receive reads once a lag check has passed.
+ */
+@Getter
+public class ReplicaPool {
+
+    private final String name;
+    private final DataSource dataSource;
+
+    private volatile long lagMs = -1;
+    private volatile boolean healthy;
+
+    public ReplicaPool(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Record a lag check; a replica is healthy when it answered and is within the allowed lag
+     */
+    void update(long lagMs, boolean healthy) {
+        this.lagMs = lagMs;
+        this.healthy = healthy;
+    }
+}
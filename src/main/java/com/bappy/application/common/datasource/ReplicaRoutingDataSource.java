@@ -0,0 +1,181 @@
+package com.bappy.application.common.datasource;
+
+import com.bappy.application.common.collection.ConcurrentLongLongMap;
+import com.bappy.application.security.UserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to healthy replicas, round robin, and everything else to the primary.
+ * Reads fall back to the primary when no replica is within the allowed lag, when a replica refuses a
+ * connection, and for a short window after the current user committed a write, so users read their own writes.
+ * <p>
+ * The route is chosen when a connection is requested, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the physical connection is
+ * then only fetched once the transaction's read-only flag is known.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final long NO_WRITE = 0L;
+
+    private final DataSource primary;
+    private final List<ReplicaPool> replicas;
+    private final long readYourWritesMs;
+    private final MeterRegistry meterRegistry;
+    private final Counter primaryWrites;
+    private final Counter primaryReadYourWrites;
+    private final Counter primaryFallbacks;
+
+    /**
+     * Last committed write per user id, in epoch millis
+     */
+    private final ConcurrentLongLongMap recentWrites = new ConcurrentLongLongMap();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaPool> replicas, long readYourWritesMs,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWritesMs = readYourWritesMs;
+        this.meterRegistry = meterRegistry;
+        this.primaryWrites = routeCounter("primary", "write");
+        this.primaryReadYourWrites = routeCounter("primary", "read_your_writes");
+        this.primaryFallbacks = routeCounter("primary", "replica_unavailable");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            primaryWrites.increment();
+            return primary.getConnection();
+        }
+
+        long userId = currentUserId();
+        if (userId != NO_WRITE && System.currentTimeMillis() - recentWrites.get(userId, NO_WRITE) < readYourWritesMs) {
+            primaryReadYourWrites.increment();
+            return primary.getConnection();
+        }
+
+        ReplicaPool replica = nextHealthyReplica();
+        if (replica != null) {
+            try {
+                Connection connection = replica.getDataSource().getConnection();
+                meterRegistry.counter("datasource.routing", "pool", replica.getName(), "reason", "read").increment();
+                return connection;
+            } catch (SQLException e) {
+                // Taken out of rotation until the next lag check finds it healthy again
+                log.warn("Replica {} refused a connection, reading from primary: {}", replica.getName(), e.getMessage());
+                replica.update(-1, false);
+            }
+        }
+
+        primaryFallbacks.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Routed connections use the pools' own credentials");
+    }
+
+    /**
+     * Forget users whose last write is outside the read-your-writes window
+     */
+    public void expireRecentWrites() {
+        long cutoff = System.currentTimeMillis() - readYourWritesMs;
+        recentWrites.forEachKey(userId -> {
+            if (recentWrites.get(userId, NO_WRITE) < cutoff) {
+                recentWrites.remove(userId, NO_WRITE);
+            }
+        });
+    }
+
+    public List<ReplicaPool> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Close the replica pools; the primary pool is managed on its own
+     */
+    public void close() {
+        for (ReplicaPool replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close replica pool {}", replica.getName(), e);
+                }
+            }
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private ReplicaPool nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            ReplicaPool replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Record the current user's write once the transaction commits, once per transaction
+     */
+    private void trackWrite() {
+        long userId = currentUserId();
+        if (userId == NO_WRITE || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWrites.put(userId, System.currentTimeMillis(), NO_WRITE);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReplicaRoutingDataSource.this);
+            }
+        });
+    }
+
+    private static long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+                && principal.getId() != null) {
+            return principal.getId();
+        }
+        return NO_WRITE;
+    }
+
+    private Counter routeCounter(String pool, String reason) {
+        return Counter.builder("datasource.routing")
+                .tag("pool", pool)
+                .tag("reason", reason)
+                .description("Connections handed out by the routing data source, by pool and reason")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bappy.application.common.dto;
+
+import com.bappy.application.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset pagination position: the (created_at, id) of the last row of the previous page.
+ * Serialized as an opaque URL-safe token so clients never depend on its layout.
+ *
+ * @param createdAt Creation time of the last row returned
+ * @param id        Id of the last row returned, breaking ties on equal timestamps
+ */
+public record PageCursor(LocalDateTime createdAt, Long id) {
+
+    /**
+     * Position before the newest row, used for the first page
+     */
+    public static final PageCursor FIRST = new PageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    /**
+     * Decode a token, returning {@link #FIRST} when absent
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new PageCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Encode as an opaque token
+     */
+    public String encode() {
+        String value = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
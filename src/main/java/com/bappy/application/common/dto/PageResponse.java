@@ -1,14 +1,18 @@
 package com.bappy.application.common.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 /**
  * Paginated response wrapper.
+ * Offset pages carry totals; keyset and slice pages leave them null and expose {@code nextCursor} instead.
  *
  * @param <T> Type of data in the page
  */
@@ -21,16 +25,24 @@ public class PageResponse<T> {
     private List<T> content;
     private int pageNumber;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalPages;
     private boolean last;
     private boolean first;
     private boolean empty;
 
+    /**
+     * Opaque token for the next keyset page, null on the last page
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     /**
      * Create PageResponse from Spring Data Page
      */
-    public static <T> PageResponse<T> of(org.springframework.data.domain.Page<T> page) {
+    public static <T> PageResponse<T> of(Page<T> page) {
         return PageResponse.<T>builder()
                 .content(page.getContent())
                 .pageNumber(page.getNumber())
@@ -42,4 +54,18 @@ public class PageResponse<T> {
                 .empty(page.isEmpty())
                 .build();
     }
+
+    /**
+     * Create count-free PageResponse from Spring Data Slice
+     */
+    public static <T> PageResponse<T> of(Slice<T> slice) {
+        return PageResponse.<T>builder()
+                .content(slice.getContent())
+                .pageNumber(slice.getNumber())
+                .pageSize(slice.getSize())
+                .last(!slice.hasNext())
+                .first(slice.isFirst())
+                .empty(slice.isEmpty())
+                .build();
+    }
 }
@@ -1,6 +1,8 @@
 package com.bappy.application.config;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -26,6 +28,10 @@ public class AppConfig {
     private Security security = new Security();
     private Email email = new Email();
     private OAuth2 oauth2 = new OAuth2();
+    private Notifications notifications = new Notifications();
+    private WebSocket websocket = new WebSocket();
+    private Idempotency idempotency = new Idempotency();
+    private Datasource datasource = new Datasource();
 
     @Getter
     @Setter
@@ -50,6 +56,7 @@ public class AppConfig {
     public static class Security {
         private RateLimit rateLimit = new RateLimit();
         private LoginAttempts loginAttempts = new LoginAttempts();
+        private BreachedPasswords breachedPasswords = new BreachedPasswords();
 
         @Getter
         @Setter
@@ -66,6 +73,13 @@ public class AppConfig {
             private Integer maxAttempts;
             private Integer lockoutDurationMinutes;
         }
+
+        @Getter
+        @Setter
+        public static class BreachedPasswords {
+            private Boolean enabled = false;
+            private String filterPath;
+        }
     }
 
     @Getter
@@ -80,4 +94,136 @@ public class AppConfig {
     public static class OAuth2 {
         private List<String> authorizedRedirectUris = new ArrayList<>();
     }
+
+    @Getter
+    @Setter
+    public static class Notifications {
+        private Integer broadcastRetentionDays = 30;
+        private Integer readReceiptBatchSize = 500;
+        private Integer coalesceWindowMs = 0;
+        private Integer coalesceMaxBatch = 100;
+        private Long streamTimeoutMs = 1800000L;
+        private Integer streamReplayLimit = 500;
+        private Integer streamQueueCapacity = 256;
+        private Integer streamSendThreads = 4;
+        private Integer syncBatchSize = 200;
+        private Integer syncMaxBehind = 1000;
+        private Integer syncRetentionDays = 7;
+        private Long syncSettleMs = 5000L;
+        private Long scheduleWindowMs = 120000L;
+        private Cluster cluster = new Cluster();
+        private Digest digest = new Digest();
+        private Ingest ingest = new Ingest();
+        private Sharding sharding = new Sharding();
+
+        @Getter
+        @Setter
+        public static class Cluster {
+            private String mode = "local";
+            private String channel = "notifications";
+            private Integer maxPayloadBytes = 7900;
+        }
+
+        @Getter
+        @Setter
+        public static class Digest {
+            private Boolean enabled = false;
+            private Long cadenceMs = 3600000L;
+            private Long settleMs = 900000L;
+            private Integer lookbackDays = 7;
+            private Integer batchSize = 200;
+            private Integer maxItems = 10;
+        }
+
+        @Getter
+        @Setter
+        public static class Ingest {
+            private Integer chunkSize = 500;
+            private Integer maxItemsPerRequest = 50000;
+            private Integer maxConcurrentRequests = 4;
+            private Integer pushThreads = 2;
+            private Integer pushQueueCapacity = 200;
+            private Integer retryAfterSeconds = 1;
+        }
+
+        @Getter
+        @Setter
+        public static class Sharding {
+            private Boolean enabled = false;
+            private Integer buckets = 256;
+            private Long moveGraceMs = 15000L;
+            private Integer scatterThreads = 8;
+            private List<Shard> shards = new ArrayList<>();
+        }
+
+        @Getter
+        @Setter
+        public static class Shard {
+            private String schema;
+            private Integer maxPoolSize = 10;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class WebSocket {
+        private ChannelPool inbound = new ChannelPool(16, 32, 10000);
+        private ChannelPool outbound = new ChannelPool(16, 32, 10000);
+        private ChannelPool broker = new ChannelPool(4, 8, 10000);
+        private Integer sendTimeLimitMs = 10000;
+        private Integer sendBufferSizeLimitBytes = 512 * 1024;
+        private Integer messageSizeLimitBytes = 64 * 1024;
+        private Integer timeToFirstMessageMs = 30000;
+        private Long heartbeatSendMs = 10000L;
+        private Long heartbeatReceiveMs = 10000L;
+
+        @Getter
+        @Setter
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class ChannelPool {
+            private Integer corePoolSize;
+            private Integer maxPoolSize;
+            private Integer queueCapacity;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Idempotency {
+        private Boolean enabled = true;
+        private List<String> paths = new ArrayList<>(List.of("/api/v1/notifications/send", "/api/v1/files/upload"));
+        private Integer maxEntries = 10000;
+        private Long ttlMs = 86400000L;
+        private Integer maxResponseBytes = 64 * 1024;
+        private Integer maxRequestBytes = 1024 * 1024;
+        private Long maxCacheBytes = 32L * 1024 * 1024;
+        private Long waitTimeoutMs = 10000L;
+        private Long claimTtlMs = 60000L;
+        private Boolean persistent = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Datasource {
+        private Routing routing = new Routing();
+
+        @Getter
+        @Setter
+        public static class Routing {
+            private Boolean enabled = false;
+            private Long maxLagMs = 5000L;
+            private Long readYourWritesMs = 5000L;
+            private List<Replica> replicas = new ArrayList<>();
+        }
+
+        @Getter
+        @Setter
+        public static class Replica {
+            private String url;
+            private String username;
+            private String password;
+            private Integer maxPoolSize = 10;
+        }
+    }
 }
@@ -0,0 +1,143 @@
+package com.bappy.application.config;
+
+import com.bappy.application.common.datasource.ReplicaLagMonitor;
+import com.bappy.application.common.datasource.ReplicaPool;
+import com.bappy.application.common.datasource.ReplicaRoutingDataSource;
+import com.bappy.application.notification.shard.NotificationShardDataSource;
+import com.bappy.application.notification.shard.NotificationShardMigrations;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica and notification shard routing.
+ * The primary pool is configured from {@code spring.datasource}; each entry of
+ * {@code app.datasource.routing.replicas} gets its own pool, and so does each notification shard schema
+ * of {@code app.notifications.sharding.shards}. The application data source routes read-only transactions
+ * to replicas, see {@link ReplicaRoutingDataSource}, and notification work to its shard, see
+ * {@link NotificationShardDataSource}; shard pools always use the primary.
+ */
+@Configuration
+@ConditionalOnExpression("${app.datasource.routing.enabled:false} or ${app.notifications.sharding.enabled:false}")
+public class DataSourceRoutingConfig {
+
+    private static final long REPLICA_CONNECTION_TIMEOUT_MS = 2000;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, AppConfig appConfig,
+                                                             DataSourceProperties properties, MeterRegistry meterRegistry) {
+        AppConfig.Datasource.Routing routing = appConfig.getDatasource().getRouting();
+        List<ReplicaPool> replicas = new ArrayList<>();
+        for (int i = 0; i < routing.getReplicas().size(); i++) {
+            AppConfig.Datasource.Replica replica = routing.getReplicas().get(i);
+            String name = "replica-" + (i + 1);
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername() != null ? replica.getUsername() : properties.getUsername());
+            pool.setPassword(replica.getPassword() != null ? replica.getPassword() : properties.getPassword());
+            pool.setDriverClassName(properties.getDriverClassName());
+            pool.setMaximumPoolSize(replica.getMaxPoolSize());
+            pool.setReadOnly(true);
+            pool.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT_MS);
+            // Start even if a replica is down; it joins the rotation once a lag check succeeds
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReplicaPool(name, pool));
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, routing.getReadYourWritesMs(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource, AppConfig appConfig,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource,
+                appConfig.getDatasource().getRouting().getMaxLagMs(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.notifications.sharding.enabled", havingValue = "true")
+    public NotificationShardDataSource notificationShardDataSource(HikariDataSource primaryDataSource,
+                                                                   ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+                                                                   AppConfig appConfig, MeterRegistry meterRegistry) {
+        List<DataSource> shardPools = new ArrayList<>();
+        List<AppConfig.Notifications.Shard> shards = appConfig.getNotifications().getSharding().getShards();
+        for (int i = 0; i < shards.size(); i++) {
+            AppConfig.Notifications.Shard shard = shards.get(i);
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("notification-shard-" + (i + 1));
+            pool.setJdbcUrl(primaryDataSource.getJdbcUrl());
+            pool.setUsername(primaryDataSource.getUsername());
+            pool.setPassword(primaryDataSource.getPassword());
+            if (primaryDataSource.getDriverClassName() != null) {
+                pool.setDriverClassName(primaryDataSource.getDriverClassName());
+            }
+            pool.setMaximumPoolSize(shard.getMaxPoolSize());
+            // Shard tables first, shared tables (users, scheduled notifications, ...) from public
+            pool.setConnectionInitSql("SET search_path TO \"" + shard.getSchema() + "\", public");
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shardPools.add(pool);
+        }
+
+        DataSource replicas = replicaRoutingDataSource.getIfAvailable();
+        return new NotificationShardDataSource(replicas != null ? replicas : primaryDataSource, shardPools);
+    }
+
+    /**
+     * Migrate the notification shard schemas after the main migrations
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.notifications.sharding.enabled", havingValue = "true")
+    public FlywayMigrationStrategy notificationShardMigrationStrategy(AppConfig appConfig) {
+        return flyway -> {
+            flyway.migrate();
+            NotificationShardMigrations.migrate(flyway.getConfiguration().getDataSource(),
+                    appConfig.getNotifications().getSharding().getShards().stream()
+                            .map(AppConfig.Notifications.Shard::getSchema)
+                            .toList());
+        };
+    }
+
+    /**
+     * The application data source; connections are fetched lazily so routing sees the transaction's
+     * read-only flag and notification shard
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+                                 ObjectProvider<NotificationShardDataSource> notificationShardDataSource) {
+        DataSource routed = notificationShardDataSource.getIfAvailable();
+        if (routed == null) {
+            routed = replicaRoutingDataSource.getIfAvailable();
+        }
+        return new LazyConnectionDataSourceProxy(routed != null ? routed : primaryDataSource);
+    }
+}
@@ -6,6 +6,7 @@ import com.bappy.application.security.jwt.JwtAuthenticationFilter;
 import com.bappy.application.security.oauth2.CustomOAuth2UserService;
 import com.bappy.application.security.oauth2.OAuth2AuthenticationFailureHandler;
 import com.bappy.application.security.oauth2.OAuth2AuthenticationSuccessHandler;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -91,6 +92,9 @@ public class SecurityConfig {
                 
                 // Authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches of streamed responses were authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        
                         // Public endpoints
                         .requestMatchers(
                                 "/api/v1/auth/**",
@@ -1,16 +1,25 @@
 package com.bappy.application.config;
 
 import com.bappy.application.notification.websocket.WebSocketAuthInterceptor;
+import com.bappy.application.notification.websocket.WebSocketMetrics;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
  * WebSocket configuration for real-time notifications.
+ * Channel executors are bounded and slow consumers are disconnected, so one stalled client
+ * cannot grow its send buffer or the outbound queue without limit.
  */
 @Configuration
 @EnableWebSocketMessageBroker
@@ -18,17 +27,35 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
+    private final WebSocketMetrics webSocketMetrics;
+    private final AppConfig appConfig;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
+    }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker
-        config.enableSimpleBroker("/topic", "/queue");
-        
+        AppConfig.WebSocket websocket = appConfig.getWebsocket();
+
+        // Enable a simple in-memory message broker with server and client heartbeats
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{websocket.getHeartbeatSendMs(), websocket.getHeartbeatReceiveMs()})
+                .setTaskScheduler(messageBrokerTaskScheduler);
+
         // Prefix for messages from client to server
         config.setApplicationDestinationPrefixes("/app");
-        
+
         // Prefix for user-specific messages
         config.setUserDestinationPrefix("/user");
+
+        // Keep per-session message order with a multi-threaded outbound channel
+        config.setPreservePublishOrder(true);
+
+        configureChannel(config.configureBrokerChannel(), "broker", websocket.getBroker());
     }
 
     @Override
@@ -39,9 +66,42 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();  // Enable SockJS fallback
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        AppConfig.WebSocket websocket = appConfig.getWebsocket();
+
+        // Sessions exceeding the send time or buffer limit are closed as slow consumers
+        registration.setSendTimeLimit(websocket.getSendTimeLimitMs())
+                .setSendBufferSizeLimit(websocket.getSendBufferSizeLimitBytes())
+                .setMessageSizeLimit(websocket.getMessageSizeLimitBytes())
+                .setTimeToFirstMessage(websocket.getTimeToFirstMessageMs())
+                .addDecoratorFactory(webSocketMetrics.evictionCounter());
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         // Add authentication interceptor
         registration.interceptors(webSocketAuthInterceptor);
+        configureChannel(registration, "inbound", appConfig.getWebsocket().getInbound());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        configureChannel(registration, "outbound", appConfig.getWebsocket().getOutbound());
+    }
+
+    /**
+     * Give a channel a bounded, monitored executor
+     */
+    private void configureChannel(ChannelRegistration registration, String channel, AppConfig.WebSocket.ChannelPool pool) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ws-" + channel + "-");
+
+        registration.interceptors(webSocketMetrics.latencyInterceptor(channel));
+        registration.taskExecutor(executor)
+                .corePoolSize(pool.getCorePoolSize())
+                .maxPoolSize(pool.getMaxPoolSize())
+                .queueCapacity(pool.getQueueCapacity());
+        webSocketMetrics.monitor(channel, executor);
     }
 }
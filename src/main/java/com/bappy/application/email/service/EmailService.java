@@ -1,6 +1,7 @@
 package com.bappy.application.email.service;
 
 import com.bappy.application.email.dto.EmailDto;
+import com.bappy.application.notification.dto.NotificationDto;
 import com.bappy.application.user.entity.User;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
@@ -16,6 +17,7 @@ import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -208,4 +210,31 @@ public class EmailService {
             log.error("Failed to send welcome email to: {}", user.getEmail(), e);
         }
     }
+
+    /**
+     * Send notification digest email
+     */
+    @Async
+    public void sendNotificationDigestEmail(User user, List<NotificationDto> notifications, long totalCount) {
+        try {
+            Map<String, Object> model = new HashMap<>();
+            model.put("name", user.getFirstName() != null ? user.getFirstName() : user.getEmail());
+            model.put("notifications", notifications);
+            model.put("totalCount", totalCount);
+            model.put("moreCount", Math.max(totalCount - notifications.size(), 0));
+            model.put("appUrl", frontendUrl);
+            
+            EmailDto emailDto = EmailDto.builder()
+                    .to(user.getEmail())
+                    .subject(totalCount == 1 ? "You have 1 new notification" : "You have " + totalCount + " new notifications")
+                    .templateName("email/notification-digest-email")
+                    .templateModel(model)
+                    .build();
+            
+            sendTemplateEmail(emailDto);
+            log.info("Notification digest email sent to: {}", user.getEmail());
+        } catch (Exception e) {
+            log.error("Failed to send notification digest email to: {}", user.getEmail(), e);
+        }
+    }
 }
@@ -0,0 +1,269 @@
+package com.bappy.application.idempotency.filter;
+
+import com.bappy.application.common.dto.ApiResponse;
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.idempotency.service.IdempotencyStore;
+import com.bappy.application.idempotency.service.IdempotencyStore.StoredResponse;
+import com.bappy.application.security.UserPrincipal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes configured POST endpoints idempotent for requests carrying an {@code Idempotency-Key} header.
+ * The first request with a key runs normally and its response is stored; retries with the same key and
+ * the same request replay that response without running the handler again. Reusing a key for a different
+ * request is rejected with 422, and a retry arriving while the first is still running waits for it.
+ * Keys are scoped to the authenticated user, or shared by anonymous callers. Server errors and 429s are
+ * not stored, so those retries run again. Non-multipart bodies are buffered for the fingerprint, so keyed
+ * requests over the configured size are refused with 413.
+ * <p>
+ * Registered as a plain servlet filter, after Spring Security, so the caller is already known.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AppConfig appConfig;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        AppConfig.Idempotency config = appConfig.getIdempotency();
+        return !config.getEnabled()
+                || !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !config.getPaths().contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        HttpServletRequest fingerprinted = request;
+        if (!isMultipart(request)) {
+            int maxRequestBytes = appConfig.getIdempotency().getMaxRequestBytes();
+            byte[] body = request.getContentLengthLong() > maxRequestBytes
+                    ? null
+                    : request.getInputStream().readNBytes(maxRequestBytes + 1);
+            if (body == null || body.length > maxRequestBytes) {
+                count("too_large");
+                writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Requests with an " + IDEMPOTENCY_KEY_HEADER +
+                        " are limited to " + maxRequestBytes + " bytes");
+                return;
+            }
+            fingerprinted = new CachedBodyRequest(request, body);
+        }
+        byte[] fingerprint = fingerprint(fingerprinted);
+        String key = scope() + ":" + request.getServletPath() + ":" + idempotencyKey;
+
+        StoredResponse stored;
+        try {
+            stored = idempotencyStore.awaitOrClaim(key);
+        } catch (TimeoutException e) {
+            count("timeout");
+            writeError(response, HttpStatus.CONFLICT, "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still in progress");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(response, HttpStatus.SERVICE_UNAVAILABLE, "Request interrupted");
+            return;
+        }
+
+        if (stored != null) {
+            if (!MessageDigest.isEqual(stored.fingerprint(), fingerprint)) {
+                count("mismatch");
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+                return;
+            }
+            count("replayed");
+            replay(stored, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(fingerprinted, captured);
+
+            int status = captured.getStatus();
+            byte[] body = captured.getContentAsByteArray();
+            if (status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value()
+                    && body.length <= appConfig.getIdempotency().getMaxResponseBytes()) {
+                idempotencyStore.complete(key, fingerprint, status, captured.getContentType(), body);
+                completed = true;
+            }
+            count("executed");
+        } finally {
+            if (!completed) {
+                idempotencyStore.release(key);
+            }
+            captured.copyBodyToResponse();
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    /**
+     * SHA-256 over the method, path, query and body; multipart bodies are digested part by part,
+     * since the container parses them from the raw stream
+     */
+    private byte[] fingerprint(HttpServletRequest request) throws IOException, ServletException {
+        MessageDigest digest = sha256();
+        digest.update((request.getMethod() + " " + request.getRequestURI() + "?" + request.getQueryString() + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        if (request instanceof CachedBodyRequest cached) {
+            digest.update(cached.body);
+            return digest.digest();
+        }
+
+        for (Part part : request.getParts()) {
+            digest.update((part.getName() + "\n" + part.getSubmittedFileName() + "\n" + part.getSize() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            try (InputStream content = new DigestInputStream(part.getInputStream(), digest)) {
+                content.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+        return digest.digest();
+    }
+
+    private static String scope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "user:" + principal.getId();
+        }
+        return "anonymous";
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Request whose body is read up front for the fingerprint and replayed to the handler
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream content = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return content.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return content.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return content.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Async reads are not supported");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
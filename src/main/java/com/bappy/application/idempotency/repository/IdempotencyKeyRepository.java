@@ -0,0 +1,52 @@
+package com.bappy.application.idempotency.repository;
+
+import com.bappy.application.idempotency.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for IdempotencyKey entity.
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Find a stored response that has not expired
+     */
+    @Query("SELECT k FROM IdempotencyKey k WHERE k.key = :key AND k.status IS NOT NULL AND k.expiresAt > :now")
+    Optional<IdempotencyKey> findLive(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    /**
+     * Claim a key for a request about to run, unless a live response or claim exists; expired rows are taken over
+     *
+     * @return 1 if claimed, 0 if the key is held
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, expires_at) VALUES (:key, :expiresAt) " +
+                   "ON CONFLICT (idempotency_key) DO UPDATE " +
+                   "SET fingerprint = NULL, status = NULL, content_type = NULL, body = NULL, " +
+                   "expires_at = EXCLUDED.expires_at " +
+                   "WHERE idempotency_keys.expires_at <= :now",
+           nativeQuery = true)
+    int claim(@Param("key") String key, @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Drop a claim whose request finished without a stored response
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.key = :key AND k.status IS NULL")
+    int deleteClaim(@Param("key") String key);
+
+    /**
+     * Delete expired keys
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,259 @@
+package com.bappy.application.idempotency.service;
+
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.idempotency.entity.IdempotencyKey;
+import com.bappy.application.idempotency.repository.IdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Completed responses of idempotent requests, by caller-scoped key.
+ * Responses live in a bounded in-memory cache, capped by entry count and total body bytes and expired
+ * after a fixed TTL; with persistence enabled they are also written to the database, so retries that land
+ * after a restart or on another node still replay. Requests in flight are tracked per key, so a
+ * concurrent duplicate on the same node waits for the first one instead of running again. With persistence
+ * the key is also claimed in the database before the request runs, so a duplicate on another node polls for
+ * the stored response instead; a claim left by a node that died lapses after the claim TTL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyStore {
+
+    private static final long CLAIM_POLL_MS = 100;
+
+    private final IdempotencyKeyRepository keyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AppConfig appConfig;
+
+    /**
+     * Insertion-ordered, which with a fixed TTL is also expiry order; guarded by its own monitor
+     */
+    private final LinkedHashMap<String, StoredResponse> responses = new LinkedHashMap<>();
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private long cachedBytes;
+
+    /**
+     * Response of a completed request; the fingerprint identifies the request it answered
+     */
+    public record StoredResponse(byte[] fingerprint, int status, String contentType, byte[] body, long expiresAtMs) {
+
+        long size() {
+            return fingerprint.length + body.length + (contentType != null ? contentType.length() : 0);
+        }
+    }
+
+    /**
+     * Get the stored response for a key, waiting while another request with the key is in flight.
+     * Returns null when no response exists; the caller then owns the key and must
+     * {@link #complete} or {@link #release} it.
+     *
+     * @throws TimeoutException if the request in flight does not finish in time
+     */
+    public StoredResponse awaitOrClaim(String key) throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config().getWaitTimeoutMs());
+        while (true) {
+            StoredResponse stored = find(key);
+            if (stored != null) {
+                return stored;
+            }
+
+            CompletableFuture<StoredResponse> claim = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, claim);
+            if (running == null) {
+                // The previous owner may have finished between the lookup and the claim
+                stored = cached(key);
+                if (stored != null) {
+                    inFlight.remove(key, claim);
+                    claim.complete(stored);
+                    return stored;
+                }
+                if (!config().getPersistent() || claimPersisted(key)) {
+                    return null;
+                }
+
+                // Held by another node: let local duplicates retry too, and poll until it stores a response
+                inFlight.remove(key, claim);
+                claim.complete(null);
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new TimeoutException("Idempotency key " + key + " is held by another node");
+                }
+                Thread.sleep(Math.min(CLAIM_POLL_MS, TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 1));
+                continue;
+            }
+
+            try {
+                stored = running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                stored = null;
+            }
+            if (stored != null) {
+                return stored;
+            }
+            // The owner released the key without a response; try to claim it
+        }
+    }
+
+    /**
+     * Store the response of an owned key and hand it to waiting duplicates
+     */
+    public void complete(String key, byte[] fingerprint, int status, String contentType, byte[] body) {
+        long expiresAtMs = System.currentTimeMillis() + config().getTtlMs();
+        StoredResponse stored = new StoredResponse(fingerprint, status, contentType, body, expiresAtMs);
+        cache(key, stored);
+        if (config().getPersistent()) {
+            persist(key, stored);
+        }
+
+        CompletableFuture<StoredResponse> claim = inFlight.remove(key);
+        if (claim != null) {
+            claim.complete(stored);
+        }
+    }
+
+    /**
+     * Give up an owned key without a response, so the next request with it runs again
+     */
+    public void release(String key) {
+        if (config().getPersistent()) {
+            try {
+                transactionTemplate.execute(status -> keyRepository.deleteClaim(key));
+            } catch (DataAccessException e) {
+                // Other nodes wait until the claim lapses
+                log.warn("Failed to release idempotency key {}: {}", key, e.getMessage());
+            }
+        }
+
+        CompletableFuture<StoredResponse> claim = inFlight.remove(key);
+        if (claim != null) {
+            claim.complete(null);
+        }
+    }
+
+    /**
+     * Delete expired persisted keys (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.sweep-ms:600000}",
+               initialDelayString = "${app.idempotency.sweep-ms:600000}")
+    public void sweep() {
+        if (!config().getPersistent()) {
+            return;
+        }
+
+        Integer deleted = transactionTemplate.execute(status -> keyRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("Expired idempotency keys deleted: {}", deleted);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private StoredResponse find(String key) {
+        StoredResponse stored = cached(key);
+        if (stored != null || !config().getPersistent()) {
+            return stored;
+        }
+
+        return keyRepository.findLive(key, LocalDateTime.now())
+                .map(row -> {
+                    StoredResponse loaded = new StoredResponse(row.getFingerprint(), row.getStatus(),
+                            row.getContentType(), row.getBody(),
+                            row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                    cache(key, loaded);
+                    return loaded;
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Claim the key in the database; when it cannot be reached, the request runs with the node-local claim only
+     */
+    private boolean claimPersisted(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Integer claimed = transactionTemplate.execute(status ->
+                    keyRepository.claim(key, now, now.plus(config().getClaimTtlMs(), ChronoUnit.MILLIS)));
+            return claimed != null && claimed > 0;
+        } catch (DataAccessException e) {
+            log.warn("Failed to claim idempotency key {}: {}", key, e.getMessage());
+            return true;
+        }
+    }
+
+    private StoredResponse cached(String key) {
+        synchronized (responses) {
+            StoredResponse stored = responses.get(key);
+            if (stored != null && stored.expiresAtMs() <= System.currentTimeMillis()) {
+                responses.remove(key);
+                cachedBytes -= stored.size();
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private void cache(String key, StoredResponse stored) {
+        AppConfig.Idempotency config = config();
+        long now = System.currentTimeMillis();
+        synchronized (responses) {
+            StoredResponse previous = responses.remove(key);
+            if (previous != null) {
+                cachedBytes -= previous.size();
+            }
+            responses.put(key, stored);
+            cachedBytes += stored.size();
+
+            // Drop the oldest entries while over either bound, and any expired ones at the head
+            Iterator<StoredResponse> oldest = responses.values().iterator();
+            while (oldest.hasNext()) {
+                StoredResponse head = oldest.next();
+                if (responses.size() <= config.getMaxEntries() && cachedBytes <= config.getMaxCacheBytes()
+                        && head.expiresAtMs() > now) {
+                    break;
+                }
+                oldest.remove();
+                cachedBytes -= head.size();
+            }
+        }
+    }
+
+    private void persist(String key, StoredResponse stored) {
+        try {
+            keyRepository.save(IdempotencyKey.builder()
+                    .key(key)
+                    .fingerprint(stored.fingerprint())
+                    .status(stored.status())
+                    .contentType(stored.contentType())
+                    .body(stored.body())
+                    .expiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(stored.expiresAtMs()), ZoneId.systemDefault()))
+                    .build());
+        } catch (DataAccessException e) {
+            // The response still replays from this node's cache
+            log.warn("Failed to persist idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private AppConfig.Idempotency config() {
+        return appConfig.getIdempotency();
+    }
+}
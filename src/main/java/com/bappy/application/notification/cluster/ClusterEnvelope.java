@@ -0,0 +1,38 @@
+package com.bappy.application.notification.cluster;
+
+import com.bappy.application.notification.dto.NotificationDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One NOTIFY payload: a batch of full events, or only notification ids when the events
+ * would not fit the payload limit and receivers must load them.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterEnvelope {
+
+    @Builder.Default
+    private List<Event> events = new ArrayList<>();
+
+    @Builder.Default
+    private List<Long> notificationIds = new ArrayList<>();
+
+    /**
+     * A push to one user, or to everyone when {@code userId} is null
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Event {
+        private Long userId;
+        private NotificationDto notification;
+    }
+}
@@ -0,0 +1,43 @@
+package com.bappy.application.notification.cluster;
+
+import com.bappy.application.notification.dto.NotificationDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Single-node dispatcher: delivers straight to this node's sessions.
+ */
+@Component
+@ConditionalOnProperty(name = "app.notifications.cluster.mode", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalNotificationDispatcher implements NotificationDispatcher {
+
+    private final NotificationDelivery delivery;
+
+    @Override
+    public void sendToUser(Long userId, NotificationDto notification) {
+        afterCommit(() -> delivery.deliverToUser(userId, notification));
+    }
+
+    @Override
+    public void broadcast(NotificationDto notification) {
+        afterCommit(() -> delivery.deliverBroadcast(notification));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.bappy.application.notification.cluster;
+
+import com.bappy.application.common.concurrent.HashedTimingWheel;
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.notification.dto.NotificationDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user coalescing window for WebSocket pushes.
+ * The first push to a user opens a window; pushes arriving within it are held and sent together
+ * as one frame when it closes, or as soon as the batch is full. Repeated pushes of the same notification
+ * keep only the latest. A lone push is sent as a plain object, a merged batch as an array. Added latency
+ * is bounded by the window plus one wheel tick.
+ * Window flushes are driven by one shared timing wheel, not a timer per user. Each window is its own
+ * object, so a wheel task left over from a window that was already flushed as full does nothing.
+ */
+@Component
+@Slf4j
+public class NotificationCoalescer {
+
+    private static final long TICK_MS = 10;
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final AppConfig appConfig;
+    private final DistributionSummary batchSizes;
+
+    private final Map<Long, Window> pending = new ConcurrentHashMap<>();
+
+    private HashedTimingWheel wheel;
+
+    public NotificationCoalescer(SimpMessagingTemplate messagingTemplate, AppConfig appConfig,
+                                 MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.appConfig = appConfig;
+        this.batchSizes = DistributionSummary.builder("notifications.push.coalesced")
+                .description("Notifications per coalesced WebSocket frame")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (isEnabled()) {
+            wheel = new HashedTimingWheel("notification-coalescer", TICK_MS, WHEEL_SIZE);
+        }
+    }
+
+    /**
+     * Flush every open window and stop the wheel
+     */
+    @PreDestroy
+    void stop() {
+        if (wheel != null) {
+            wheel.close();
+            pending.forEach(this::flush);
+        }
+    }
+
+    /**
+     * Check if pushes are coalesced
+     */
+    public boolean isEnabled() {
+        return appConfig.getNotifications().getCoalesceWindowMs() > 0;
+    }
+
+    /**
+     * Hold a push in the user's window, opening one if needed
+     */
+    public void add(Long userId, NotificationDto notification) {
+        int maxBatch = appConfig.getNotifications().getCoalesceMaxBatch();
+        Window[] opened = new Window[1];
+        Window[] full = new Window[1];
+        pending.compute(userId, (id, current) -> {
+            if (current == null) {
+                current = new Window();
+                opened[0] = current;
+            }
+            // A grouped notification updated within the window only needs its latest aggregate
+            current.items.removeIf(held -> held.getId() != null && held.getId().equals(notification.getId()));
+            current.items.add(notification);
+            if (current.items.size() >= maxBatch) {
+                // Taken out of the map here, so no other push can join it while it is sent
+                full[0] = current;
+                return null;
+            }
+            return current;
+        });
+
+        if (full[0] != null) {
+            send(userId, full[0]);
+        } else if (opened[0] != null) {
+            Window window = opened[0];
+            wheel.schedule(appConfig.getNotifications().getCoalesceWindowMs(), TimeUnit.MILLISECONDS,
+                    () -> flush(userId, window));
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Send a window if it is still the user's open one
+     */
+    private void flush(Long userId, Window window) {
+        if (pending.remove(userId, window)) {
+            send(userId, window);
+        }
+    }
+
+    /**
+     * Send a window's pushes as one frame
+     */
+    private void send(Long userId, Window window) {
+        List<NotificationDto> batch = window.items;
+        try {
+            Object payload = batch.size() == 1 ? batch.get(0) : batch;
+            messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/notifications", payload);
+            batchSizes.record(batch.size());
+        } catch (Exception e) {
+            log.error("Failed to deliver {} coalesced notifications to user: {}", batch.size(), userId, e);
+        }
+    }
+
+    /**
+     * Pushes held for one user; only touched inside {@code compute} until removed from the map
+     */
+    private static final class Window {
+        private final List<NotificationDto> items = new ArrayList<>();
+    }
+}
@@ -0,0 +1,102 @@
+package com.bappy.application.notification.cluster;
+
+import com.bappy.application.notification.dto.NotificationDto;
+import com.bappy.application.notification.preference.NotificationPreferenceRegistry;
+import com.bappy.application.notification.presence.PresenceRegistry;
+import com.bappy.application.notification.stream.NotificationStreamRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers notifications to WebSocket sessions and event streams connected to this node.
+ * Offline users are skipped before the payload is serialized; pushes to online users may be coalesced.
+ */
+@Component
+@Slf4j
+public class NotificationDelivery {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceRegistry presenceRegistry;
+    private final NotificationCoalescer coalescer;
+    private final NotificationStreamRegistry streamRegistry;
+    private final NotificationPreferenceRegistry preferenceRegistry;
+    private final Counter deliveredCounter;
+    private final Counter skippedCounter;
+
+    public NotificationDelivery(SimpMessagingTemplate messagingTemplate, PresenceRegistry presenceRegistry,
+                                NotificationCoalescer coalescer, NotificationStreamRegistry streamRegistry,
+                                NotificationPreferenceRegistry preferenceRegistry, MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.presenceRegistry = presenceRegistry;
+        this.coalescer = coalescer;
+        this.streamRegistry = streamRegistry;
+        this.preferenceRegistry = preferenceRegistry;
+        this.deliveredCounter = Counter.builder("notifications.push")
+                .tag("result", "delivered")
+                .description("Notification pushes to users on this node")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("notifications.push")
+                .tag("result", "offline")
+                .description("Notification pushes to users on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Deliver to a user if they have a session on this node.
+     * Returns false when the user is offline here, so callers can fall back to another channel.
+     */
+    public boolean deliverToUser(Long userId, NotificationDto notification) {
+        if (!presenceRegistry.isOnline(userId)) {
+            skippedCounter.increment();
+            return false;
+        }
+
+        // Event streams first; skip STOMP when every session of the user is a stream
+        int streams = streamRegistry.count(userId);
+        if (streams > 0) {
+            streamRegistry.send(userId, notification);
+            if (presenceRegistry.getSessionCount(userId) <= streams) {
+                deliveredCounter.increment();
+                return true;
+            }
+        }
+
+        if (coalescer.isEnabled()) {
+            coalescer.add(userId, notification);
+            deliveredCounter.increment();
+            return true;
+        }
+
+        try {
+            messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/notifications", notification);
+            deliveredCounter.increment();
+            log.debug("Notification {} delivered to user: {}", notification.getId(), userId);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to deliver notification via WebSocket to user: {}", userId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Deliver to every session on this node with one send to the shared topic.
+     * Topic subscribers apply their own preferences to broadcasts; event streams are per user,
+     * so those of users who would not accept the push are skipped here.
+     */
+    public void deliverBroadcast(NotificationDto notification) {
+        if (presenceRegistry.getOnlineUsers() == 0) {
+            return;
+        }
+
+        streamRegistry.broadcast(notification, userId -> preferenceRegistry.acceptsPush(userId, notification.getType()));
+        try {
+            messagingTemplate.convertAndSend("/topic/notifications", notification);
+            log.debug("Broadcast notification {} delivered", notification.getId());
+        } catch (Exception e) {
+            log.error("Failed to deliver broadcast notification via WebSocket", e);
+        }
+    }
+}
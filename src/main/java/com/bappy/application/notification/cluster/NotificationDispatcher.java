@@ -0,0 +1,20 @@
+package com.bappy.application.notification.cluster;
+
+import com.bappy.application.notification.dto.NotificationDto;
+
+/**
+ * Pushes notifications to connected WebSocket sessions, wherever in the cluster they are.
+ * Inside a transaction, pushes are held until it commits and dropped if it rolls back.
+ */
+public interface NotificationDispatcher {
+
+    /**
+     * Push a notification to one user's sessions
+     */
+    void sendToUser(Long userId, NotificationDto notification);
+
+    /**
+     * Push a notification to every connected session
+     */
+    void broadcast(NotificationDto notification);
+}
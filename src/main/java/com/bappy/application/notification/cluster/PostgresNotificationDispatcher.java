@@ -0,0 +1,273 @@
+package com.bappy.application.notification.cluster;
+
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.notification.dto.NotificationDto;
+import com.bappy.application.notification.repository.NotificationRepository;
+import com.bappy.application.notification.shard.NotificationShards;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Cluster dispatcher over PostgreSQL LISTEN/NOTIFY.
+ * Pushes are packed into as few NOTIFY payloads as fit the size limit and sent on the transaction's
+ * own connection, so PostgreSQL delivers them only if it commits. Events too large for one payload
+ * travel as notification ids and are loaded by the receivers.
+ * Every node, including the publisher, holds one dedicated LISTEN connection outside the pool and
+ * delivers only to sessions connected to it. Events published while a node is reconnecting are lost.
+ */
+@Component
+@ConditionalOnProperty(name = "app.notifications.cluster.mode", havingValue = "postgres")
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresNotificationDispatcher implements NotificationDispatcher, SmartLifecycle {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private static final int POLL_TIMEOUT_MS = 500;
+
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private static final String EVENTS_PREFIX = "{\"events\":[";
+
+    private static final String IDS_PREFIX = "],\"notificationIds\":[";
+
+    private static final String SUFFIX = "]}";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final NotificationDelivery delivery;
+    private final NotificationRepository notificationRepository;
+    private final NotificationShards notificationShards;
+    private final AppConfig appConfig;
+
+    private volatile boolean running;
+
+    private Thread listenerThread;
+
+    @Override
+    public void sendToUser(Long userId, NotificationDto notification) {
+        publish(new ClusterEnvelope.Event(userId, notification));
+    }
+
+    @Override
+    public void broadcast(NotificationDto notification) {
+        publish(new ClusterEnvelope.Event(null, notification));
+    }
+
+    @Override
+    public void start() {
+        String channel = channel();
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalStateException("Invalid notification channel name: " + channel);
+        }
+
+        running = true;
+        listenerThread = new Thread(this::listen, "notification-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // ==================== Publishing ====================
+
+    /**
+     * Buffer an event until the current transaction commits, or publish it right away outside one
+     */
+    @SuppressWarnings("unchecked")
+    private void publish(ClusterEnvelope.Event event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            flush(List.of(event));
+            return;
+        }
+
+        List<ClusterEnvelope.Event> pending = (List<ClusterEnvelope.Event>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<ClusterEnvelope.Event> buffer = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    PostgresNotificationDispatcher.this.flush(buffer);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PostgresNotificationDispatcher.this);
+                }
+            });
+            pending = buffer;
+        }
+        pending.add(event);
+    }
+
+    /**
+     * Pack events into payloads under the size limit and NOTIFY each one
+     */
+    private void flush(List<ClusterEnvelope.Event> events) {
+        int limit = appConfig.getNotifications().getCluster().getMaxPayloadBytes();
+        int overhead = EVENTS_PREFIX.length() + IDS_PREFIX.length() + SUFFIX.length();
+
+        List<String> batch = new ArrayList<>();
+        int batchBytes = overhead;
+        List<String> oversizedIds = new ArrayList<>();
+
+        for (ClusterEnvelope.Event event : events) {
+            String json = toJson(event);
+            int bytes = json.getBytes(StandardCharsets.UTF_8).length;
+
+            if (overhead + bytes > limit) {
+                oversizedIds.add(String.valueOf(event.getNotification().getId()));
+                continue;
+            }
+            if (batchBytes + bytes + 1 > limit) {
+                notify(envelope(batch, List.of()));
+                batch.clear();
+                batchBytes = overhead;
+            }
+            batch.add(json);
+            batchBytes += bytes + 1;
+        }
+        if (!batch.isEmpty()) {
+            notify(envelope(batch, List.of()));
+        }
+
+        List<String> ids = new ArrayList<>();
+        int idBytes = overhead;
+        for (String id : oversizedIds) {
+            if (idBytes + id.length() + 1 > limit) {
+                notify(envelope(List.of(), ids));
+                ids.clear();
+                idBytes = overhead;
+            }
+            ids.add(id);
+            idBytes += id.length() + 1;
+        }
+        if (!ids.isEmpty()) {
+            notify(envelope(List.of(), ids));
+        }
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.execute("SELECT pg_notify(?, ?)", (PreparedStatementCallback<Boolean>) statement -> {
+            statement.setString(1, channel());
+            statement.setString(2, payload);
+            return statement.execute();
+        });
+    }
+
+    private static String envelope(List<String> events, List<String> notificationIds) {
+        return EVENTS_PREFIX + String.join(",", events) + IDS_PREFIX + String.join(",", notificationIds) + SUFFIX;
+    }
+
+    private String toJson(ClusterEnvelope.Event event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize notification event", e);
+        }
+    }
+
+    // ==================== Listening ====================
+
+    /**
+     * Hold one LISTEN connection and deliver incoming envelopes, reconnecting on failure
+     */
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel());
+                }
+                log.info("Listening for cluster notifications on channel: {}", channel());
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Cluster notification listener disconnected, reconnecting in {} ms", RECONNECT_DELAY_MS, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        try {
+            ClusterEnvelope envelope = objectMapper.readValue(payload, ClusterEnvelope.class);
+            envelope.getEvents().forEach(this::deliver);
+
+            if (!envelope.getNotificationIds().isEmpty()) {
+                // The ids may span shards; broadcasts are found on every shard but delivered once
+                Map<Long, NotificationDto> notifications = new LinkedHashMap<>();
+                notificationShards.scatter(() -> notificationRepository.findViewsByIds(envelope.getNotificationIds()))
+                        .forEach(found -> found.forEach(notification -> notifications.putIfAbsent(notification.getId(), notification)));
+                notifications.values().forEach(notification -> deliver(
+                        new ClusterEnvelope.Event(notification.getRecipientId(), notification)));
+            }
+        } catch (Exception e) {
+            log.error("Failed to handle cluster notification payload", e);
+        }
+    }
+
+    private void deliver(ClusterEnvelope.Event event) {
+        if (event.getUserId() == null) {
+            delivery.deliverBroadcast(event.getNotification());
+        } else {
+            delivery.deliverToUser(event.getUserId(), event.getNotification());
+        }
+    }
+
+    private String channel() {
+        return appConfig.getNotifications().getCluster().getChannel();
+    }
+}
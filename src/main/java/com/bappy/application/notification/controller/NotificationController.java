@@ -3,11 +3,22 @@ package com.bappy.application.notification.controller;
 import com.bappy.application.common.dto.ApiResponse;
 import com.bappy.application.common.dto.PageResponse;
 import com.bappy.application.notification.dto.CreateNotificationRequest;
+import com.bappy.application.notification.dto.FanoutSummary;
+import com.bappy.application.notification.dto.IngestSummary;
 import com.bappy.application.notification.dto.NotificationDto;
+import com.bappy.application.notification.dto.NotificationSendResult;
+import com.bappy.application.notification.dto.NotificationPreferencesDto;
+import com.bappy.application.notification.dto.NotificationSearchResult;
+import com.bappy.application.notification.dto.PresenceSummary;
+import com.bappy.application.notification.dto.SyncResponse;
+import com.bappy.application.notification.entity.NotificationType;
+import com.bappy.application.notification.service.NotificationIngestService;
+import com.bappy.application.notification.service.NotificationPreferenceService;
+import com.bappy.application.notification.service.NotificationSearchService;
 import com.bappy.application.notification.service.NotificationService;
+import com.bappy.application.notification.service.NotificationSyncService;
+import com.bappy.application.notification.shard.NotificationShards;
 import com.bappy.application.security.UserPrincipal;
-import com.bappy.application.user.entity.User;
-import com.bappy.application.user.repository.UserRepository;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -15,15 +26,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.io.InputStream;
+import java.util.Map;
 
 /**
  * Notification REST controller.
+ * Work on a user's notifications runs on that user's shard, see {@link NotificationShards}.
  */
 @RestController
 @RequestMapping("/api/v1/notifications")
@@ -33,7 +49,11 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
-    private final UserRepository userRepository;
+    private final NotificationSyncService notificationSyncService;
+    private final NotificationPreferenceService notificationPreferenceService;
+    private final NotificationSearchService notificationSearchService;
+    private final NotificationIngestService notificationIngestService;
+    private final NotificationShards notificationShards;
 
     /**
      * Send notification to specific user (1-to-1)
@@ -47,12 +67,14 @@ public class NotificationController {
         
         log.info("Send notification request from user: {}", currentUser.getId());
         
-        User sender = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        NotificationSendResult result = notificationShards.callOnShardOf(request.getRecipientId(),
+                () -> notificationService.createNotification(request, currentUser.getId()));
         
-        NotificationDto notification = notificationService.createNotification(request, sender);
-        
-        return ResponseEntity.ok(ApiResponse.success("Notification sent successfully", notification));
+        return ResponseEntity.ok(switch (result.status()) {
+            case CREATED -> ApiResponse.success("Notification sent successfully", result.notification());
+            case SCHEDULED -> ApiResponse.success("Notification scheduled", result.notification());
+            case MUTED -> ApiResponse.success("Notification type muted by recipient");
+        });
     }
 
     /**
@@ -61,21 +83,69 @@ public class NotificationController {
     @PostMapping("/broadcast")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Broadcast notification", description = "Send notification to all users (Admin only)")
-    public ResponseEntity<ApiResponse<List<NotificationDto>>> broadcastNotification(
+    public ResponseEntity<ApiResponse<NotificationDto>> broadcastNotification(
             @Valid @RequestBody CreateNotificationRequest request,
             @AuthenticationPrincipal UserPrincipal currentUser) {
         
         log.info("Broadcast notification request from admin: {}", currentUser.getId());
         
-        User sender = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
         request.setIsBroadcast(true);
-        List<NotificationDto> notifications = notificationService.createBroadcastNotification(request, sender);
+        NotificationDto notification = notificationService.createBroadcastNotification(request, currentUser.getId());
+        
+        return ResponseEntity.ok(ApiResponse.success("Broadcast notification published", notification));
+    }
+
+    /**
+     * Send notification to a segment of users by role, status or provider (1-to-many)
+     */
+    @PostMapping("/segment")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Send segment notification",
+               description = "Send notification to users matching roles, statuses or providers (Admin only)")
+    public ResponseEntity<ApiResponse<FanoutSummary>> sendSegmentNotification(
+            @Valid @RequestBody CreateNotificationRequest request,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        
+        log.info("Segment notification request from admin: {}", currentUser.getId());
+        
+        FanoutSummary summary = notificationService.createSegmentNotification(request, currentUser.getId());
         
         return ResponseEntity.ok(ApiResponse.success(
-                "Broadcast notification sent to " + notifications.size() + " users", 
-                notifications));
+                "Segment notification sent to " + summary.getNotificationsCreated() + " users", summary));
+    }
+
+    /**
+     * Ingest many 1-to-1 notifications from NDJSON or a JSON array, with a result per item
+     */
+    @PostMapping(value = "/ingest", consumes = {NotificationIngestService.NDJSON_MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ingest notifications",
+               description = "Bulk create 1-to-1 notifications from NDJSON or a JSON array; throttled items can be resent (Admin only)")
+    public ResponseEntity<ApiResponse<IngestSummary>> ingestNotifications(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        
+        log.info("Notification ingestion request from admin: {}", currentUser.getId());
+        
+        boolean ndjson = MediaType.parseMediaType(contentType)
+                .isCompatibleWith(MediaType.parseMediaType(NotificationIngestService.NDJSON_MEDIA_TYPE));
+        IngestSummary summary = notificationIngestService.ingest(body, ndjson, currentUser.getId());
+        
+        return ResponseEntity.ok(ApiResponse.success(
+                "Ingested " + summary.getReceived() + " notifications", summary));
+    }
+
+    /**
+     * Get online users and open WebSocket sessions on this node
+     */
+    @GetMapping("/presence")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get presence", description = "Get online users and open WebSocket sessions on the serving node (Admin only)")
+    public ResponseEntity<ApiResponse<PresenceSummary>> getPresence() {
+        PresenceSummary presence = notificationService.getPresence();
+        
+        return ResponseEntity.ok(ApiResponse.success("Presence retrieved successfully", presence));
     }
 
     /**
@@ -83,17 +153,22 @@ public class NotificationController {
      */
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Get notifications", description = "Get all notifications for current user")
+    @Operation(summary = "Get notifications",
+               description = "Get all notifications for current user. Offset pages with totals by default; pass cursor (empty for the first page) to page by cursor, with totals opt-in")
     public ResponseEntity<ApiResponse<PageResponse<NotificationDto>>> getNotifications(
             @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         
-        User user = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Pageable pageable = PageRequest.of(page, size);
-        PageResponse<NotificationDto> notifications = notificationService.getUserNotifications(user, pageable);
+        PageResponse<NotificationDto> notifications = notificationShards.callOnShardOf(currentUser.getId(), () -> {
+            if (cursor != null) {
+                return notificationService.getUserNotifications(currentUser.getId(), cursor, size, includeTotal);
+            }
+            Pageable pageable = PageRequest.of(page, size);
+            return notificationService.getUserNotifications(currentUser.getId(), pageable);
+        });
         
         return ResponseEntity.ok(ApiResponse.success("Notifications retrieved successfully", notifications));
     }
@@ -103,19 +178,104 @@ public class NotificationController {
      */
     @GetMapping("/unread")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Get unread notifications", description = "Get unread notifications for current user")
+    @Operation(summary = "Get unread notifications",
+               description = "Get unread notifications for current user. Offset pages with totals by default; pass cursor (empty for the first page) to page by cursor, with totals opt-in")
     public ResponseEntity<ApiResponse<PageResponse<NotificationDto>>> getUnreadNotifications(
             @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        PageResponse<NotificationDto> notifications = notificationShards.callOnShardOf(currentUser.getId(), () -> {
+            if (cursor != null) {
+                return notificationService.getUnreadNotifications(currentUser.getId(), cursor, size, includeTotal);
+            }
+            Pageable pageable = PageRequest.of(page, size);
+            return notificationService.getUnreadNotifications(currentUser.getId(), pageable);
+        });
+        
+        return ResponseEntity.ok(ApiResponse.success("Unread notifications retrieved successfully", notifications));
+    }
+
+    /**
+     * Get changes since a notification id or sync cursor
+     */
+    @GetMapping("/sync")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Sync notifications",
+               description = "Get notifications created, read and deleted since a notification id or the nextCursor of a previous sync")
+    public ResponseEntity<ApiResponse<SyncResponse>> syncNotifications(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(required = false) String since) {
+        
+        SyncResponse changes = notificationShards.callOnShardOf(currentUser.getId(),
+                () -> notificationSyncService.sync(currentUser.getId(), since));
+        
+        return ResponseEntity.ok(ApiResponse.success("Notifications synced successfully", changes));
+    }
+
+    /**
+     * Search notifications of current user
+     */
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Search notifications",
+               description = "Search titles and messages of current user's notifications, most relevant first, with highlighted matches")
+    public ResponseEntity<ApiResponse<PageResponse<NotificationSearchResult>>> searchNotifications(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size) {
         
-        User user = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        PageResponse<NotificationSearchResult> results = notificationShards.callOnShardOf(currentUser.getId(),
+                () -> notificationSearchService.search(currentUser.getId(), q, cursor, size));
+        
+        return ResponseEntity.ok(ApiResponse.success("Notifications searched successfully", results));
+    }
+
+    /**
+     * Get notification preferences of current user
+     */
+    @GetMapping("/preferences")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get preferences", description = "Get muted types, disabled channels and quiet hours of current user")
+    public ResponseEntity<ApiResponse<NotificationPreferencesDto>> getPreferences(
+            @AuthenticationPrincipal UserPrincipal currentUser) {
         
-        Pageable pageable = PageRequest.of(page, size);
-        PageResponse<NotificationDto> notifications = notificationService.getUnreadNotifications(user, pageable);
+        NotificationPreferencesDto preferences = notificationPreferenceService.getPreferences(currentUser.getId());
         
-        return ResponseEntity.ok(ApiResponse.success("Unread notifications retrieved successfully", notifications));
+        return ResponseEntity.ok(ApiResponse.success("Preferences retrieved successfully", preferences));
+    }
+
+    /**
+     * Replace notification preferences of current user
+     */
+    @PutMapping("/preferences")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Update preferences", description = "Replace muted types, disabled channels and quiet hours of current user")
+    public ResponseEntity<ApiResponse<NotificationPreferencesDto>> updatePreferences(
+            @RequestBody NotificationPreferencesDto request,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        
+        NotificationPreferencesDto preferences = notificationPreferenceService.updatePreferences(currentUser.getId(), request);
+        
+        return ResponseEntity.ok(ApiResponse.success("Preferences updated successfully", preferences));
+    }
+
+    /**
+     * Stream notifications as Server-Sent Events
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Stream notifications",
+               description = "Server-Sent Events stream of new notifications; send Last-Event-ID to resume after a disconnect")
+    public SseEmitter streamNotifications(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        
+        return notificationShards.callOnShardOf(currentUser.getId(),
+                () -> notificationService.openStream(currentUser.getId(), lastEventId));
     }
 
     /**
@@ -125,14 +285,24 @@ public class NotificationController {
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "Get unread count", description = "Get count of unread notifications")
     public ResponseEntity<ApiResponse<Long>> getUnreadCount(@AuthenticationPrincipal UserPrincipal currentUser) {
-        User user = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        long count = notificationService.getUnreadCount(user);
+        long count = notificationService.getUnreadCount(currentUser.getId());
         
         return ResponseEntity.ok(ApiResponse.success("Unread count retrieved successfully", count));
     }
 
+    /**
+     * Get unread notification counts by type
+     */
+    @GetMapping("/unread/count/by-type")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get unread count by type", description = "Get count of unread notifications per notification type")
+    public ResponseEntity<ApiResponse<Map<NotificationType, Long>>> getUnreadCountByType(
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        Map<NotificationType, Long> counts = notificationService.getUnreadCountByType(currentUser.getId());
+        
+        return ResponseEntity.ok(ApiResponse.success("Unread counts retrieved successfully", counts));
+    }
+
     /**
      * Mark notification as read
      */
@@ -143,10 +313,7 @@ public class NotificationController {
             @PathVariable Long id,
             @AuthenticationPrincipal UserPrincipal currentUser) {
         
-        User user = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        notificationService.markAsRead(id, user);
+        notificationShards.runOnShardOf(currentUser.getId(), () -> notificationService.markAsRead(id, currentUser.getId()));
         
         return ResponseEntity.ok(ApiResponse.success("Notification marked as read"));
     }
@@ -158,10 +325,7 @@ public class NotificationController {
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "Mark all as read", description = "Mark all notifications as read")
     public ResponseEntity<ApiResponse<Void>> markAllAsRead(@AuthenticationPrincipal UserPrincipal currentUser) {
-        User user = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        notificationService.markAllAsRead(user);
+        notificationShards.runOnShardOf(currentUser.getId(), () -> notificationService.markAllAsRead(currentUser.getId()));
         
         return ResponseEntity.ok(ApiResponse.success("All notifications marked as read"));
     }
@@ -176,10 +340,8 @@ public class NotificationController {
             @PathVariable Long id,
             @AuthenticationPrincipal UserPrincipal currentUser) {
         
-        User user = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        notificationService.deleteNotification(id, user);
+        notificationShards.runOnShardOf(currentUser.getId(),
+                () -> notificationService.deleteNotification(id, currentUser.getId()));
         
         return ResponseEntity.ok(ApiResponse.success("Notification deleted successfully"));
     }
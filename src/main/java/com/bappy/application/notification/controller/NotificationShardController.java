@@ -0,0 +1,75 @@
+package com.bappy.application.notification.controller;
+
+import com.bappy.application.common.dto.ApiResponse;
+import com.bappy.application.notification.dto.ShardMove;
+import com.bappy.application.notification.dto.ShardStats;
+import com.bappy.application.notification.shard.NotificationShardRebalancer;
+import com.bappy.application.notification.shard.NotificationShards;
+import com.bappy.application.security.UserPrincipal;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Notification shard administration: placement, sizes and online bucket moves
+ */
+@RestController
+@RequestMapping("/api/v1/notifications/shards")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Notification Shards", description = "Notification shard administration endpoints")
+public class NotificationShardController {
+
+    private final NotificationShards notificationShards;
+    private final NotificationShardRebalancer rebalancer;
+
+    /**
+     * Get the buckets and estimated size of every shard
+     */
+    @GetMapping
+    @Operation(summary = "Get shard stats", description = "Get bucket counts and estimated notification rows per shard (Admin only)")
+    public ResponseEntity<ApiResponse<List<ShardStats>>> getShardStats() {
+        return ResponseEntity.ok(ApiResponse.success(notificationShards.stats()));
+    }
+
+    /**
+     * Spread buckets evenly over all shards in the background
+     */
+    @PostMapping("/rebalance")
+    @Operation(summary = "Rebalance shards",
+               description = "Move buckets online until every shard holds an even share; returns the planned moves (Admin only)")
+    public ResponseEntity<ApiResponse<List<ShardMove>>> rebalance(
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        log.info("Notification shard rebalance request from admin: {}", currentUser.getId());
+
+        List<ShardMove> moves = rebalancer.rebalance();
+
+        return ResponseEntity.ok(ApiResponse.success("Moving " + moves.size() + " buckets", moves));
+    }
+
+    /**
+     * Move one bucket to another shard in the background
+     */
+    @PostMapping("/buckets/{bucket}/move")
+    @Operation(summary = "Move bucket", description = "Move a bucket and its users to another shard online (Admin only)")
+    public ResponseEntity<ApiResponse<ShardMove>> moveBucket(
+            @PathVariable int bucket,
+            @RequestParam int shard,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        log.info("Notification shard bucket {} move to shard {} requested by admin: {}", bucket, shard, currentUser.getId());
+
+        ShardMove move = rebalancer.moveBucket(bucket, shard);
+
+        return ResponseEntity.ok(ApiResponse.success("Moving bucket " + bucket, move));
+    }
+}
@@ -0,0 +1,272 @@
+package com.bappy.application.notification.counter;
+
+import com.bappy.application.common.collection.ConcurrentLongLongMap;
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.notification.entity.NotificationType;
+import com.bappy.application.notification.repository.NotificationRepository;
+import com.bappy.application.notification.shard.NotificationShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory unread notification counters, including unread broadcasts.
+ * Each tracked user has a total entry plus one entry per notification type with unread items,
+ * stored under composite keys {@code (userId << 4) | slot} in a primitive map.
+ * Counters are loaded lazily on first read, updated incrementally after each write commits,
+ * and dropped periodically so drift (expired broadcasts, writes that bypass the service) is bounded.
+ * Only writes made on this node reach its counters, so in cluster mode nothing is cached and every
+ * read counts from the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UnreadNotificationCounter {
+
+    private static final NotificationType[] TYPES = NotificationType.values();
+
+    private static final int TOTAL_SLOT = 15;
+
+    private static final long MISSING = -1L;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationShards notificationShards;
+    private final AppConfig appConfig;
+
+    private final ConcurrentLongLongMap counts = new ConcurrentLongLongMap();
+
+    private final Object[] locks = createLocks();
+
+    /**
+     * Bumped on every write to a lock stripe, so a load that raced a write is not cached
+     */
+    private final AtomicLongArray versions = new AtomicLongArray(LOCK_STRIPES);
+
+    /**
+     * Get the total unread count of a user
+     */
+    public long getTotal(long userId) {
+        long total = counts.get(key(userId, TOTAL_SLOT), MISSING);
+        if (total != MISSING) {
+            return total;
+        }
+
+        long sum = 0;
+        for (long count : load(userId)) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    /**
+     * Get the unread counts of a user by notification type
+     */
+    public Map<NotificationType, Long> getByType(long userId) {
+        long[] byType = null;
+        synchronized (lockFor(userId)) {
+            if (counts.containsKey(key(userId, TOTAL_SLOT))) {
+                byType = new long[TYPES.length];
+                for (NotificationType type : TYPES) {
+                    byType[type.ordinal()] = counts.get(key(userId, type.ordinal()), 0L);
+                }
+            }
+        }
+        if (byType == null) {
+            byType = load(userId);
+        }
+
+        Map<NotificationType, Long> result = new EnumMap<>(NotificationType.class);
+        for (NotificationType type : TYPES) {
+            result.put(type, byType[type.ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * Check if a user's counters are in memory (callers skip type lookups otherwise)
+     */
+    public boolean isTracked(long userId) {
+        return counts.containsKey(key(userId, TOTAL_SLOT));
+    }
+
+    /**
+     * Count a new unread notification once the current transaction commits
+     */
+    public void increment(long userId, NotificationType type) {
+        afterCommit(() -> add(userId, type, 1));
+    }
+
+    /**
+     * Count a new unread broadcast for every tracked user once the current transaction commits
+     */
+    public void incrementAll(NotificationType type) {
+        afterCommit(() -> {
+            for (int i = 0; i < LOCK_STRIPES; i++) {
+                versions.incrementAndGet(i);
+            }
+            counts.forEachKey(key -> {
+                if ((key & 0xF) == TOTAL_SLOT) {
+                    add(key >>> 4, type, 1);
+                }
+            });
+        });
+    }
+
+    /**
+     * Uncount a notification that was read or deleted once the current transaction commits
+     */
+    public void decrement(long userId, NotificationType type) {
+        afterCommit(() -> add(userId, type, -1));
+    }
+
+    /**
+     * Zero a user's counters once the current transaction commits
+     */
+    public void reset(long userId) {
+        afterCommit(() -> {
+            synchronized (lockFor(userId)) {
+                versions.incrementAndGet(stripeOf(userId));
+                if (counts.containsKey(key(userId, TOTAL_SLOT))) {
+                    install(userId, new long[TYPES.length]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop a user's counters once the current transaction commits, so the next read reloads them
+     */
+    public void invalidate(long userId) {
+        afterCommit(() -> {
+            synchronized (lockFor(userId)) {
+                versions.incrementAndGet(stripeOf(userId));
+                counts.remove(key(userId, TOTAL_SLOT), 0L);
+                for (NotificationType type : TYPES) {
+                    counts.remove(key(userId, type.ordinal()), 0L);
+                }
+            }
+        });
+    }
+
+    /**
+     * Periodically drop all counters so they are reloaded from the database on next read
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.unread-counter-reconcile-ms:300000}",
+               initialDelayString = "${app.notifications.unread-counter-reconcile-ms:300000}")
+    public void reconcile() {
+        long tracked = counts.size();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        counts.clear();
+        log.info("Unread notification counters reconciled: {} entries dropped", tracked);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void add(long userId, NotificationType type, long delta) {
+        synchronized (lockFor(userId)) {
+            versions.incrementAndGet(stripeOf(userId));
+            long totalKey = key(userId, TOTAL_SLOT);
+            if (!counts.containsKey(totalKey)) {
+                return;
+            }
+
+            long typeKey = key(userId, type.ordinal());
+            if (counts.addAndGet(typeKey, delta) <= 0) {
+                counts.remove(typeKey, 0L);
+            }
+            if (counts.addAndGet(totalKey, delta) < 0) {
+                counts.put(totalKey, 0L, 0L);
+            }
+        }
+    }
+
+    /**
+     * Load a user's counts from their shard and cache them unless a write raced the load (or other nodes write)
+     */
+    private long[] load(long userId) {
+        int stripe = stripeOf(userId);
+        long version = versions.get(stripe);
+
+        long[] byType = new long[TYPES.length];
+        LocalDateTime since = LocalDateTime.now().minusDays(appConfig.getNotifications().getBroadcastRetentionDays());
+        notificationShards.runOnShardOf(userId, () -> {
+            notificationRepository.countUnreadByType(userId)
+                    .forEach(count -> byType[count.getType().ordinal()] += count.getCount());
+            notificationRepository.countUnreadBroadcastsByType(userId, since)
+                    .forEach(count -> byType[count.getType().ordinal()] += count.getCount());
+        });
+
+        if (!"local".equals(appConfig.getNotifications().getCluster().getMode())) {
+            return byType;
+        }
+        synchronized (lockFor(userId)) {
+            if (versions.get(stripe) == version && !counts.containsKey(key(userId, TOTAL_SLOT))) {
+                install(userId, byType);
+            }
+        }
+        return byType;
+    }
+
+    /**
+     * Write every slot of a user, removing zero type entries; caller holds the user's lock
+     */
+    private void install(long userId, long[] byType) {
+        long total = 0;
+        for (NotificationType type : TYPES) {
+            long count = byType[type.ordinal()];
+            if (count > 0) {
+                counts.put(key(userId, type.ordinal()), count, 0L);
+            } else {
+                counts.remove(key(userId, type.ordinal()), 0L);
+            }
+            total += count;
+        }
+        counts.put(key(userId, TOTAL_SLOT), total, 0L);
+    }
+
+    private Object lockFor(long userId) {
+        return locks[stripeOf(userId)];
+    }
+
+    private static int stripeOf(long userId) {
+        return (int) ((userId * 0x9E3779B97F4A7C15L) >>> 58);
+    }
+
+    private static long key(long userId, int slot) {
+        return (userId << 4) | slot;
+    }
+
+    private static Object[] createLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,13 +1,17 @@
 package com.bappy.application.notification.dto;
 
 import com.bappy.application.notification.entity.NotificationType;
+import com.bappy.application.user.dto.UserSegment;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 /**
  * Create notification request DTO.
  */
@@ -28,10 +32,19 @@ public class CreateNotificationRequest {
 
     private Long recipientId;  // null for broadcast
 
+    private UserSegment segment;  // roles/statuses/providers for segment-targeted notifications
+
     private String actionUrl;
 
     private String actionLabel;
 
     @Builder.Default
     private Boolean isBroadcast = false;
+
+    private LocalDateTime sendAt;  // deliver later instead of now
+
+    private LocalDateTime expiresAt;  // drop from feeds after this time
+
+    @Size(max = 255, message = "Group key must not exceed 255 characters")
+    private String groupKey;  // fold into the recipient's unread notification with the same key
 }
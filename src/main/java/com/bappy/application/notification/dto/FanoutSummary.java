@@ -0,0 +1,20 @@
+package com.bappy.application.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Summary of a notification fanned out to many recipients.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FanoutSummary {
+
+    private long matchedRecipients;
+    private long notificationsCreated;
+    private long durationMs;
+}
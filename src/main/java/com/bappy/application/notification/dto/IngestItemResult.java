@@ -0,0 +1,32 @@
+package com.bappy.application.notification.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a bulk ingestion request, by its position in the input.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngestItemResult {
+
+    private int index;
+    private Status status;
+    private Long id;
+    private String error;
+
+    public enum Status {
+        CREATED,    // stored; push queued
+        SCHEDULED,  // stored for later delivery
+        MUTED,      // dropped by the recipient's preferences
+        REJECTED,   // invalid; resending will not help
+        THROTTLED,  // not processed because the pipeline was saturated; safe to resend
+        FAILED      // not stored because of a storage error; safe to resend
+    }
+}
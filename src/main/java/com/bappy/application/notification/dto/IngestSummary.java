@@ -0,0 +1,28 @@
+package com.bappy.application.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk ingestion request with the outcome of every item.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestSummary {
+
+    private long received;
+    private long created;
+    private long scheduled;
+    private long muted;
+    private long rejected;
+    private long throttled;
+    private long failed;
+    private long durationMs;
+    private List<IngestItemResult> results;
+}
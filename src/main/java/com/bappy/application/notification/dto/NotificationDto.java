@@ -33,4 +33,11 @@ public class NotificationDto {
     
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime expiresAt;
+
+    private String groupKey;
+    private Integer groupCount;  // events folded into this notification
+    private Long[] actorIds;  // most recent distinct senders, newest first
 }
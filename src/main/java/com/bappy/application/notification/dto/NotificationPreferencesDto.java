@@ -0,0 +1,34 @@
+package com.bappy.application.notification.dto;
+
+import com.bappy.application.notification.entity.NotificationChannel;
+import com.bappy.application.notification.entity.NotificationType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * Notification preferences of a user.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPreferencesDto {
+
+    private Set<NotificationType> mutedTypes;  // neither stored nor pushed
+
+    private Set<NotificationChannel> disabledChannels;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime quietHoursStart;  // no pushes from start to end; both or neither
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime quietHoursEnd;
+
+    private String timeZone;  // zone of the quiet hours, UTC if not set
+}
@@ -0,0 +1,21 @@
+package com.bappy.application.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Notification search hit with highlighted matches.
+ * Highlights are HTML-escaped with matched terms wrapped in {@code <mark>}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationSearchResult {
+
+    private NotificationDto notification;
+    private String titleHighlight;
+    private String messageHighlight;
+}
@@ -0,0 +1,28 @@
+package com.bappy.application.notification.dto;
+
+/**
+ * What happened to a 1-to-1 notification, and the notification itself unless it was muted.
+ *
+ * @param status       Whether the notification was stored, scheduled or dropped
+ * @param notification The stored notification, or the scheduled one without an id yet; null when muted
+ */
+public record NotificationSendResult(Status status, NotificationDto notification) {
+
+    public enum Status {
+        CREATED,    // stored (or folded into its group) and pushed
+        SCHEDULED,  // stored for delivery at its send time
+        MUTED       // dropped by the recipient's preferences
+    }
+
+    public static NotificationSendResult created(NotificationDto notification) {
+        return new NotificationSendResult(Status.CREATED, notification);
+    }
+
+    public static NotificationSendResult scheduled(NotificationDto notification) {
+        return new NotificationSendResult(Status.SCHEDULED, notification);
+    }
+
+    public static NotificationSendResult muted() {
+        return new NotificationSendResult(Status.MUTED, null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.bappy.application.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Online users and open WebSocket sessions on the serving node.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceSummary {
+
+    private long onlineUsers;
+    private long openSessions;
+}
@@ -0,0 +1,26 @@
+package com.bappy.application.notification.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Acknowledgement pushed back to a client once its read receipts are persisted.
+ * Lists every id handled, including ones that were ignored (unknown, not the user's or already read).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptAck {
+
+    private List<Long> notificationIds;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime persistedAt;
+}
@@ -0,0 +1,24 @@
+package com.bappy.application.notification.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Read receipts sent by a client over STOMP.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptRequest {
+
+    @NotEmpty(message = "Notification IDs are required")
+    @Size(max = 500, message = "At most 500 notification IDs per receipt")
+    private List<Long> notificationIds;
+}
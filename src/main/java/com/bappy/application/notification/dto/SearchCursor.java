@@ -0,0 +1,50 @@
+package com.bappy.application.notification.dto;
+
+import com.bappy.application.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Search keyset position: the relevance and id of the last hit of the previous page.
+ * Serialized as an opaque URL-safe token so clients never depend on its layout.
+ *
+ * @param rank Relevance of the last hit returned
+ * @param id   Id of the last hit returned, breaking ties on equal relevance
+ */
+public record SearchCursor(Double rank, Long id) {
+
+    /**
+     * Position before the most relevant hit, used for the first page
+     */
+    public static final SearchCursor FIRST = new SearchCursor(Double.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * Decode a token, returning {@link #FIRST} when absent
+     */
+    public static SearchCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            double rank = Double.parseDouble(value.substring(0, separator));
+            if (!Double.isFinite(rank)) {
+                throw new IllegalArgumentException("Rank must be finite");
+            }
+            return new SearchCursor(rank, Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid search cursor", e);
+        }
+    }
+
+    /**
+     * Encode as an opaque token
+     */
+    public String encode() {
+        String value = rank + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
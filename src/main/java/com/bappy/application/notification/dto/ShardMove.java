@@ -0,0 +1,20 @@
+package com.bappy.application.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Move of one notification shard bucket, with every user in it, to another shard.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardMove {
+
+    private int bucket;
+    private int fromShard;
+    private int toShard;
+}
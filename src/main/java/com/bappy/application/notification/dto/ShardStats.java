@@ -0,0 +1,21 @@
+package com.bappy.application.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Size of one notification shard; notification counts are planner estimates.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardStats {
+
+    private int shard;
+    private String schema;
+    private int buckets;
+    private long estimatedNotifications;
+}
@@ -0,0 +1,38 @@
+package com.bappy.application.notification.dto;
+
+import com.bappy.application.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Delta sync position: the newest notification id and change log position a client has seen.
+ * Serialized as an opaque URL-safe token so clients never depend on its layout.
+ *
+ * @param notificationId Newest notification id delivered to the client
+ * @param changeId       Newest change log position delivered to the client
+ */
+public record SyncCursor(Long notificationId, Long changeId) {
+
+    /**
+     * Decode a token
+     */
+    public static SyncCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            return new SyncCursor(Long.parseLong(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid sync cursor", e);
+        }
+    }
+
+    /**
+     * Encode as an opaque token
+     */
+    public String encode() {
+        String value = notificationId + "|" + changeId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,55 @@
+package com.bappy.application.notification.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Changes to a user's notifications since a sync cursor.
+ * When {@code fullReloadRequired} is set the client is too far behind and must reload its feed,
+ * then continue syncing from {@code nextCursor}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class SyncResponse {
+
+    /**
+     * Notifications created since the cursor, oldest first
+     */
+    private List<NotificationDto> created;
+
+    /**
+     * Grouped notifications that had events folded in since the cursor, with their current aggregate
+     */
+    private List<NotificationDto> updated;
+
+    /**
+     * Ids of notifications read since the cursor
+     */
+    private List<Long> read;
+
+    /**
+     * Ids of notifications deleted or dismissed since the cursor
+     */
+    private List<Long> deleted;
+
+    /**
+     * Every notification with an id up to this one is read ("mark all as read")
+     */
+    private Long readUpToId;
+
+    private Long unreadCount;
+
+    private String nextCursor;
+
+    private boolean hasMore;
+
+    private boolean fullReloadRequired;
+}
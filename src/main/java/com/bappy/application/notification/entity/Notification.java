@@ -4,6 +4,10 @@ import com.bappy.application.common.entity.BaseEntity;
 import com.bappy.application.user.entity.User;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
 
 /**
  * Notification entity for storing notifications.
@@ -32,12 +36,21 @@ public class Notification extends BaseEntity {
     @Builder.Default
     private NotificationType type = NotificationType.INFO;
 
+    /**
+     * Recipient user id, null for broadcasts (stored once, merged into feeds at read time)
+     */
+    @Column(name = "recipient_id")
+    private Long recipientId;
+
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "recipient_id", nullable = false)
+    @JoinColumn(name = "recipient_id", insertable = false, updatable = false)
     private User recipient;
 
+    @Column(name = "sender_id")
+    private Long senderId;
+
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "sender_id")
+    @JoinColumn(name = "sender_id", insertable = false, updatable = false)
     private User sender;
 
     @Column(nullable = false)
@@ -54,6 +67,32 @@ public class Notification extends BaseEntity {
     @Column(length = 100)
     private String actionLabel;
 
+    /**
+     * After this time the notification drops out of feeds and is swept; null never expires
+     */
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    /**
+     * Repeated events with this key are folded into the recipient's open (unread) row; null never groups
+     */
+    @Column(name = "group_key")
+    private String groupKey;
+
+    /**
+     * Number of events folded into this row
+     */
+    @Column(name = "group_count", nullable = false)
+    @Builder.Default
+    private Integer groupCount = 1;
+
+    /**
+     * Most recent distinct senders of a grouped row, newest first
+     */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "group_actor_ids")
+    private Long[] groupActorIds;
+
     /**
      * Mark notification as read
      */
@@ -0,0 +1,10 @@
+package com.bappy.application.notification.entity;
+
+/**
+ * Kinds of notification changes reported by delta sync.
+ */
+public enum NotificationChangeType {
+    READ,
+    DELETED,
+    UPDATED
+}
@@ -0,0 +1,17 @@
+package com.bappy.application.notification.entity;
+
+/**
+ * Notification delivery channel a user can turn off.
+ * Notifications are always kept in the feed unless their type is muted.
+ */
+public enum NotificationChannel {
+    /**
+     * Live delivery over WebSocket and event streams
+     */
+    PUSH,
+
+    /**
+     * Email delivery
+     */
+    EMAIL
+}
@@ -0,0 +1,30 @@
+package com.bappy.application.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-user digest email position.
+ * Unread notifications with ids above {@code lastNotificationId} are pending for the next digest.
+ */
+@Entity
+@Table(name = "notification_digests")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationDigest {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "last_notification_id", nullable = false)
+    private Long lastNotificationId;
+
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+}
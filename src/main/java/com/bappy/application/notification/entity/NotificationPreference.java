@@ -0,0 +1,56 @@
+package com.bappy.application.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Per-user notification preferences.
+ * Muted types are neither stored nor pushed; disabled channels and quiet hours only affect delivery.
+ * Quiet hours are in the user's time zone and may wrap past midnight.
+ */
+@Entity
+@Table(name = "notification_preferences")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationPreference {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * {@link NotificationType} names
+     */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "muted_types", nullable = false)
+    @Builder.Default
+    private String[] mutedTypes = new String[0];
+
+    /**
+     * {@link NotificationChannel} names
+     */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "disabled_channels", nullable = false)
+    @Builder.Default
+    private String[] disabledChannels = new String[0];
+
+    @Column(name = "quiet_hours_start")
+    private LocalTime quietHoursStart;
+
+    @Column(name = "quiet_hours_end")
+    private LocalTime quietHoursEnd;
+
+    @Column(name = "time_zone", length = 64)
+    private String timeZone;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
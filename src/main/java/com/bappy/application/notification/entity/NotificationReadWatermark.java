@@ -0,0 +1,35 @@
+package com.bappy.application.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-user "mark all as read" position.
+ * Every notification with an id up to {@code lastReadId} counts as read for the user,
+ * whatever its row-level flag; flags are compacted up to {@code compactedId} in the background.
+ */
+@Entity
+@Table(name = "notification_read_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationReadWatermark {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "last_read_id", nullable = false)
+    private Long lastReadId;
+
+    @Column(name = "compacted_id", nullable = false)
+    @Builder.Default
+    private Long compactedId = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
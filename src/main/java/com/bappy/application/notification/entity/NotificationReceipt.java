@@ -0,0 +1,43 @@
+package com.bappy.application.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-user read/dismiss state for a broadcast notification.
+ * Only written when the user interacts with the broadcast.
+ */
+@Entity
+@Table(name = "notification_receipts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationReceipt {
+
+    @EmbeddedId
+    private NotificationReceiptId id;
+
+    @Column(name = "read_at")
+    private LocalDateTime readAt;
+
+    @Column(name = "dismissed_at")
+    private LocalDateTime dismissedAt;
+
+    /**
+     * Check if receipt marks the broadcast as read
+     */
+    public boolean isRead() {
+        return readAt != null;
+    }
+
+    /**
+     * Check if receipt hides the broadcast from the feed
+     */
+    public boolean isDismissed() {
+        return dismissedAt != null;
+    }
+}
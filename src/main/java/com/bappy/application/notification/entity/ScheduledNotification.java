@@ -0,0 +1,65 @@
+package com.bappy.application.notification.entity;
+
+import com.bappy.application.common.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification waiting for its send time.
+ * The notification row is only created at {@code sendAt}, so its id and creation time reflect
+ * when it was delivered and feeds, watermarks and sync need no special cases.
+ */
+@Entity
+@Table(name = "scheduled_notifications")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledNotification extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scheduled_notifications_id_seq")
+    @SequenceGenerator(name = "scheduled_notifications_id_seq", sequenceName = "scheduled_notifications_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false, length = 1000)
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationType type;
+
+    /**
+     * Recipient user id, null for broadcasts
+     */
+    @Column(name = "recipient_id")
+    private Long recipientId;
+
+    @Column(name = "sender_id")
+    private Long senderId;
+
+    @Column(name = "is_broadcast", nullable = false)
+    @Builder.Default
+    private Boolean isBroadcast = false;
+
+    @Column(length = 500)
+    private String actionUrl;
+
+    @Column(length = 100)
+    private String actionLabel;
+
+    @Column(name = "send_at", nullable = false)
+    private LocalDateTime sendAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "group_key")
+    private String groupKey;
+}
@@ -0,0 +1,290 @@
+package com.bappy.application.notification.preference;
+
+import com.bappy.application.common.collection.ConcurrentLongLongMap;
+import com.bappy.application.notification.entity.NotificationChannel;
+import com.bappy.application.notification.entity.NotificationPreference;
+import com.bappy.application.notification.entity.NotificationType;
+import com.bappy.application.notification.repository.NotificationPreferenceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory notification preferences of every user who changed them, so checks never hit the database.
+ * Each user's preferences are packed into one long in a primitive map:
+ * <pre>
+ * bits  0-15  muted notification types (by ordinal)
+ * bits 16-19  disabled channels (by ordinal)
+ * bit  20     quiet hours set
+ * bits 21-31  quiet hours start, minute of day
+ * bits 32-42  quiet hours end, minute of day
+ * bits 43-52  time zone, index into an interned zone table
+ * </pre>
+ * Users without an entry get everything. Local changes apply after commit; changes made on other
+ * nodes are picked up by a periodic refresh of recently updated rows.
+ */
+@Component
+@Slf4j
+public class NotificationPreferenceRegistry {
+
+    private static final long NONE = 0L;
+
+    private static final int CHANNEL_SHIFT = 16;
+
+    private static final long QUIET_FLAG = 1L << 20;
+
+    private static final int QUIET_START_SHIFT = 21;
+
+    private static final int QUIET_END_SHIFT = 32;
+
+    private static final int ZONE_SHIFT = 43;
+
+    private static final long MINUTE_MASK = 0x7FF;
+
+    private static final int MAX_ZONES = 1 << 10;
+
+    /**
+     * Overlap between refreshes, so rows committed with a slightly older timestamp are not missed
+     */
+    private static final long REFRESH_OVERLAP_SECONDS = 5;
+
+    static {
+        if (NotificationType.values().length > CHANNEL_SHIFT || NotificationChannel.values().length > 4) {
+            throw new IllegalStateException("Notification preferences do not fit their bit layout");
+        }
+    }
+
+    private final NotificationPreferenceRepository preferenceRepository;
+    private final Counter mutedWrites;
+    private final Counter mutedPushes;
+    private final Counter channelPushes;
+    private final Counter quietPushes;
+
+    private final ConcurrentLongLongMap preferences = new ConcurrentLongLongMap();
+
+    private final List<ZoneId> zones = new CopyOnWriteArrayList<>(List.of(ZoneOffset.UTC));
+
+    private final Map<ZoneId, Integer> zoneIndexes = new ConcurrentHashMap<>(Map.of(ZoneOffset.UTC, 0));
+
+    /**
+     * Update time up to which preferences are loaded; null until the initial full load
+     */
+    private volatile LocalDateTime refreshedUpTo;
+
+    public NotificationPreferenceRegistry(NotificationPreferenceRepository preferenceRepository,
+                                          MeterRegistry meterRegistry) {
+        this.preferenceRepository = preferenceRepository;
+        this.mutedWrites = suppressedCounter(meterRegistry, "muted", "write");
+        this.mutedPushes = suppressedCounter(meterRegistry, "muted", "push");
+        this.channelPushes = suppressedCounter(meterRegistry, "channel_disabled", "push");
+        this.quietPushes = suppressedCounter(meterRegistry, "quiet_hours", "push");
+    }
+
+    @PostConstruct
+    void load() {
+        refresh();
+        log.info("Notification preferences loaded for {} users", preferences.size());
+    }
+
+    /**
+     * Check if a notification of a type should be stored for a user; muted ones are counted as saved writes
+     */
+    public boolean acceptsNotification(long userId, NotificationType type) {
+        long packed = preferences.get(userId, NONE);
+        if (isMuted(packed, type)) {
+            mutedWrites.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check if a notification should be pushed to a user right now; suppressed pushes are counted by reason
+     */
+    public boolean acceptsPush(long userId, NotificationType type) {
+        long packed = preferences.get(userId, NONE);
+        if (packed == NONE) {
+            return true;
+        }
+        if (isMuted(packed, type)) {
+            mutedPushes.increment();
+            return false;
+        }
+        if (isDisabled(packed, NotificationChannel.PUSH)) {
+            channelPushes.increment();
+            return false;
+        }
+        if (isQuiet(packed)) {
+            quietPushes.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check if a user receives notifications over a channel
+     */
+    public boolean isChannelEnabled(long userId, NotificationChannel channel) {
+        return !isDisabled(preferences.get(userId, NONE), channel);
+    }
+
+    /**
+     * Apply a user's saved preferences once the current transaction commits
+     */
+    public void update(NotificationPreference preference) {
+        long userId = preference.getUserId();
+        long packed = pack(preference);
+        afterCommit(() -> put(userId, packed));
+    }
+
+    /**
+     * Pick up preferences changed since the last refresh, including changes made on other nodes
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.preference-refresh-ms:30000}",
+               initialDelayString = "${app.notifications.preference-refresh-ms:30000}")
+    public void refresh() {
+        LocalDateTime since = refreshedUpTo;
+        List<NotificationPreference> changed = since == null
+                ? preferenceRepository.findAll()
+                : preferenceRepository.findByUpdatedAtAfter(since);
+
+        LocalDateTime latest = null;
+        for (NotificationPreference preference : changed) {
+            put(preference.getUserId(), pack(preference));
+            if (latest == null || preference.getUpdatedAt().isAfter(latest)) {
+                latest = preference.getUpdatedAt();
+            }
+        }
+        if (latest != null && (since == null || latest.minusSeconds(REFRESH_OVERLAP_SECONDS).isAfter(since))) {
+            refreshedUpTo = latest.minusSeconds(REFRESH_OVERLAP_SECONDS);
+        } else if (since == null) {
+            refreshedUpTo = LocalDateTime.now().minusSeconds(REFRESH_OVERLAP_SECONDS);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void put(long userId, long packed) {
+        if (packed == NONE) {
+            preferences.remove(userId, NONE);
+        } else {
+            preferences.put(userId, packed, NONE);
+        }
+    }
+
+    private long pack(NotificationPreference preference) {
+        long packed = NONE;
+        for (String name : preference.getMutedTypes()) {
+            try {
+                packed |= 1L << NotificationType.valueOf(name).ordinal();
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring unknown muted notification type {} of user {}", name, preference.getUserId());
+            }
+        }
+        for (String name : preference.getDisabledChannels()) {
+            try {
+                packed |= 1L << (CHANNEL_SHIFT + NotificationChannel.valueOf(name).ordinal());
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring unknown notification channel {} of user {}", name, preference.getUserId());
+            }
+        }
+        if (preference.getQuietHoursStart() != null && preference.getQuietHoursEnd() != null) {
+            packed |= QUIET_FLAG
+                    | minuteOfDay(preference.getQuietHoursStart()) << QUIET_START_SHIFT
+                    | minuteOfDay(preference.getQuietHoursEnd()) << QUIET_END_SHIFT
+                    | (long) zoneIndex(preference.getTimeZone()) << ZONE_SHIFT;
+        }
+        return packed;
+    }
+
+    private static boolean isMuted(long packed, NotificationType type) {
+        return (packed & (1L << type.ordinal())) != 0;
+    }
+
+    private static boolean isDisabled(long packed, NotificationChannel channel) {
+        return (packed & (1L << (CHANNEL_SHIFT + channel.ordinal()))) != 0;
+    }
+
+    /**
+     * Check if it is within the quiet hours in the user's zone; a window may wrap past midnight
+     */
+    private boolean isQuiet(long packed) {
+        if ((packed & QUIET_FLAG) == 0) {
+            return false;
+        }
+
+        long start = (packed >>> QUIET_START_SHIFT) & MINUTE_MASK;
+        long end = (packed >>> QUIET_END_SHIFT) & MINUTE_MASK;
+        ZoneId zone = zones.get((int) (packed >>> ZONE_SHIFT) & (MAX_ZONES - 1));
+        long now = minuteOfDay(ZonedDateTime.now(zone).toLocalTime());
+        return start <= end ? now >= start && now < end : now >= start || now < end;
+    }
+
+    private static long minuteOfDay(LocalTime time) {
+        return time.getHour() * 60L + time.getMinute();
+    }
+
+    /**
+     * Intern a time zone; unknown zones, or any beyond the table size, fall back to UTC
+     */
+    private int zoneIndex(String timeZone) {
+        if (timeZone == null) {
+            return 0;
+        }
+
+        ZoneId zone;
+        try {
+            zone = ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            return 0;
+        }
+        synchronized (zones) {
+            return zoneIndexes.computeIfAbsent(zone, id -> {
+                if (zones.size() == MAX_ZONES) {
+                    log.warn("Time zone table full, using UTC for {}", id);
+                    return 0;
+                }
+                zones.add(id);
+                return zones.size() - 1;
+            });
+        }
+    }
+
+    private static Counter suppressedCounter(MeterRegistry meterRegistry, String reason, String work) {
+        return Counter.builder("notifications.suppressed")
+                .tag("reason", reason)
+                .tag("saved", work)
+                .description("Notification writes and pushes skipped because of user preferences")
+                .register(meterRegistry);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,158 @@
+package com.bappy.application.notification.presence;
+
+import com.bappy.application.common.collection.ConcurrentLongLongMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Users with at least one STOMP session or event stream on this node.
+ * Built from connect and disconnect events: online user ids map to their open session count
+ * in a primitive map, so push paths can skip offline users before serializing anything.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceRegistry {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentLongLongMap sessionCounts = new ConcurrentLongLongMap();
+
+    /**
+     * Session id to user id, so a disconnect reported twice is only counted once
+     */
+    private final Map<String, Long> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong onlineUsers = new AtomicLong();
+
+    private final Object[] locks = createLocks();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("notifications.presence.users", onlineUsers, AtomicLong::get)
+                .description("Users with an open WebSocket session or event stream on this node")
+                .register(meterRegistry);
+        Gauge.builder("notifications.presence.sessions", sessions, Map::size)
+                .description("Open authenticated WebSocket sessions and event streams on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Check if a user has a session on this node
+     */
+    public boolean isOnline(long userId) {
+        return sessionCounts.containsKey(userId);
+    }
+
+    /**
+     * Get the number of open sessions of a user on this node
+     */
+    public long getSessionCount(long userId) {
+        return sessionCounts.get(userId, 0L);
+    }
+
+    /**
+     * Get the number of users online on this node
+     */
+    public long getOnlineUsers() {
+        return onlineUsers.get();
+    }
+
+    /**
+     * Get the number of open sessions on this node
+     */
+    public long getOpenSessions() {
+        return sessions.size();
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Long userId = userId(event.getUser());
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (userId != null && sessionId != null) {
+            register(sessionId, userId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        unregister(event.getSessionId());
+    }
+
+    /**
+     * Record an open session of a user (STOMP or event stream)
+     */
+    public void register(String sessionId, long userId) {
+        if (sessions.putIfAbsent(sessionId, userId) != null) {
+            return;
+        }
+
+        synchronized (lockFor(userId)) {
+            if (sessionCounts.addAndGet(userId, 1) == 1) {
+                onlineUsers.incrementAndGet();
+            }
+        }
+        log.debug("User {} connected with session {}", userId, sessionId);
+    }
+
+    /**
+     * Record a closed session; repeated calls for the same session are ignored
+     */
+    public void unregister(String sessionId) {
+        Long userId = sessions.remove(sessionId);
+        if (userId == null) {
+            return;
+        }
+
+        synchronized (lockFor(userId)) {
+            if (sessionCounts.addAndGet(userId, -1) <= 0) {
+                sessionCounts.remove(userId, 0L);
+                onlineUsers.decrementAndGet();
+            }
+        }
+        log.debug("User {} disconnected session {}", userId, sessionId);
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * STOMP principals are named by user id (see WebSocketAuthInterceptor)
+     */
+    private static Long userId(Principal principal) {
+        if (principal == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(principal.getName());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Object lockFor(long userId) {
+        return locks[(int) ((userId * 0x9E3779B97F4A7C15L) >>> 58)];
+    }
+
+    private static Object[] createLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+}
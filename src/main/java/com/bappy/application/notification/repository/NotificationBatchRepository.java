@@ -0,0 +1,108 @@
+package com.bappy.application.notification.repository;
+
+import com.bappy.application.notification.entity.Notification;
+import com.bappy.application.notification.entity.NotificationChangeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC batch inserts of personal notifications and change log entries, bypassing the persistence context.
+ * Used by segment fan-out, bulk ingestion and the expiry sweep, where entity state and per-row inserts would
+ * dominate the cost.
+ * Ids come from the column default as rows are inserted, so they follow insert order like single inserts do;
+ * feeds, sync and read watermarks rely on that, which is why notifications do not use pooled id blocks.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NotificationBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO notifications (title, message, type, recipient_id, sender_id, is_read, is_broadcast,
+                                       action_url, action_label, expires_at, group_count,
+                                       created_at, updated_at, created_by, updated_by)
+            VALUES (?, ?, ?, ?, ?, FALSE, FALSE, ?, ?, ?, 1, ?, ?, ?, ?)
+            """;
+
+    private static final String CHANGE_SQL = """
+            INSERT INTO notification_changes (user_id, notification_id, change_type, changed_at)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert unsaved personal notifications in one JDBC batch and return their generated ids, in input order
+     */
+    public long[] insertAll(List<Notification> notifications, LocalDateTime now) {
+        Timestamp createdAt = Timestamp.valueOf(now);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Notification notification = notifications.get(i);
+                        ps.setString(1, notification.getTitle());
+                        ps.setString(2, notification.getMessage());
+                        ps.setString(3, notification.getType().name());
+                        ps.setLong(4, notification.getRecipientId());
+                        setLong(ps, 5, notification.getSenderId());
+                        ps.setString(6, notification.getActionUrl());
+                        ps.setString(7, notification.getActionLabel());
+                        ps.setTimestamp(8, notification.getExpiresAt() != null
+                                ? Timestamp.valueOf(notification.getExpiresAt()) : null);
+                        ps.setTimestamp(9, createdAt);
+                        ps.setTimestamp(10, createdAt);
+                        setLong(ps, 11, notification.getSenderId());
+                        setLong(ps, 12, notification.getSenderId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return notifications.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        long[] ids = new long[keys.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) keys.get(i).values().iterator().next()).longValue();
+        }
+        return ids;
+    }
+
+    /**
+     * Record the same change for many notifications, each for its own user, in one JDBC batch
+     */
+    public void recordChanges(List<NotificationRepository.ExpiredRow> rows, NotificationChangeType changeType,
+                              LocalDateTime now) {
+        Timestamp changedAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(CHANGE_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getRecipientId());
+            ps.setLong(2, row.getId());
+            ps.setString(3, changeType.name());
+            ps.setTimestamp(4, changedAt);
+        });
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.bappy.application.notification.repository;
+
+import com.bappy.application.notification.entity.NotificationChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the delta sync change log.
+ */
+@Repository
+public interface NotificationChangeRepository extends JpaRepository<NotificationChange, Long> {
+
+    /**
+     * Record one change
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notification_changes (user_id, notification_id, change_type, changed_at) " +
+                   "VALUES (:userId, :notificationId, :changeType, :now)",
+           nativeQuery = true)
+    int record(@Param("userId") Long userId,
+               @Param("notificationId") Long notificationId,
+               @Param("changeType") String changeType,
+               @Param("now") LocalDateTime now);
+
+    /**
+     * Record a change for each given notification visible to the user (own or broadcast)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notification_changes (user_id, notification_id, change_type, changed_at) " +
+                   "SELECT :userId, n.id, :changeType, :now FROM notifications n " +
+                   "WHERE n.id IN (:notificationIds) AND (n.recipient_id = :userId OR n.recipient_id IS NULL)",
+           nativeQuery = true)
+    int recordBatch(@Param("userId") Long userId,
+                    @Param("notificationIds") Collection<Long> notificationIds,
+                    @Param("changeType") String changeType,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * Find a user's changes after a log position, oldest first
+     */
+    List<NotificationChange> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
+
+    /**
+     * Oldest retained log position, or null when the log is empty
+     */
+    @Query("SELECT MIN(c.id) FROM NotificationChange c")
+    Long findOldestId();
+
+    /**
+     * Newest log position recorded before a point in time
+     */
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM NotificationChange c WHERE c.changedAt < :time")
+    Long findLatestIdBefore(@Param("time") LocalDateTime time);
+
+    /**
+     * First log position recorded at or after a point in time, or null if none
+     */
+    @Query("SELECT MIN(c.id) FROM NotificationChange c WHERE c.changedAt >= :time")
+    Long findFirstIdSince(@Param("time") LocalDateTime time);
+
+    /**
+     * Prune changes older than the retention cutoff
+     */
+    @Modifying
+    @Query("DELETE FROM NotificationChange c WHERE c.changedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
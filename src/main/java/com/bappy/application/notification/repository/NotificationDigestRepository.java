@@ -0,0 +1,70 @@
+package com.bappy.application.notification.repository;
+
+import com.bappy.application.notification.entity.NotificationDigest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for per-user digest email positions.
+ */
+@Repository
+public interface NotificationDigestRepository extends JpaRepository<NotificationDigest, Long> {
+
+    /**
+     * Find users with unread personal notifications settled since their last digest and read watermark,
+     * whose last digest is older than the cadence, in user id order after :afterUserId
+     */
+    @Query(value = "SELECT n.recipient_id AS userId, " +
+                   "GREATEST(COALESCE(d.last_notification_id, 0), COALESCE(w.last_read_id, 0)) AS fromId, " +
+                   "MAX(n.id) AS toId, COUNT(*) AS pending " +
+                   "FROM notifications n " +
+                   "LEFT JOIN notification_digests d ON d.user_id = n.recipient_id " +
+                   "LEFT JOIN notification_read_watermarks w ON w.user_id = n.recipient_id " +
+                   "WHERE n.recipient_id IS NOT NULL AND n.is_read = FALSE " +
+                   "AND n.created_at >= :lookback AND n.created_at <= :settledBefore " +
+                   "AND (n.expires_at IS NULL OR n.expires_at > :now) " +
+                   "AND n.id > GREATEST(COALESCE(d.last_notification_id, 0), COALESCE(w.last_read_id, 0)) " +
+                   "AND (d.sent_at IS NULL OR d.sent_at <= :cadenceCutoff) " +
+                   "AND n.recipient_id > :afterUserId " +
+                   "GROUP BY n.recipient_id, d.last_notification_id, w.last_read_id " +
+                   "ORDER BY n.recipient_id LIMIT :batchSize",
+           nativeQuery = true)
+    List<DigestCandidate> findCandidates(@Param("lookback") LocalDateTime lookback,
+                                         @Param("settledBefore") LocalDateTime settledBefore,
+                                         @Param("cadenceCutoff") LocalDateTime cadenceCutoff,
+                                         @Param("now") LocalDateTime now,
+                                         @Param("afterUserId") Long afterUserId,
+                                         @Param("batchSize") int batchSize);
+
+    /**
+     * Claim a user's digest up to a notification id; only one node sees 1 for the same pending items
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notification_digests (user_id, last_notification_id, sent_at) " +
+                   "VALUES (:userId, :toId, :now) " +
+                   "ON CONFLICT (user_id) DO UPDATE " +
+                   "SET last_notification_id = EXCLUDED.last_notification_id, sent_at = EXCLUDED.sent_at " +
+                   "WHERE notification_digests.last_notification_id < EXCLUDED.last_notification_id " +
+                   "AND notification_digests.sent_at <= :cadenceCutoff",
+           nativeQuery = true)
+    int claim(@Param("userId") Long userId,
+              @Param("toId") Long toId,
+              @Param("now") LocalDateTime now,
+              @Param("cadenceCutoff") LocalDateTime cadenceCutoff);
+
+    /**
+     * User with notifications pending for a digest
+     */
+    interface DigestCandidate {
+        Long getUserId();
+        Long getFromId();
+        Long getToId();
+        Long getPending();
+    }
+}
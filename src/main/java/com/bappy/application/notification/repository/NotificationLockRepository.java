@@ -0,0 +1,66 @@
+package com.bappy.application.notification.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Transaction-scoped PostgreSQL advisory locks that order notification inserts against "mark all as read".
+ * <p>
+ * A read watermark is the newest id at the time it is set, but ids are taken when a row is inserted, not when
+ * it commits: a row inserted just before "mark all as read" could commit just after it with an id below the
+ * watermark and be treated as read. Inserts therefore hold a shared lock on their recipient (broadcasts an
+ * exclusive lock on a broadcast key) until commit, and advancing a watermark first takes the recipient's lock
+ * exclusively and the broadcast key shared. The watermark is then computed only once every row it can cover
+ * has committed, and rows inserted later get higher ids.
+ * <p>
+ * Locks must be taken in a statement of their own before the insert or watermark statement: a statement's
+ * snapshot is taken when it starts, so a lock acquired inside it would not make later commits visible.
+ * Keys are user ids; {@link #BROADCAST_KEY} is never a user id.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NotificationLockRepository {
+
+    static final long BROADCAST_KEY = -1L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Hold back "mark all as read" for a recipient until the current transaction ends (before inserting)
+     */
+    public void lockRecipient(long recipientId) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock_shared(?)", rs -> { }, recipientId);
+    }
+
+    /**
+     * Hold back "mark all as read" for many recipients until the current transaction ends (before a batch insert)
+     */
+    public void lockRecipients(Collection<Long> recipientIds) {
+        Long[] keys = recipientIds.stream().distinct().sorted().toArray(Long[]::new);
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(
+                    "SELECT pg_advisory_xact_lock_shared(k) FROM unnest(?) AS k ORDER BY k");
+            statement.setArray(1, connection.createArrayOf("bigint", keys));
+            return statement;
+        }, rs -> { });
+    }
+
+    /**
+     * Hold back "mark all as read" for everyone until the current transaction ends (before inserting a broadcast)
+     */
+    public void lockBroadcasts() {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> { }, BROADCAST_KEY);
+    }
+
+    /**
+     * Wait for in-flight inserts visible to a user and hold back new ones until the current transaction ends
+     * (before advancing the user's read watermark)
+     */
+    public void lockForReadAll(long userId) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?), pg_advisory_xact_lock_shared(?)", rs -> { },
+                userId, BROADCAST_KEY);
+    }
+}
@@ -0,0 +1,20 @@
+package com.bappy.application.notification.repository;
+
+import com.bappy.application.notification.entity.NotificationPreference;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for per-user notification preferences.
+ */
+@Repository
+public interface NotificationPreferenceRepository extends JpaRepository<NotificationPreference, Long> {
+
+    /**
+     * Find preferences changed after a point in time (cache refresh)
+     */
+    List<NotificationPreference> findByUpdatedAtAfter(LocalDateTime since);
+}
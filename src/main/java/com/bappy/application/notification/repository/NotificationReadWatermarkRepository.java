@@ -0,0 +1,46 @@
+package com.bappy.application.notification.repository;
+
+import com.bappy.application.notification.entity.NotificationReadWatermark;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for per-user read watermarks.
+ */
+@Repository
+public interface NotificationReadWatermarkRepository extends JpaRepository<NotificationReadWatermark, Long> {
+
+    /**
+     * Advance a user's watermark to the newest notification id (never moves backwards).
+     * Callers take {@link NotificationLockRepository#lockForReadAll} first, in a statement of its own.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notification_read_watermarks (user_id, last_read_id, updated_at) " +
+                   "SELECT :userId, COALESCE(MAX(n.id), 0), :now FROM notifications n " +
+                   "ON CONFLICT (user_id) DO UPDATE " +
+                   "SET last_read_id = GREATEST(notification_read_watermarks.last_read_id, EXCLUDED.last_read_id), " +
+                   "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    int advance(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    /**
+     * Find watermarks whose row-level flags are not yet compacted
+     */
+    @Query("SELECT w FROM NotificationReadWatermark w WHERE w.compactedId < w.lastReadId ORDER BY w.updatedAt")
+    List<NotificationReadWatermark> findPendingCompaction(Pageable pageable);
+
+    /**
+     * Record compaction progress (never moves backwards)
+     */
+    @Modifying
+    @Query("UPDATE NotificationReadWatermark w SET w.compactedId = :compactedId " +
+           "WHERE w.userId = :userId AND w.compactedId < :compactedId")
+    int markCompacted(@Param("userId") Long userId, @Param("compactedId") Long compactedId);
+}
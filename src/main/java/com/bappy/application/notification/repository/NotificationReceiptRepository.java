@@ -0,0 +1,60 @@
+package com.bappy.application.notification.repository;
+
+import com.bappy.application.notification.entity.NotificationReceipt;
+import com.bappy.application.notification.entity.NotificationReceiptId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Repository for broadcast notification receipts.
+ * Writes are single-statement upserts keyed by (notification_id, user_id).
+ */
+@Repository
+public interface NotificationReceiptRepository extends JpaRepository<NotificationReceipt, NotificationReceiptId> {
+
+    /**
+     * Mark a broadcast as read for a user
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notification_receipts (notification_id, user_id, read_at) " +
+                   "VALUES (:notificationId, :userId, :now) " +
+                   "ON CONFLICT (notification_id, user_id) DO UPDATE " +
+                   "SET read_at = COALESCE(notification_receipts.read_at, EXCLUDED.read_at)",
+           nativeQuery = true)
+    int upsertRead(@Param("notificationId") Long notificationId,
+                   @Param("userId") Long userId,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * Dismiss a broadcast for a user
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notification_receipts (notification_id, user_id, dismissed_at) " +
+                   "VALUES (:notificationId, :userId, :now) " +
+                   "ON CONFLICT (notification_id, user_id) DO UPDATE " +
+                   "SET dismissed_at = COALESCE(notification_receipts.dismissed_at, EXCLUDED.dismissed_at)",
+           nativeQuery = true)
+    int upsertDismissed(@Param("notificationId") Long notificationId,
+                        @Param("userId") Long userId,
+                        @Param("now") LocalDateTime now);
+
+    /**
+     * Mark the broadcasts among a batch of notification ids as read for a user
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notification_receipts (notification_id, user_id, read_at) " +
+                   "SELECT n.id, :userId, :now FROM notifications n " +
+                   "WHERE n.id IN (:notificationIds) AND n.recipient_id IS NULL " +
+                   "ON CONFLICT (notification_id, user_id) DO UPDATE " +
+                   "SET read_at = COALESCE(notification_receipts.read_at, EXCLUDED.read_at)",
+           nativeQuery = true)
+    int upsertReadBatch(@Param("userId") Long userId,
+                        @Param("notificationIds") Collection<Long> notificationIds,
+                        @Param("now") LocalDateTime now);
+}
@@ -1,9 +1,11 @@
 package com.bappy.application.notification.repository;
 
+import com.bappy.application.notification.dto.NotificationDto;
 import com.bappy.application.notification.entity.Notification;
-import com.bappy.application.user.entity.User;
+import com.bappy.application.notification.entity.NotificationType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -11,40 +13,93 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Notification repository.
+ * All user-scoped queries are keyed by recipient id so callers never need to load the User entity.
  */
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
     /**
-     * Find all notifications for a user
+     * Find recent notifications for a user
+     */
+    List<Notification> findTop10ByRecipientIdOrderByCreatedAtDesc(Long recipientId);
+
+    /**
+     * Count unread notifications for a user grouped by type
      */
-    Page<Notification> findByRecipientOrderByCreatedAtDesc(User recipient, Pageable pageable);
+    @Query("SELECT n.type AS type, COUNT(n) AS count FROM Notification n " +
+           "WHERE n.recipientId = :userId AND n.isRead = false AND n.id > " + READ_WATERMARK + " " +
+           "AND " + NOT_EXPIRED + " GROUP BY n.type")
+    List<TypeCount> countUnreadByType(@Param("userId") Long userId);
 
     /**
-     * Find unread notifications for a user
+     * Check if a notification belongs to the recipient
      */
-    Page<Notification> findByRecipientAndIsReadFalseOrderByCreatedAtDesc(User recipient, Pageable pageable);
+    boolean existsByIdAndRecipientId(Long id, Long recipientId);
 
     /**
-     * Find all unread notifications for a user (for count)
+     * Read watermark of :recipientId in native queries; rows at or below it are not counted as unread
      */
-    List<Notification> findByRecipientAndIsReadFalse(User recipient);
+    String RECIPIENT_WATERMARK_SQL = "COALESCE((SELECT w.last_read_id FROM notification_read_watermarks w " +
+            "WHERE w.user_id = :recipientId), 0)";
 
     /**
-     * Count unread notifications for a user
+     * Mark a notification as read if it belongs to the recipient and is unread
+     *
+     * @return the updated row (empty if not found, not owned or already read)
      */
-    long countByRecipientAndIsReadFalse(User recipient);
+    @Query(value = "UPDATE notifications SET is_read = TRUE, updated_at = :now " +
+                   "WHERE id = :id AND recipient_id = :recipientId AND is_read = FALSE " +
+                   "RETURNING type, id > " + RECIPIENT_WATERMARK_SQL + " AS counted",
+           nativeQuery = true)
+    List<WrittenRow> markAsRead(@Param("id") Long id, @Param("recipientId") Long recipientId, @Param("now") LocalDateTime now);
+
+    /**
+     * Mark a batch of a recipient's notifications as read (ids not owned by the recipient are ignored)
+     *
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.updatedAt = :now " +
+           "WHERE n.recipientId = :recipientId AND n.id IN :ids AND n.isRead = false")
+    int markBatchAsRead(@Param("recipientId") Long recipientId,
+                        @Param("ids") Collection<Long> ids,
+                        @Param("now") LocalDateTime now);
 
     /**
-     * Mark all notifications as read for a user
+     * Set the row-level read flag on one batch of a user's notifications covered by the read watermark
+     *
+     * @return number of rows updated (less than the batch size once compaction is complete)
      */
     @Modifying
-    @Query("UPDATE Notification n SET n.isRead = true WHERE n.recipient = :recipient AND n.isRead = false")
-    void markAllAsReadForUser(@Param("recipient") User recipient);
+    @Query(value = "UPDATE notifications SET is_read = TRUE, updated_at = :now WHERE id IN (" +
+                   "SELECT id FROM notifications WHERE recipient_id = :recipientId AND is_read = FALSE " +
+                   "AND id <= :watermark ORDER BY id LIMIT :batchSize)",
+           nativeQuery = true)
+    int compactReadFlags(@Param("recipientId") Long recipientId,
+                         @Param("watermark") Long watermark,
+                         @Param("batchSize") int batchSize,
+                         @Param("now") LocalDateTime now);
+
+    /**
+     * Delete a notification if it belongs to the recipient
+     *
+     * @return the deleted row (empty if not found or not owned)
+     */
+    @Query(value = "DELETE FROM notifications WHERE id = :id AND recipient_id = :recipientId " +
+                   "RETURNING type, is_read = FALSE AND id > " + RECIPIENT_WATERMARK_SQL + " AS counted",
+           nativeQuery = true)
+    List<WrittenRow> deleteByIdAndRecipientId(@Param("id") Long id, @Param("recipientId") Long recipientId);
+
+    /**
+     * Check if a broadcast notification exists
+     */
+    boolean existsByIdAndRecipientIdIsNull(Long id);
 
     /**
      * Delete old read notifications
@@ -54,7 +109,342 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     void deleteOldReadNotifications(@Param("date") LocalDateTime date);
 
     /**
-     * Find recent notifications for a user
+     * Id up to which everything counts as read for :userId ("mark all as read" watermark)
+     */
+    String READ_WATERMARK = "COALESCE((SELECT w.lastReadId FROM NotificationReadWatermark w WHERE w.userId = :userId), 0)";
+
+    /**
+     * Broadcasts shown to :userId: sent within the retention window and not before the user signed up
+     */
+    String VISIBLE_BROADCAST = "n.recipientId IS NULL AND n.createdAt >= :since " +
+            "AND n.createdAt >= (SELECT u.createdAt FROM User u WHERE u.id = :userId)";
+
+    /**
+     * Expired notifications are hidden until the sweeper deletes them
+     */
+    String NOT_EXPIRED = "(n.expiresAt IS NULL OR n.expiresAt > CURRENT_TIMESTAMP)";
+
+    /**
+     * Distinct senders kept on a grouped row
+     */
+    int MAX_GROUP_ACTORS = 10;
+
+    /**
+     * Relevance of a substring match: title matches first
+     */
+    String LIKE_RANK = "CASE WHEN LOWER(n.title) LIKE :pattern ESCAPE '!' THEN 2.0 ELSE 1.0 END";
+
+    /**
+     * Leading DTO columns: names come from left joins, so no User entity is loaded
+     */
+    String VIEW_COLUMNS = "SELECT new com.bappy.application.notification.dto.NotificationDto(" +
+            "n.id, n.title, n.message, n.type, n.recipientId, " +
+            "CASE WHEN rc.id IS NOT NULL THEN CONCAT(rc.firstName, ' ', rc.lastName) END, " +
+            "n.senderId, " +
+            "CASE WHEN s.id IS NOT NULL THEN CONCAT(s.firstName, ' ', s.lastName) ELSE 'System' END, ";
+
+    /**
+     * Trailing DTO columns and joins
+     */
+    String VIEW_FROM = "n.isBroadcast, n.actionUrl, n.actionLabel, n.createdAt, n.expiresAt, " +
+            "n.groupKey, n.groupCount, n.groupActorIds) " +
+            "FROM Notification n LEFT JOIN n.recipient rc LEFT JOIN n.sender s ";
+
+    /**
+     * Feed rows as DTOs with read state resolved for :userId (watermark, row flag or broadcast receipt),
+     * so a whole page is one statement
+     */
+    String FEED_VIEW = VIEW_COLUMNS +
+            "CASE WHEN n.id <= " + READ_WATERMARK + " THEN true " +
+            "WHEN n.recipientId IS NOT NULL THEN n.isRead " +
+            "WHEN EXISTS (SELECT r FROM NotificationReceipt r WHERE r.id.notificationId = n.id " +
+            "AND r.id.userId = :userId AND r.readAt IS NOT NULL) THEN true ELSE false END, " +
+            VIEW_FROM;
+
+    /**
+     * Own notifications plus non-dismissed broadcasts since the retention cutoff
+     */
+    String FEED_FILTER = "WHERE (n.recipientId = :userId OR " +
+            "(" + VISIBLE_BROADCAST + " AND NOT EXISTS (" +
+            "SELECT r FROM NotificationReceipt r WHERE r.id.notificationId = n.id " +
+            "AND r.id.userId = :userId AND r.dismissedAt IS NOT NULL))) AND " + NOT_EXPIRED + " ";
+
+    /**
+     * Own unread notifications plus broadcasts since the retention cutoff neither read nor dismissed,
+     * all above the read watermark
+     */
+    String UNREAD_FEED_FILTER = "WHERE n.id > " + READ_WATERMARK + " AND ((n.recipientId = :userId AND n.isRead = false) OR " +
+            "(" + VISIBLE_BROADCAST + " AND NOT EXISTS (" +
+            "SELECT r FROM NotificationReceipt r WHERE r.id.notificationId = n.id " +
+            "AND r.id.userId = :userId AND (r.readAt IS NOT NULL OR r.dismissedAt IS NOT NULL)))) AND " + NOT_EXPIRED + " ";
+
+    String KEYSET_AFTER = "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) ";
+
+    String NEWEST_FIRST = "ORDER BY n.createdAt DESC, n.id DESC";
+
+    String AFTER_ID = "AND n.id > :afterId ";
+
+    String OLDEST_ID_FIRST = "ORDER BY n.id ASC";
+
+    /**
+     * Find notifications as push DTOs by id (cluster events too large to carry the payload)
+     */
+    @Query(VIEW_COLUMNS + "n.isRead, " + VIEW_FROM + "WHERE n.id IN :ids")
+    List<NotificationDto> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find a user's feed items with ids above a given id, oldest first (stream resume)
+     */
+    @Query(FEED_VIEW + FEED_FILTER + AFTER_ID + OLDEST_ID_FIRST)
+    List<NotificationDto> findFeedSinceId(@Param("userId") Long userId,
+                                          @Param("since") LocalDateTime since,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    /**
+     * Find a user's unread personal notifications in an id range, newest first (digest emails)
+     */
+    @Query(VIEW_COLUMNS + "n.isRead, " + VIEW_FROM +
+           "WHERE n.recipientId = :userId AND n.isRead = false AND n.id > :afterId AND n.id <= :upToId " +
+           "AND " + NOT_EXPIRED + " ORDER BY n.id DESC")
+    List<NotificationDto> findUnreadInRange(@Param("userId") Long userId,
+                                            @Param("afterId") Long afterId,
+                                            @Param("upToId") Long upToId,
+                                            Pageable pageable);
+
+    /**
+     * Find feed rows by id with read state resolved for :userId (search results)
+     */
+    @Query(FEED_VIEW + "WHERE n.id IN :ids")
+    List<NotificationDto> findFeedViewsByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Full-text search of a user's notifications, most relevant first, after a (rank, id) position.
+     * Highlights are computed for the returned page only.
+     */
+    @Query(value = "SELECT p.id AS id, p.rank AS rank, " +
+                   "ts_headline('english', p.title, q, :titleOptions) AS titleHighlight, " +
+                   "ts_headline('english', p.message, q, :messageOptions) AS messageHighlight " +
+                   "FROM (SELECT m.id, m.title, m.message, m.rank FROM (" +
+                   "SELECT n.id, n.title, n.message, CAST(ts_rank(n.search_vector, q) AS DOUBLE PRECISION) AS rank " +
+                   "FROM notifications n, websearch_to_tsquery('english', :query) q " +
+                   "WHERE n.recipient_id = :userId AND n.search_vector @@ q " +
+                   "AND (n.expires_at IS NULL OR n.expires_at > CURRENT_TIMESTAMP)) m " +
+                   "WHERE m.rank < :rank OR (m.rank = :rank AND m.id < :id) " +
+                   "ORDER BY m.rank DESC, m.id DESC LIMIT :limit) p, " +
+                   "websearch_to_tsquery('english', :query) q " +
+                   "ORDER BY p.rank DESC, p.id DESC",
+           nativeQuery = true)
+    List<SearchHit> searchFullText(@Param("userId") Long userId,
+                                   @Param("query") String query,
+                                   @Param("rank") Double rank,
+                                   @Param("id") Long id,
+                                   @Param("limit") int limit,
+                                   @Param("titleOptions") String titleOptions,
+                                   @Param("messageOptions") String messageOptions);
+
+    /**
+     * Substring search of a user's notifications for databases without full-text search (H2 dev).
+     * Title matches rank above message matches; highlighting is left to the caller.
+     */
+    @Query("SELECT n.id AS id, " + LIKE_RANK + " AS rank, n.title AS titleHighlight, n.message AS messageHighlight " +
+           "FROM Notification n WHERE n.recipientId = :userId " +
+           "AND (LOWER(n.title) LIKE :pattern ESCAPE '!' OR LOWER(n.message) LIKE :pattern ESCAPE '!') " +
+           "AND " + NOT_EXPIRED + " " +
+           "AND (" + LIKE_RANK + " < :rank OR (" + LIKE_RANK + " = :rank AND n.id < :id)) " +
+           "ORDER BY " + LIKE_RANK + " DESC, n.id DESC")
+    List<SearchHit> searchLike(@Param("userId") Long userId,
+                               @Param("pattern") String pattern,
+                               @Param("rank") Double rank,
+                               @Param("id") Long id,
+                               Pageable pageable);
+
+    /**
+     * Find ids of a user's feed items above a given id, oldest first (sync backlog probe)
+     */
+    @Query("SELECT n.id FROM Notification n " + FEED_FILTER + AFTER_ID + OLDEST_ID_FIRST)
+    List<Long> findFeedIdsSinceId(@Param("userId") Long userId,
+                                  @Param("since") LocalDateTime since,
+                                  @Param("afterId") Long afterId,
+                                  Pageable pageable);
+
+    /**
+     * Find when a notification was created
+     */
+    @Query("SELECT n.createdAt FROM Notification n WHERE n.id = :id")
+    Optional<LocalDateTime> findCreatedAtById(@Param("id") Long id);
+
+    /**
+     * Newest notification id created before a point in time
+     */
+    @Query("SELECT COALESCE(MAX(n.id), 0) FROM Notification n WHERE n.createdAt < :time")
+    Long findLatestIdCreatedBefore(@Param("time") LocalDateTime time);
+
+    /**
+     * Find a user's feed
+     */
+    @Query(value = FEED_VIEW + FEED_FILTER + NEWEST_FIRST,
+           countQuery = "SELECT COUNT(n) FROM Notification n " + FEED_FILTER)
+    Page<NotificationDto> findFeed(@Param("userId") Long userId,
+                                   @Param("since") LocalDateTime since,
+                                   Pageable pageable);
+
+    /**
+     * Find a user's unread feed
+     */
+    @Query(value = FEED_VIEW + UNREAD_FEED_FILTER + NEWEST_FIRST,
+           countQuery = "SELECT COUNT(n) FROM Notification n " + UNREAD_FEED_FILTER)
+    Page<NotificationDto> findUnreadFeed(@Param("userId") Long userId,
+                                         @Param("since") LocalDateTime since,
+                                         Pageable pageable);
+
+    /**
+     * Find a page of a user's feed after a keyset position, without counting
+     */
+    @Query(FEED_VIEW + FEED_FILTER + KEYSET_AFTER + NEWEST_FIRST)
+    Slice<NotificationDto> findFeedAfter(@Param("userId") Long userId,
+                                         @Param("since") LocalDateTime since,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    /**
+     * Find a page of a user's unread feed after a keyset position, without counting
+     */
+    @Query(FEED_VIEW + UNREAD_FEED_FILTER + KEYSET_AFTER + NEWEST_FIRST)
+    Slice<NotificationDto> findUnreadFeedAfter(@Param("userId") Long userId,
+                                               @Param("since") LocalDateTime since,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+
+    /**
+     * Count a user's feed (keyset pages request totals explicitly)
+     */
+    @Query("SELECT COUNT(n) FROM Notification n " + FEED_FILTER)
+    long countFeed(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    /**
+     * Count broadcasts since the cutoff that a user has neither read nor dismissed, grouped by type
+     */
+    @Query("SELECT n.type AS type, COUNT(n) AS count FROM Notification n " +
+           "WHERE " + VISIBLE_BROADCAST + " AND n.id > " + READ_WATERMARK + " " +
+           "AND NOT EXISTS (SELECT r FROM NotificationReceipt r WHERE r.id.notificationId = n.id " +
+           "AND r.id.userId = :userId AND (r.readAt IS NOT NULL OR r.dismissedAt IS NOT NULL)) " +
+           "AND " + NOT_EXPIRED + " GROUP BY n.type")
+    List<TypeCount> countUnreadBroadcastsByType(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    /**
+     * Find the type of a broadcast since the cutoff that a user has neither read nor dismissed
+     */
+    @Query("SELECT n.type FROM Notification n WHERE n.id = :id AND " + VISIBLE_BROADCAST + " " +
+           "AND n.id > " + READ_WATERMARK + " AND NOT EXISTS (SELECT r FROM NotificationReceipt r WHERE r.id.notificationId = n.id " +
+           "AND r.id.userId = :userId AND (r.readAt IS NOT NULL OR r.dismissedAt IS NOT NULL))")
+    Optional<NotificationType> findUnreadBroadcastType(@Param("id") Long id,
+                                                       @Param("userId") Long userId,
+                                                       @Param("since") LocalDateTime since);
+
+    /**
+     * Delete broadcasts older than the retention cutoff (receipts cascade)
+     */
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.recipientId IS NULL AND n.createdAt < :date")
+    void deleteOldBroadcasts(@Param("date") LocalDateTime date);
+
+    /**
+     * Insert a grouped notification, or fold it into the recipient's open row with the same key.
+     * Open rows covered by the read watermark or already expired are left alone (nothing is returned);
+     * close them with {@link #closeGroup} and retry.
+     */
+    @Query(value = "INSERT INTO notifications (title, message, type, recipient_id, sender_id, is_read, is_broadcast, " +
+                   "action_url, action_label, expires_at, group_key, group_count, group_actor_ids, " +
+                   "created_at, updated_at, created_by, updated_by) " +
+                   "VALUES (:title, :message, :type, :recipientId, CAST(:senderId AS BIGINT), FALSE, FALSE, " +
+                   ":actionUrl, :actionLabel, CAST(:expiresAt AS TIMESTAMP), :groupKey, 1, " +
+                   "CASE WHEN CAST(:senderId AS BIGINT) IS NULL THEN '{}' ELSE ARRAY[CAST(:senderId AS BIGINT)] END, " +
+                   ":now, :now, CAST(:senderId AS BIGINT), CAST(:senderId AS BIGINT)) " +
+                   "ON CONFLICT (recipient_id, group_key) WHERE group_key IS NOT NULL AND is_read = FALSE " +
+                   "DO UPDATE SET group_count = notifications.group_count + 1, " +
+                   "group_actor_ids = CASE WHEN EXCLUDED.sender_id IS NULL THEN notifications.group_actor_ids " +
+                   "ELSE (ARRAY[EXCLUDED.sender_id] || array_remove(notifications.group_actor_ids, EXCLUDED.sender_id))" +
+                   "[1:" + MAX_GROUP_ACTORS + "] END, " +
+                   "title = EXCLUDED.title, message = EXCLUDED.message, sender_id = EXCLUDED.sender_id, " +
+                   "action_url = EXCLUDED.action_url, action_label = EXCLUDED.action_label, " +
+                   "expires_at = EXCLUDED.expires_at, updated_at = EXCLUDED.updated_at, updated_by = EXCLUDED.updated_by " +
+                   "WHERE notifications.id > COALESCE((SELECT w.last_read_id FROM notification_read_watermarks w " +
+                   "WHERE w.user_id = EXCLUDED.recipient_id), 0) " +
+                   "AND (notifications.expires_at IS NULL OR notifications.expires_at > EXCLUDED.updated_at) " +
+                   "RETURNING id, group_count AS groupCount",
+           nativeQuery = true)
+    List<GroupedRow> upsertGrouped(@Param("title") String title,
+                                   @Param("message") String message,
+                                   @Param("type") String type,
+                                   @Param("recipientId") Long recipientId,
+                                   @Param("senderId") Long senderId,
+                                   @Param("actionUrl") String actionUrl,
+                                   @Param("actionLabel") String actionLabel,
+                                   @Param("expiresAt") LocalDateTime expiresAt,
+                                   @Param("groupKey") String groupKey,
+                                   @Param("now") LocalDateTime now);
+
+    /**
+     * Close a recipient's open row of a group, so the next event starts a new one
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.updatedAt = :now " +
+           "WHERE n.recipientId = :recipientId AND n.groupKey = :groupKey AND n.isRead = false")
+    int closeGroup(@Param("recipientId") Long recipientId,
+                   @Param("groupKey") String groupKey,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * Delete a batch of expired notifications, returning the deleted rows
+     */
+    @Query(value = "DELETE FROM notifications WHERE id IN (" +
+                   "SELECT id FROM notifications WHERE expires_at <= :now LIMIT :batchSize) " +
+                   "RETURNING id, recipient_id AS recipientId",
+           nativeQuery = true)
+    List<ExpiredRow> deleteExpired(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    /**
+     * Search match before highlights are escaped
+     */
+    interface SearchHit {
+        Long getId();
+        Double getRank();
+        String getTitleHighlight();
+        String getMessageHighlight();
+    }
+
+    /**
+     * Row written by a grouped upsert; a count of 1 means a new row was inserted
+     */
+    interface GroupedRow {
+        Long getId();
+        Integer getGroupCount();
+    }
+
+    /**
+     * Row removed by the expiry sweep; broadcasts have no recipient
+     */
+    interface ExpiredRow {
+        Long getId();
+        Long getRecipientId();
+    }
+
+    /**
+     * Type of a row changed by a single-row write, and whether it was counted as unread before the write
+     */
+    interface WrittenRow {
+        String getType();
+        Boolean getCounted();
+    }
+
+    /**
+     * Unread count of one notification type
      */
-    List<Notification> findTop10ByRecipientOrderByCreatedAtDesc(User recipient);
+    interface TypeCount {
+        NotificationType getType();
+        long getCount();
+    }
 }
@@ -0,0 +1,32 @@
+package com.bappy.application.notification.repository;
+
+import com.bappy.application.notification.entity.ScheduledNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for notifications waiting for their send time.
+ */
+@Repository
+public interface ScheduledNotificationRepository extends JpaRepository<ScheduledNotification, Long> {
+
+    /**
+     * Find notifications due up to a point in time, earliest first
+     */
+    @Query("SELECT s FROM ScheduledNotification s WHERE s.sendAt <= :until ORDER BY s.sendAt, s.id")
+    List<ScheduledNotification> findDue(@Param("until") LocalDateTime until, Pageable pageable);
+
+    /**
+     * Claim a scheduled notification for delivery; only one caller sees 1
+     */
+    @Modifying
+    @Query("DELETE FROM ScheduledNotification s WHERE s.id = :id")
+    int claim(@Param("id") Long id);
+}
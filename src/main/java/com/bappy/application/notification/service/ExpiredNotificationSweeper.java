@@ -0,0 +1,69 @@
+package com.bappy.application.notification.service;
+
+import com.bappy.application.notification.entity.NotificationChangeType;
+import com.bappy.application.notification.repository.NotificationBatchRepository;
+import com.bappy.application.notification.repository.NotificationRepository;
+import com.bappy.application.notification.shard.NotificationShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Background removal of expired notifications.
+ * Feeds already hide expired items, so deletion can lag; it runs in small batches,
+ * each in its own transaction, to keep lock times short, on all shards in parallel.
+ * Each batch records a DELETED change per personal row, so synced clients drop them too; expired
+ * broadcasts are not logged per user and are dropped by clients on their expiry time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExpiredNotificationSweeper {
+
+    private static final int ROWS_PER_BATCH = 1000;
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationBatchRepository batchRepository;
+    private final NotificationShards notificationShards;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Delete expired notifications
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.expiry-sweep-ms:60000}",
+               initialDelayString = "${app.notifications.expiry-sweep-ms:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        long rows = notificationShards.scatter(() -> sweepShard(now)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+
+        if (rows > 0) {
+            log.info("Expired notifications deleted: {}", rows);
+        }
+    }
+
+    /**
+     * Delete expired notifications of the current shard
+     */
+    private long sweepShard(LocalDateTime now) {
+        long rows = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<NotificationRepository.ExpiredRow> expired = notificationRepository.deleteExpired(now, ROWS_PER_BATCH);
+                batchRepository.recordChanges(expired.stream()
+                        .filter(row -> row.getRecipientId() != null)
+                        .toList(), NotificationChangeType.DELETED, now);
+                return expired.size();
+            });
+            rows += deleted;
+        } while (deleted == ROWS_PER_BATCH);
+        return rows;
+    }
+}
@@ -0,0 +1,153 @@
+package com.bappy.application.notification.service;
+
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.email.service.EmailService;
+import com.bappy.application.notification.dto.NotificationDto;
+import com.bappy.application.notification.entity.NotificationChannel;
+import com.bappy.application.notification.preference.NotificationPreferenceRegistry;
+import com.bappy.application.notification.presence.PresenceRegistry;
+import com.bappy.application.notification.repository.NotificationDigestRepository;
+import com.bappy.application.notification.repository.NotificationDigestRepository.DigestCandidate;
+import com.bappy.application.notification.repository.NotificationRepository;
+import com.bappy.application.notification.shard.NotificationShards;
+import com.bappy.application.user.entity.User;
+import com.bappy.application.user.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Digest emails for users who were offline when their notifications arrived.
+ * Pending items are read straight from the notification tables: unread personal notifications above
+ * the user's last digest and read watermark, old enough that a live session would have seen them.
+ * Each user gets at most one digest per cadence; the per-user position is claimed with a conditional
+ * upsert, so several nodes never send the same digest twice. Shards are scanned in parallel.
+ * Presence is only known per node, so digests run only in local cluster mode: elsewhere a user online on
+ * another node would get a digest of notifications they were shown live.
+ */
+@Service
+@ConditionalOnProperty(name = "app.notifications.digest.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDigestService {
+
+    private final NotificationDigestRepository digestRepository;
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final PresenceRegistry presenceRegistry;
+    private final NotificationPreferenceRegistry preferenceRegistry;
+    private final EmailService emailService;
+    private final NotificationShards notificationShards;
+    private final TransactionTemplate transactionTemplate;
+    private final AppConfig appConfig;
+
+    @PostConstruct
+    void checkClusterMode() {
+        if (!isSingleNode()) {
+            log.warn("Notification digests are disabled: presence is per node and cluster mode is {}",
+                    appConfig.getNotifications().getCluster().getMode());
+        }
+    }
+
+    /**
+     * Send pending digests, one bounded batch of users at a time (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.digest.poll-ms:300000}",
+               initialDelayString = "${app.notifications.digest.poll-ms:300000}")
+    public void sendDigests() {
+        if (!isSingleNode()) {
+            return;
+        }
+
+        AppConfig.Notifications.Digest config = appConfig.getNotifications().getDigest();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settledBefore = now.minus(Duration.ofMillis(config.getSettleMs()));
+        LocalDateTime cadenceCutoff = now.minus(Duration.ofMillis(config.getCadenceMs()));
+        LocalDateTime lookback = now.minusDays(config.getLookbackDays());
+
+        int sent = notificationShards.scatter(() -> sendShardDigests(config, now, settledBefore, cadenceCutoff, lookback))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+
+        if (sent > 0) {
+            log.info("Notification digests sent: {}", sent);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private boolean isSingleNode() {
+        return "local".equals(appConfig.getNotifications().getCluster().getMode());
+    }
+
+    /**
+     * Send pending digests of the users on the current shard
+     */
+    private int sendShardDigests(AppConfig.Notifications.Digest config, LocalDateTime now,
+                                 LocalDateTime settledBefore, LocalDateTime cadenceCutoff, LocalDateTime lookback) {
+        long afterUserId = 0;
+        int sent = 0;
+        List<DigestCandidate> batch;
+        do {
+            batch = digestRepository.findCandidates(lookback, settledBefore, cadenceCutoff, now,
+                    afterUserId, config.getBatchSize());
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            sent += sendBatch(batch, now, cadenceCutoff, config.getMaxItems());
+            afterUserId = batch.get(batch.size() - 1).getUserId();
+        } while (batch.size() == config.getBatchSize());
+        return sent;
+    }
+
+    private int sendBatch(List<DigestCandidate> batch, LocalDateTime now, LocalDateTime cadenceCutoff, int maxItems) {
+        // Users online here get live pushes; users who turned email off are skipped without claiming
+        List<DigestCandidate> offline = batch.stream()
+                .filter(candidate -> !presenceRegistry.isOnline(candidate.getUserId()))
+                .filter(candidate -> preferenceRegistry.isChannelEnabled(candidate.getUserId(), NotificationChannel.EMAIL))
+                .toList();
+        if (offline.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, User> users = userRepository.findAllById(offline.stream().map(DigestCandidate::getUserId).toList())
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        int sent = 0;
+        for (DigestCandidate candidate : offline) {
+            User user = users.get(candidate.getUserId());
+            if (user == null || user.getEmail() == null) {
+                continue;
+            }
+
+            Integer claimed = transactionTemplate.execute(status ->
+                    digestRepository.claim(candidate.getUserId(), candidate.getToId(), now, cadenceCutoff));
+            if (claimed == null || claimed == 0) {
+                continue;
+            }
+
+            List<NotificationDto> items = notificationRepository.findUnreadInRange(candidate.getUserId(),
+                    candidate.getFromId(), candidate.getToId(), PageRequest.of(0, maxItems));
+            if (!items.isEmpty()) {
+                emailService.sendNotificationDigestEmail(user, items, candidate.getPending());
+                sent++;
+            }
+        }
+        return sent;
+    }
+}
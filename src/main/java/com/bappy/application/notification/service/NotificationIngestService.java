@@ -0,0 +1,499 @@
+package com.bappy.application.notification.service;
+
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.exception.BadRequestException;
+import com.bappy.application.exception.TooManyRequestsException;
+import com.bappy.application.notification.cluster.NotificationDispatcher;
+import com.bappy.application.notification.counter.UnreadNotificationCounter;
+import com.bappy.application.notification.dto.CreateNotificationRequest;
+import com.bappy.application.notification.dto.IngestItemResult;
+import com.bappy.application.notification.dto.IngestItemResult.Status;
+import com.bappy.application.notification.dto.IngestSummary;
+import com.bappy.application.notification.dto.NotificationDto;
+import com.bappy.application.notification.dto.NotificationSendResult;
+import com.bappy.application.notification.entity.Notification;
+import com.bappy.application.notification.preference.NotificationPreferenceRegistry;
+import com.bappy.application.notification.repository.NotificationBatchRepository;
+import com.bappy.application.notification.repository.NotificationLockRepository;
+import com.bappy.application.notification.shard.NotificationShards;
+import com.bappy.application.user.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk ingestion of personal notifications from NDJSON or a JSON array, with a result per item.
+ * The input is read as a stream and processed in chunks: recipients are checked with one query per chunk,
+ * muted items are dropped, and the rest are written with one JDBC batch per chunk and recipient shard, the
+ * shards in parallel. Pushes for a committed chunk are handed to a bounded push pool, so the request never
+ * waits for delivery.
+ * <p>
+ * A storage error fails only the items of the chunk or shard it happened in; they are reported as FAILED and
+ * the request carries on with the next chunk, keeping the results already produced.
+ * <p>
+ * Backpressure: a request is refused with 429 when the maximum number of ingestions is already running.
+ * Once admitted, a request stops taking new chunks when the push queue is full; every item from there on
+ * is reported as THROTTLED, is not stored, and can be resent as is.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationIngestService {
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    private static final String STORAGE_ERROR = "Not stored because of a storage error; safe to resend";
+
+    private final NotificationBatchRepository batchRepository;
+    private final NotificationLockRepository lockRepository;
+    private final NotificationService notificationService;
+    private final UserRepository userRepository;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationPreferenceRegistry preferenceRegistry;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationShards notificationShards;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final AppConfig appConfig;
+
+    private Semaphore admissions;
+
+    private ThreadPoolTaskExecutor pushExecutor;
+
+    private final Map<Status, Counter> itemCounters = new EnumMap<>(Status.class);
+
+    @PostConstruct
+    void start() {
+        AppConfig.Notifications.Ingest config = appConfig.getNotifications().getIngest();
+        admissions = new Semaphore(config.getMaxConcurrentRequests());
+
+        pushExecutor = new ThreadPoolTaskExecutor();
+        pushExecutor.setThreadNamePrefix("ingest-push-");
+        pushExecutor.setCorePoolSize(config.getPushThreads());
+        pushExecutor.setMaxPoolSize(config.getPushThreads());
+        pushExecutor.setQueueCapacity(config.getPushQueueCapacity());
+        // Only reached when concurrent requests race for the last slots; the request then pushes itself
+        pushExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        pushExecutor.initialize();
+
+        Gauge.builder("notifications.ingest.push.queued", pushExecutor,
+                        executor -> executor.getThreadPoolExecutor().getQueue().size())
+                .description("Ingested chunks waiting for their pushes")
+                .register(meterRegistry);
+        for (Status status : Status.values()) {
+            itemCounters.put(status, Counter.builder("notifications.ingested")
+                    .tag("status", status.name().toLowerCase())
+                    .description("Bulk ingested notification items by outcome")
+                    .register(meterRegistry));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        pushExecutor.shutdown();
+    }
+
+    /**
+     * Ingest a stream of notification requests; NDJSON has one request per line, otherwise a JSON array is expected
+     */
+    public IngestSummary ingest(InputStream body, boolean ndjson, Long senderId) {
+        AppConfig.Notifications.Ingest config = appConfig.getNotifications().getIngest();
+        if (!admissions.tryAcquire()) {
+            throw new TooManyRequestsException("Too many ingestion requests in progress", config.getRetryAfterSeconds());
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            Ingestion ingestion = new Ingestion(senderId, config);
+            try {
+                if (ndjson) {
+                    readNdjson(body, ingestion);
+                } else {
+                    readArray(body, ingestion);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read ingestion request", e);
+            }
+            ingestion.flush();
+
+            IngestSummary summary = ingestion.summary(System.currentTimeMillis() - start);
+            log.info("Ingested {} notifications: {} created, {} muted, {} rejected, {} throttled, {} failed in {} ms",
+                    summary.getReceived(), summary.getCreated(), summary.getMuted(), summary.getRejected(),
+                    summary.getThrottled(), summary.getFailed(), summary.getDurationMs());
+            return summary;
+        } finally {
+            admissions.release();
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void readNdjson(InputStream body, Ingestion ingestion) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int index = ingestion.nextIndex();
+            try {
+                ingestion.add(index, objectMapper.readValue(line, CreateNotificationRequest.class));
+            } catch (JsonProcessingException e) {
+                ingestion.reject(index, "Malformed item: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readArray(InputStream body, Ingestion ingestion) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Expected a JSON array of notifications");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                int index = ingestion.nextIndex();
+                if (token != JsonToken.START_OBJECT) {
+                    // Syntax errors leave no way to find the next item, so the rest of the input is dropped
+                    ingestion.reject(index, "Malformed input, remaining items ignored");
+                    return;
+                }
+                JsonNode node = objectMapper.readTree(parser);
+                try {
+                    ingestion.add(index, objectMapper.treeToValue(node, CreateNotificationRequest.class));
+                } catch (JsonProcessingException e) {
+                    ingestion.reject(index, "Malformed item: " + e.getOriginalMessage());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            ingestion.reject(ingestion.nextIndex(), "Malformed input, remaining items ignored");
+        }
+    }
+
+    /**
+     * Validation error of a request, or null when it can be ingested
+     */
+    private String validate(CreateNotificationRequest request, LocalDateTime now) {
+        Set<ConstraintViolation<CreateNotificationRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (Boolean.TRUE.equals(request.getIsBroadcast()) || request.getSegment() != null) {
+            return "Only 1-to-1 notifications can be ingested";
+        }
+        if (request.getRecipientId() == null) {
+            return "Recipient ID is required";
+        }
+        if (request.getExpiresAt() != null && !request.getExpiresAt().isAfter(now)) {
+            return "Expiry time must be in the future";
+        }
+        return null;
+    }
+
+    /**
+     * Push one committed chunk. The pushes share a transaction so a cluster dispatcher sends them together.
+     */
+    private void push(List<NotificationDto> notifications) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (NotificationDto dto : notifications) {
+                if (preferenceRegistry.acceptsPush(dto.getRecipientId(), dto.getType())) {
+                    notificationDispatcher.sendToUser(dto.getRecipientId(), dto);
+                }
+            }
+        });
+    }
+
+    private boolean isPushQueueFull() {
+        return pushExecutor.getThreadPoolExecutor().getQueue().remainingCapacity() == 0;
+    }
+
+    /**
+     * State of one ingestion request: the pending chunk and the results so far
+     */
+    private final class Ingestion {
+
+        private final Long senderId;
+        private final AppConfig.Notifications.Ingest config;
+        private final String senderName;
+        private final List<IngestItemResult> results = new ArrayList<>();
+        private final List<Integer> chunkIndexes = new ArrayList<>();
+        private final List<CreateNotificationRequest> chunk = new ArrayList<>();
+        private int nextIndex;
+        private boolean throttled;
+
+        Ingestion(Long senderId, AppConfig.Notifications.Ingest config) {
+            this.senderId = senderId;
+            this.config = config;
+            this.senderName = senderId == null ? "System" : userRepository.findNameById(senderId)
+                    .map(UserRepository.NameView::getFullName)
+                    .orElse("System");
+        }
+
+        int nextIndex() {
+            return nextIndex++;
+        }
+
+        void add(int index, CreateNotificationRequest request) {
+            if (index >= config.getMaxItemsPerRequest()) {
+                reject(index, "Request exceeds " + config.getMaxItemsPerRequest() + " items");
+                return;
+            }
+            if (throttled) {
+                result(index, Status.THROTTLED, null, null);
+                return;
+            }
+
+            chunkIndexes.add(index);
+            chunk.add(request);
+            if (chunk.size() == config.getChunkSize()) {
+                flush();
+            }
+        }
+
+        void reject(int index, String error) {
+            result(index, Status.REJECTED, null, error);
+        }
+
+        /**
+         * Process the pending chunk, or throttle it and everything after it if pushes are backed up
+         */
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            if (throttled || isPushQueueFull()) {
+                throttled = true;
+                chunkIndexes.forEach(index -> result(index, Status.THROTTLED, null, null));
+            } else {
+                int resultsBefore = results.size();
+                try {
+                    process();
+                } catch (DataAccessException | TransactionException e) {
+                    // Items already reported keep their result (e.g. committed shards); the rest of the chunk failed
+                    log.error("Failed to ingest a chunk of {} notifications", chunk.size(), e);
+                    Set<Integer> reported = results.subList(resultsBefore, results.size()).stream()
+                            .map(IngestItemResult::getIndex)
+                            .collect(Collectors.toSet());
+                    chunkIndexes.stream()
+                            .filter(index -> !reported.contains(index))
+                            .forEach(index -> result(index, Status.FAILED, null, STORAGE_ERROR));
+                }
+            }
+            chunkIndexes.clear();
+            chunk.clear();
+        }
+
+        IngestSummary summary(long durationMs) {
+            results.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+            Map<Status, Long> counts = results.stream()
+                    .collect(Collectors.groupingBy(IngestItemResult::getStatus, () -> new EnumMap<>(Status.class),
+                            Collectors.counting()));
+            counts.forEach((status, count) -> itemCounters.get(status).increment(count));
+
+            return IngestSummary.builder()
+                    .received(results.size())
+                    .created(counts.getOrDefault(Status.CREATED, 0L))
+                    .scheduled(counts.getOrDefault(Status.SCHEDULED, 0L))
+                    .muted(counts.getOrDefault(Status.MUTED, 0L))
+                    .rejected(counts.getOrDefault(Status.REJECTED, 0L))
+                    .throttled(counts.getOrDefault(Status.THROTTLED, 0L))
+                    .failed(counts.getOrDefault(Status.FAILED, 0L))
+                    .durationMs(durationMs)
+                    .results(results)
+                    .build();
+        }
+
+        private void process() {
+            LocalDateTime now = LocalDateTime.now();
+            Set<Long> existing = new HashSet<>(userRepository.findExistingIds(chunk.stream()
+                    .map(CreateNotificationRequest::getRecipientId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet())));
+
+            List<Integer> batchIndexes = new ArrayList<>(chunk.size());
+            List<CreateNotificationRequest> batch = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                int index = chunkIndexes.get(i);
+                CreateNotificationRequest request = chunk.get(i);
+                String error = validate(request, now);
+                if (error != null) {
+                    reject(index, error);
+                } else if (!existing.contains(request.getRecipientId())) {
+                    reject(index, "Recipient not found: " + request.getRecipientId());
+                } else if (!preferenceRegistry.acceptsNotification(request.getRecipientId(), request.getType())) {
+                    result(index, Status.MUTED, null, null);
+                } else if (request.getSendAt() != null || request.getGroupKey() != null) {
+                    // Scheduling and grouping need their own upserts; these go through the regular path
+                    createSingle(index, request);
+                } else {
+                    batchIndexes.add(index);
+                    batch.add(request);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            // Positions in the batch, grouped by recipient shard; each shard commits its part on its own
+            List<Integer> positions = IntStream.range(0, batch.size()).boxed().toList();
+            Map<Integer, List<Integer>> positionsByShard = notificationShards.partition(
+                    positions, position -> batch.get(position).getRecipientId());
+            List<NotificationDto> created = new ArrayList<>(batch.size());
+            notificationShards.scatter(positionsByShard, shardPositions -> insertShard(shardPositions, batch, now))
+                    .forEach(shard -> {
+                        if (shard.created() == null) {
+                            shard.positions().forEach(position ->
+                                    result(batchIndexes.get(position), Status.FAILED, null, STORAGE_ERROR));
+                            return;
+                        }
+                        shard.created().forEach((position, dto) -> {
+                            result(batchIndexes.get(position), Status.CREATED, dto.getId(), null);
+                            created.add(dto);
+                        });
+                    });
+            if (!created.isEmpty()) {
+                pushExecutor.execute(() -> push(created));
+            }
+        }
+
+        /**
+         * Insert the batch items at the given positions on the current shard; a failure rolls back only this shard
+         */
+        private ShardInsert insertShard(List<Integer> positions, List<CreateNotificationRequest> batch,
+                                        LocalDateTime now) {
+            try {
+                return new ShardInsert(positions, insertAll(positions, batch, now));
+            } catch (DataAccessException | TransactionException e) {
+                log.error("Failed to ingest {} notifications on shard {}", positions.size(),
+                        notificationShards.currentShard(), e);
+                return new ShardInsert(positions, null);
+            }
+        }
+
+        /**
+         * Insert the batch items at the given positions on the current shard, keyed by position
+         */
+        private Map<Integer, NotificationDto> insertAll(List<Integer> positions, List<CreateNotificationRequest> batch,
+                                                        LocalDateTime now) {
+            return transactionTemplate.execute(status -> {
+                lockRepository.lockRecipients(positions.stream()
+                        .map(position -> batch.get(position).getRecipientId())
+                        .toList());
+                long[] ids = batchRepository.insertAll(positions.stream()
+                        .map(position -> toEntity(batch.get(position)))
+                        .toList(), now);
+                Map<Integer, NotificationDto> dtos = new LinkedHashMap<>();
+                for (int i = 0; i < ids.length; i++) {
+                    CreateNotificationRequest request = batch.get(positions.get(i));
+                    unreadCounter.increment(request.getRecipientId(), request.getType());
+                    dtos.put(positions.get(i), toDto(ids[i], request, now));
+                }
+                return dtos;
+            });
+        }
+
+        private void createSingle(int index, CreateNotificationRequest request) {
+            try {
+                NotificationSendResult sent = notificationShards.callOnShardOf(request.getRecipientId(),
+                        () -> notificationService.createNotification(request, senderId));
+                switch (sent.status()) {
+                    case CREATED -> result(index, Status.CREATED, sent.notification().getId(), null);
+                    case SCHEDULED -> result(index, Status.SCHEDULED, null, null);
+                    case MUTED -> result(index, Status.MUTED, null, null);
+                }
+            } catch (DataAccessException | TransactionException e) {
+                log.error("Failed to ingest notification for user: {}", request.getRecipientId(), e);
+                result(index, Status.FAILED, null, STORAGE_ERROR);
+            } catch (RuntimeException e) {
+                reject(index, e.getMessage());
+            }
+        }
+
+        private Notification toEntity(CreateNotificationRequest request) {
+            return Notification.builder()
+                    .title(request.getTitle())
+                    .message(request.getMessage())
+                    .type(request.getType())
+                    .recipientId(request.getRecipientId())
+                    .senderId(senderId)
+                    .actionUrl(request.getActionUrl())
+                    .actionLabel(request.getActionLabel())
+                    .expiresAt(request.getExpiresAt())
+                    .build();
+        }
+
+        private NotificationDto toDto(long id, CreateNotificationRequest request, LocalDateTime now) {
+            return NotificationDto.builder()
+                    .id(id)
+                    .title(request.getTitle())
+                    .message(request.getMessage())
+                    .type(request.getType())
+                    .recipientId(request.getRecipientId())
+                    .senderId(senderId)
+                    .senderName(senderName)
+                    .isRead(false)
+                    .isBroadcast(false)
+                    .actionUrl(request.getActionUrl())
+                    .actionLabel(request.getActionLabel())
+                    .createdAt(now)
+                    .expiresAt(request.getExpiresAt())
+                    .groupCount(1)
+                    .build();
+        }
+
+        private void result(int index, Status status, Long id, String error) {
+            results.add(IngestItemResult.builder()
+                    .index(index)
+                    .status(status)
+                    .id(id)
+                    .error(error)
+                    .build());
+        }
+    }
+
+    /**
+     * Outcome of writing a chunk's items on one shard: created DTOs by position, or null if the shard failed
+     */
+    private record ShardInsert(List<Integer> positions, Map<Integer, NotificationDto> created) {
+    }
+}
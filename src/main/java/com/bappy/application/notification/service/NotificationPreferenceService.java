@@ -0,0 +1,107 @@
+package com.bappy.application.notification.service;
+
+import com.bappy.application.exception.BadRequestException;
+import com.bappy.application.notification.dto.NotificationPreferencesDto;
+import com.bappy.application.notification.entity.NotificationChannel;
+import com.bappy.application.notification.entity.NotificationPreference;
+import com.bappy.application.notification.entity.NotificationType;
+import com.bappy.application.notification.preference.NotificationPreferenceRegistry;
+import com.bappy.application.notification.repository.NotificationPreferenceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Service for reading and changing a user's notification preferences.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationPreferenceService {
+
+    private final NotificationPreferenceRepository preferenceRepository;
+    private final NotificationPreferenceRegistry preferenceRegistry;
+
+    /**
+     * Get a user's preferences; users who never changed them get the defaults
+     */
+    @Transactional(readOnly = true)
+    public NotificationPreferencesDto getPreferences(Long userId) {
+        return preferenceRepository.findById(userId)
+                .map(this::toDto)
+                .orElseGet(() -> NotificationPreferencesDto.builder()
+                        .mutedTypes(EnumSet.noneOf(NotificationType.class))
+                        .disabledChannels(EnumSet.noneOf(NotificationChannel.class))
+                        .build());
+    }
+
+    /**
+     * Replace a user's preferences; this node applies them on commit, other nodes on their next refresh
+     */
+    @Transactional
+    public NotificationPreferencesDto updatePreferences(Long userId, NotificationPreferencesDto request) {
+        if ((request.getQuietHoursStart() == null) != (request.getQuietHoursEnd() == null)) {
+            throw new BadRequestException("Quiet hours need both a start and an end");
+        }
+        if (request.getTimeZone() != null) {
+            try {
+                ZoneId.of(request.getTimeZone());
+            } catch (DateTimeException e) {
+                throw new BadRequestException("Unknown time zone: " + request.getTimeZone());
+            }
+        }
+
+        NotificationPreference preference = preferenceRepository.findById(userId)
+                .orElseGet(() -> NotificationPreference.builder().userId(userId).build());
+        preference.setMutedTypes(names(request.getMutedTypes()));
+        preference.setDisabledChannels(names(request.getDisabledChannels()));
+        preference.setQuietHoursStart(request.getQuietHoursStart());
+        preference.setQuietHoursEnd(request.getQuietHoursEnd());
+        preference.setTimeZone(request.getTimeZone());
+        preference.setUpdatedAt(LocalDateTime.now());
+
+        preference = preferenceRepository.save(preference);
+        preferenceRegistry.update(preference);
+        log.info("Notification preferences updated for user: {}", userId);
+
+        return toDto(preference);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private NotificationPreferencesDto toDto(NotificationPreference preference) {
+        return NotificationPreferencesDto.builder()
+                .mutedTypes(parse(preference.getMutedTypes(), NotificationType.class))
+                .disabledChannels(parse(preference.getDisabledChannels(), NotificationChannel.class))
+                .quietHoursStart(preference.getQuietHoursStart())
+                .quietHoursEnd(preference.getQuietHoursEnd())
+                .timeZone(preference.getTimeZone())
+                .build();
+    }
+
+    private static String[] names(Set<? extends Enum<?>> values) {
+        return values == null ? new String[0] : values.stream().map(Enum::name).distinct().toArray(String[]::new);
+    }
+
+    /**
+     * Enum values from stored names; names no longer in the enum are dropped
+     */
+    private static <E extends Enum<E>> Set<E> parse(String[] names, Class<E> type) {
+        Set<E> values = EnumSet.noneOf(type);
+        for (String name : names) {
+            try {
+                values.add(Enum.valueOf(type, name));
+            } catch (IllegalArgumentException e) {
+                log.debug("Ignoring unknown {} value: {}", type.getSimpleName(), name);
+            }
+        }
+        return values;
+    }
+}
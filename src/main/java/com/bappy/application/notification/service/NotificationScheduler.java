@@ -0,0 +1,137 @@
+package com.bappy.application.notification.service;
+
+import com.bappy.application.common.concurrent.HierarchicalTimingWheel;
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.notification.entity.ScheduledNotification;
+import com.bappy.application.notification.repository.ScheduledNotificationRepository;
+import com.bappy.application.notification.shard.NotificationShards;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers scheduled notifications at their send time.
+ * Only the window of notifications due soon is held in memory, on a hierarchical timing wheel;
+ * the window is reloaded from the send time index on every poll. Due items are handed to a small
+ * pool so database work never runs on the wheel thread.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationScheduler {
+
+    private static final int MAX_LOADED_PER_POLL = 10000;
+
+    private final ScheduledNotificationRepository scheduledNotificationRepository;
+    private final NotificationService notificationService;
+    private final NotificationShards notificationShards;
+    private final AppConfig appConfig;
+
+    /**
+     * Ids already on the wheel, so reloading the window does not queue them twice
+     */
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    private HierarchicalTimingWheel wheel;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    void start() {
+        // 100ms ticks, 64 buckets per level: covers about 7 hours before top-level re-cascading
+        wheel = new HierarchicalTimingWheel("notification-scheduler", 100, 6, 3);
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("notification-delivery-");
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(MAX_LOADED_PER_POLL);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stop() {
+        wheel.close();
+        executor.shutdown();
+    }
+
+    /**
+     * Load notifications due within the window (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.schedule-poll-ms:30000}")
+    public void loadDueSoon() {
+        LocalDateTime until = LocalDateTime.now().plus(Duration.ofMillis(appConfig.getNotifications().getScheduleWindowMs()));
+        List<ScheduledNotification> due = scheduledNotificationRepository
+                .findDue(until, PageRequest.of(0, MAX_LOADED_PER_POLL));
+
+        int added = 0;
+        for (ScheduledNotification scheduled : due) {
+            if (enqueue(scheduled)) {
+                added++;
+            }
+        }
+        if (added > 0) {
+            log.debug("Scheduled notifications queued: {}", added);
+        }
+    }
+
+    /**
+     * Queue a notification scheduled within the current window right away, once its row is committed
+     */
+    @TransactionalEventListener
+    public void onScheduled(ScheduledNotification scheduled) {
+        LocalDateTime windowEnd = LocalDateTime.now().plus(Duration.ofMillis(appConfig.getNotifications().getScheduleWindowMs()));
+        if (!scheduled.getSendAt().isAfter(windowEnd)) {
+            enqueue(scheduled);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private boolean enqueue(ScheduledNotification scheduled) {
+        if (!queued.add(scheduled.getId())) {
+            return false;
+        }
+
+        long delayMs = Math.max(Duration.between(LocalDateTime.now(), scheduled.getSendAt()).toMillis(), 0);
+        wheel.schedule(delayMs, TimeUnit.MILLISECONDS, () -> handOff(scheduled));
+        return true;
+    }
+
+    /**
+     * Pass a due notification to the delivery pool; if the pool is full it is released for the next poll
+     */
+    private void handOff(ScheduledNotification scheduled) {
+        try {
+            executor.execute(() -> deliver(scheduled));
+        } catch (TaskRejectedException e) {
+            queued.remove(scheduled.getId());
+            log.warn("Delivery pool full, scheduled notification {} left for the next poll", scheduled.getId());
+        }
+    }
+
+    private void deliver(ScheduledNotification scheduled) {
+        try {
+            notificationShards.runOnShardOf(scheduled.getRecipientId(),
+                    () -> notificationService.deliverScheduled(scheduled));
+        } catch (Exception e) {
+            log.error("Failed to deliver scheduled notification: {}", scheduled.getId(), e);
+        } finally {
+            queued.remove(scheduled.getId());
+        }
+    }
+}
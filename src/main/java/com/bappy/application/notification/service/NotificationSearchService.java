@@ -0,0 +1,166 @@
+package com.bappy.application.notification.service;
+
+import com.bappy.application.common.dto.PageResponse;
+import com.bappy.application.exception.BadRequestException;
+import com.bappy.application.notification.dto.NotificationDto;
+import com.bappy.application.notification.dto.NotificationSearchResult;
+import com.bappy.application.notification.dto.SearchCursor;
+import com.bappy.application.notification.repository.NotificationRepository;
+import com.bappy.application.notification.repository.NotificationRepository.SearchHit;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Search over a user's own notifications.
+ * On PostgreSQL this uses the generated {@code search_vector} column and its GIN index, ranked with
+ * {@code ts_rank}; other databases (H2 in dev) fall back to a case-insensitive substring match.
+ * Pages are keyset-paginated on (relevance, id).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Match delimiters that cannot come from the HTML escaper, replaced by tags after escaping
+     */
+    private static final String MARK_START = "\u0002";
+
+    private static final String MARK_END = "\u0003";
+
+    private static final String TITLE_OPTIONS = "StartSel=" + MARK_START + ", StopSel=" + MARK_END + ", HighlightAll=true";
+
+    private static final String MESSAGE_OPTIONS = "StartSel=" + MARK_START + ", StopSel=" + MARK_END +
+            ", MaxFragments=2, MaxWords=25, MinWords=10, FragmentDelimiter=\" ... \"";
+
+    private final NotificationRepository notificationRepository;
+    private final DataSource dataSource;
+
+    private boolean fullText;
+
+    @PostConstruct
+    void detectDatabase() {
+        try (Connection connection = dataSource.getConnection()) {
+            fullText = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            log.warn("Could not detect database, using substring notification search", e);
+        }
+        log.info("Notification search mode: {}", fullText ? "full-text" : "substring");
+    }
+
+    /**
+     * Search a user's notifications, most relevant first
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<NotificationSearchResult> search(Long userId, String query, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query is required");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("Search query must not exceed " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        SearchCursor position = SearchCursor.decode(cursor);
+        String terms = query.trim();
+        List<SearchHit> hits = fullText
+                ? notificationRepository.searchFullText(userId, terms, position.rank(), position.id(), size + 1,
+                        TITLE_OPTIONS, MESSAGE_OPTIONS)
+                : notificationRepository.searchLike(userId, likePattern(terms), position.rank(), position.id(),
+                        PageRequest.of(0, size + 1));
+
+        boolean hasMore = hits.size() > size;
+        if (hasMore) {
+            hits = hits.subList(0, size);
+        }
+
+        Map<Long, NotificationDto> notifications = hits.isEmpty() ? Map.of() : notificationRepository
+                .findFeedViewsByIds(userId, hits.stream().map(SearchHit::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(NotificationDto::getId, Function.identity()));
+
+        List<NotificationSearchResult> results = hits.stream()
+                .filter(hit -> notifications.containsKey(hit.getId()))
+                .map(hit -> NotificationSearchResult.builder()
+                        .notification(notifications.get(hit.getId()))
+                        .titleHighlight(highlight(hit.getTitleHighlight(), terms))
+                        .messageHighlight(highlight(hit.getMessageHighlight(), terms))
+                        .build())
+                .toList();
+
+        SearchHit lastHit = hits.isEmpty() ? null : hits.get(hits.size() - 1);
+        return PageResponse.<NotificationSearchResult>builder()
+                .content(results)
+                .pageSize(size)
+                .first(position == SearchCursor.FIRST)
+                .last(!hasMore)
+                .empty(results.isEmpty())
+                .nextCursor(hasMore ? new SearchCursor(lastHit.getRank(), lastHit.getId()).encode() : null)
+                .build();
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static String likePattern(String terms) {
+        String escaped = terms.toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+
+    /**
+     * Escape a highlight for HTML and turn match delimiters into mark tags.
+     * Substring results carry no delimiters yet, so occurrences of the terms are marked here.
+     */
+    private String highlight(String text, String terms) {
+        if (text == null) {
+            return null;
+        }
+
+        String marked = fullText ? text : markOccurrences(text, terms);
+        return HtmlUtils.htmlEscape(marked)
+                .replace(MARK_START, "<mark>")
+                .replace(MARK_END, "</mark>");
+    }
+
+    private static String markOccurrences(String text, String terms) {
+        String lowerText = text.toLowerCase(Locale.ROOT);
+        String lowerTerms = terms.toLowerCase(Locale.ROOT);
+        if (lowerText.length() != text.length()) {
+            return text;
+        }
+
+        StringBuilder marked = new StringBuilder(text.length() + 16);
+        int from = 0;
+        int match;
+        while ((match = lowerText.indexOf(lowerTerms, from)) >= 0) {
+            marked.append(text, from, match)
+                    .append(MARK_START)
+                    .append(text, match, match + terms.length())
+                    .append(MARK_END);
+            from = match + terms.length();
+        }
+        return marked.append(text.substring(from)).toString();
+    }
+}
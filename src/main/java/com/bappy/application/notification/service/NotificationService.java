@@ -1,42 +1,90 @@
 package com.bappy.application.notification.service;
 
+import com.bappy.application.common.dto.PageCursor;
 import com.bappy.application.common.dto.PageResponse;
+import com.bappy.application.config.AppConfig;
 import com.bappy.application.exception.ResourceNotFoundException;
+import com.bappy.application.notification.cluster.NotificationDispatcher;
+import com.bappy.application.notification.counter.UnreadNotificationCounter;
 import com.bappy.application.notification.dto.CreateNotificationRequest;
+import com.bappy.application.notification.dto.FanoutSummary;
 import com.bappy.application.notification.dto.NotificationDto;
+import com.bappy.application.notification.dto.NotificationSendResult;
+import com.bappy.application.notification.dto.PresenceSummary;
 import com.bappy.application.notification.entity.Notification;
+import com.bappy.application.notification.entity.NotificationChangeType;
+import com.bappy.application.notification.entity.NotificationType;
+import com.bappy.application.notification.entity.ScheduledNotification;
+import com.bappy.application.notification.preference.NotificationPreferenceRegistry;
+import com.bappy.application.notification.presence.PresenceRegistry;
+import com.bappy.application.notification.shard.NotificationShards;
+import com.bappy.application.notification.stream.NotificationStreamRegistry;
+import com.bappy.application.notification.repository.NotificationBatchRepository;
+import com.bappy.application.notification.repository.NotificationChangeRepository;
+import com.bappy.application.notification.repository.NotificationLockRepository;
+import com.bappy.application.notification.repository.NotificationReadWatermarkRepository;
+import com.bappy.application.notification.repository.NotificationReceiptRepository;
 import com.bappy.application.notification.repository.NotificationRepository;
-import com.bappy.application.user.entity.User;
+import com.bappy.application.notification.repository.ScheduledNotificationRepository;
+import com.bappy.application.user.dto.UserSegment;
 import com.bappy.application.user.repository.UserRepository;
+import com.bappy.application.user.segment.UserSegmentIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
  * Notification service for managing notifications.
+ * Operations are keyed by user id; ownership is enforced inside single conditional statements.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
+    private static final int FANOUT_BATCH_SIZE = 500;
+
     private final NotificationRepository notificationRepository;
+    private final NotificationBatchRepository batchRepository;
+    private final NotificationLockRepository lockRepository;
+    private final NotificationReceiptRepository notificationReceiptRepository;
+    private final NotificationReadWatermarkRepository readWatermarkRepository;
+    private final NotificationChangeRepository changeRepository;
+    private final ScheduledNotificationRepository scheduledNotificationRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationDispatcher notificationDispatcher;
+    private final UserSegmentIndex userSegmentIndex;
+    private final UnreadNotificationCounter unreadCounter;
+    private final PresenceRegistry presenceRegistry;
+    private final NotificationPreferenceRegistry preferenceRegistry;
+    private final NotificationStreamRegistry streamRegistry;
+    private final NotificationShards notificationShards;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AppConfig appConfig;
 
     /**
      * Create and send notification to specific user (1-to-1)
      */
     @Transactional
-    public NotificationDto createNotification(CreateNotificationRequest request, User sender) {
+    public NotificationSendResult createNotification(CreateNotificationRequest request, Long senderId) {
         if (request.getIsBroadcast()) {
             throw new IllegalArgumentException("Use createBroadcastNotification for broadcast messages");
         }
@@ -45,221 +93,584 @@ public class NotificationService {
             throw new IllegalArgumentException("Recipient ID is required for 1-to-1 notification");
         }
 
-        User recipient = userRepository.findById(request.getRecipientId())
+        // Muted types are dropped before any lookup, write or push
+        if (!preferenceRegistry.acceptsNotification(request.getRecipientId(), request.getType())) {
+            log.debug("Notification of type {} muted by user: {}", request.getType(), request.getRecipientId());
+            return NotificationSendResult.muted();
+        }
+
+        UserRepository.NameView recipient = userRepository.findNameById(request.getRecipientId())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", request.getRecipientId()));
 
+        validateTiming(request);
+        if (isDeferred(request)) {
+            return NotificationSendResult.scheduled(schedule(request, senderId));
+        }
+
+        // Held until commit so a concurrent "mark all as read" cannot set its watermark past this row
+        lockRepository.lockRecipient(recipient.getId());
+        if (request.getGroupKey() != null) {
+            return NotificationSendResult.created(createGrouped(request, recipient.getId(), senderId));
+        }
+
         Notification notification = Notification.builder()
                 .title(request.getTitle())
                 .message(request.getMessage())
                 .type(request.getType())
-                .recipient(recipient)
-                .sender(sender)
+                .recipientId(recipient.getId())
+                .senderId(senderId)
                 .isRead(false)
                 .isBroadcast(false)
                 .actionUrl(request.getActionUrl())
                 .actionLabel(request.getActionLabel())
+                .expiresAt(request.getExpiresAt())
                 .build();
 
         notification = notificationRepository.save(notification);
+        unreadCounter.increment(recipient.getId(), notification.getType());
         log.info("Notification created: {} for user: {}", notification.getId(), recipient.getId());
 
-        // Send via WebSocket to specific user
-        NotificationDto dto = toDto(notification);
-        sendToUser(recipient.getId(), dto);
+        // Pushed to the user's sessions, on whichever node, once the transaction commits
+        NotificationDto dto = toDto(notification, recipient.getFullName(), senderName(senderId));
+        pushToUser(recipient.getId(), dto);
 
-        return dto;
+        return NotificationSendResult.created(dto);
     }
 
     /**
-     * Create and send broadcast notification to all users (1-to-all)
+     * Create and send broadcast notification to all users (1-to-all).
+     * The broadcast is stored once per shard and merged into each user's feed at read time.
      */
     @Transactional
-    public List<NotificationDto> createBroadcastNotification(CreateNotificationRequest request, User sender) {
+    public NotificationDto createBroadcastNotification(CreateNotificationRequest request, Long senderId) {
         if (!request.getIsBroadcast()) {
             throw new IllegalArgumentException("isBroadcast must be true for broadcast notifications");
         }
+        if (request.getGroupKey() != null) {
+            throw new IllegalArgumentException("Broadcast notifications cannot be grouped");
+        }
 
-        // Get all active users
-        List<User> allUsers = userRepository.findAll();
-        
-        List<Notification> notifications = allUsers.stream()
-                .map(recipient -> Notification.builder()
-                        .title(request.getTitle())
-                        .message(request.getMessage())
-                        .type(request.getType())
-                        .recipient(recipient)
-                        .sender(sender)
-                        .isRead(false)
-                        .isBroadcast(true)
-                        .actionUrl(request.getActionUrl())
-                        .actionLabel(request.getActionLabel())
-                        .build())
-                .collect(Collectors.toList());
+        validateTiming(request);
+        if (isDeferred(request)) {
+            return schedule(request, senderId);
+        }
 
-        notifications = notificationRepository.saveAll(notifications);
-        log.info("Broadcast notification created for {} users", notifications.size());
+        Notification notification = Notification.builder()
+                .title(request.getTitle())
+                .message(request.getMessage())
+                .type(request.getType())
+                .recipientId(null)
+                .senderId(senderId)
+                .isRead(false)
+                .isBroadcast(true)
+                .actionUrl(request.getActionUrl())
+                .actionLabel(request.getActionLabel())
+                .expiresAt(request.getExpiresAt())
+                .build();
 
-        // Send via WebSocket to all users
-        List<NotificationDto> dtos = notifications.stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        lockRepository.lockBroadcasts();
+        notification = notificationRepository.save(notification);
+        notificationShards.replicateBroadcast(notification.getId());
+        unreadCounter.incrementAll(notification.getType());
+        log.info("Broadcast notification created: {}", notification.getId());
 
-        // Broadcast to all connected users
-        sendBroadcast(dtos.get(0)); // Send one notification to topic
+        // Broadcast to all connected users once the transaction commits
+        NotificationDto dto = toDto(notification, null, senderName(senderId));
+        notificationDispatcher.broadcast(dto);
 
-        return dtos;
+        return dto;
     }
 
     /**
-     * Get all notifications for a user
+     * Create and send notification to every user in a segment (1-to-many).
+     * Recipients are resolved from the in-memory segment index and written with one JDBC batch
+     * per chunk and shard, each in its own transaction, bypassing the persistence context.
      */
-    @Transactional(readOnly = true)
-    public PageResponse<NotificationDto> getUserNotifications(User user, Pageable pageable) {
-        Page<Notification> notifications = notificationRepository.findByRecipientOrderByCreatedAtDesc(user, pageable);
-        
-        List<NotificationDto> dtos = notifications.getContent().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
-
-        return PageResponse.<NotificationDto>builder()
-                .content(dtos)
-                .pageNumber(notifications.getNumber())
-                .pageSize(notifications.getSize())
-                .totalElements(notifications.getTotalElements())
-                .totalPages(notifications.getTotalPages())
-                .last(notifications.isLast())
+    public FanoutSummary createSegmentNotification(CreateNotificationRequest request, Long senderId) {
+        UserSegment segment = request.getSegment();
+        if (segment == null || segment.isUnrestricted()) {
+            throw new IllegalArgumentException("Segment must restrict roles, statuses or providers; use broadcast for all users");
+        }
+        if (request.getSendAt() != null) {
+            throw new IllegalArgumentException("Segment notifications cannot be scheduled");
+        }
+        if (request.getGroupKey() != null) {
+            throw new IllegalArgumentException("Segment notifications cannot be grouped");
+        }
+        validateTiming(request);
+
+        long start = System.currentTimeMillis();
+        Roaring64Bitmap recipientIds = userSegmentIndex.resolve(segment);
+        String senderName = senderName(senderId);
+
+        long created = 0;
+        List<Long> batch = new ArrayList<>(FANOUT_BATCH_SIZE);
+        LongIterator iterator = recipientIds.getLongIterator();
+        while (iterator.hasNext()) {
+            long recipientId = iterator.next();
+            if (!preferenceRegistry.acceptsNotification(recipientId, request.getType())) {
+                continue;
+            }
+            batch.add(recipientId);
+            if (batch.size() == FANOUT_BATCH_SIZE) {
+                created += fanoutBatch(request, senderId, senderName, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            created += fanoutBatch(request, senderId, senderName, batch);
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        log.info("Segment notification created for {} users in {} ms", created, durationMs);
+
+        return FanoutSummary.builder()
+                .matchedRecipients(recipientIds.getLongCardinality())
+                .notificationsCreated(created)
+                .durationMs(durationMs)
                 .build();
     }
 
     /**
-     * Get unread notifications for a user
+     * Create a scheduled notification once its send time has come; call on the recipient's shard.
+     * The scheduled row is claimed first, so with several nodes only one delivers it.
      */
-    @Transactional(readOnly = true)
-    public PageResponse<NotificationDto> getUnreadNotifications(User user, Pageable pageable) {
-        Page<Notification> notifications = notificationRepository
-                .findByRecipientAndIsReadFalseOrderByCreatedAtDesc(user, pageable);
-        
-        List<NotificationDto> dtos = notifications.getContent().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
-
-        return PageResponse.<NotificationDto>builder()
-                .content(dtos)
-                .pageNumber(notifications.getNumber())
-                .pageSize(notifications.getSize())
-                .totalElements(notifications.getTotalElements())
-                .totalPages(notifications.getTotalPages())
-                .last(notifications.isLast())
+    @Transactional
+    public void deliverScheduled(ScheduledNotification scheduled) {
+        if (scheduledNotificationRepository.claim(scheduled.getId()) == 0) {
+            return;
+        }
+        if (scheduled.getExpiresAt() != null && !scheduled.getExpiresAt().isAfter(LocalDateTime.now())) {
+            log.info("Scheduled notification {} expired before its send time", scheduled.getId());
+            return;
+        }
+        if (!scheduled.getIsBroadcast() && !userRepository.existsById(scheduled.getRecipientId())) {
+            log.info("Recipient of scheduled notification {} no longer exists", scheduled.getId());
+            return;
+        }
+
+        CreateNotificationRequest request = CreateNotificationRequest.builder()
+                .title(scheduled.getTitle())
+                .message(scheduled.getMessage())
+                .type(scheduled.getType())
+                .recipientId(scheduled.getRecipientId())
+                .actionUrl(scheduled.getActionUrl())
+                .actionLabel(scheduled.getActionLabel())
+                .isBroadcast(scheduled.getIsBroadcast())
+                .expiresAt(scheduled.getExpiresAt())
+                .groupKey(scheduled.getGroupKey())
                 .build();
+
+        if (scheduled.getIsBroadcast()) {
+            createBroadcastNotification(request, scheduled.getSenderId());
+        } else {
+            createNotification(request, scheduled.getSenderId());
+        }
+    }
+
+    /**
+     * Get all notifications for a user, including broadcasts
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<NotificationDto> getUserNotifications(Long userId, Pageable pageable) {
+        Page<NotificationDto> notifications = notificationRepository
+                .findFeed(userId, broadcastCutoff(), pageable);
+
+        return PageResponse.of(notifications);
+    }
+
+    /**
+     * Get unread notifications for a user, including unread broadcasts
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<NotificationDto> getUnreadNotifications(Long userId, Pageable pageable) {
+        Page<NotificationDto> notifications = notificationRepository
+                .findUnreadFeed(userId, broadcastCutoff(), pageable);
+
+        return PageResponse.of(notifications);
     }
 
     /**
-     * Get unread notification count
+     * Get a keyset page of a user's notifications, including broadcasts.
+     * Totals are only counted when requested.
      */
     @Transactional(readOnly = true)
-    public long getUnreadCount(User user) {
-        return notificationRepository.countByRecipientAndIsReadFalse(user);
+    public PageResponse<NotificationDto> getUserNotifications(Long userId, String cursor, int size, boolean includeTotal) {
+        PageCursor position = PageCursor.decode(cursor);
+        LocalDateTime since = broadcastCutoff();
+        Slice<NotificationDto> notifications = notificationRepository.findFeedAfter(
+                userId, since, position.createdAt(), position.id(), PageRequest.of(0, size));
+
+        Long total = includeTotal ? notificationRepository.countFeed(userId, since) : null;
+        return toPageResponse(notifications, position, total);
+    }
+
+    /**
+     * Get a keyset page of a user's unread notifications, including unread broadcasts.
+     * Totals come from the in-memory unread counter when requested.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<NotificationDto> getUnreadNotifications(Long userId, String cursor, int size, boolean includeTotal) {
+        PageCursor position = PageCursor.decode(cursor);
+        Slice<NotificationDto> notifications = notificationRepository.findUnreadFeedAfter(
+                userId, broadcastCutoff(), position.createdAt(), position.id(), PageRequest.of(0, size));
+
+        Long total = includeTotal ? unreadCounter.getTotal(userId) : null;
+        return toPageResponse(notifications, position, total);
+    }
+
+    /**
+     * Get unread notification count, including unread broadcasts.
+     * Served from the in-memory counter; the database is only queried on a miss.
+     */
+    public long getUnreadCount(Long userId) {
+        return unreadCounter.getTotal(userId);
+    }
+
+    /**
+     * Get unread notification counts by type, including unread broadcasts
+     */
+    public Map<NotificationType, Long> getUnreadCountByType(Long userId) {
+        return unreadCounter.getByType(userId);
+    }
+
+    /**
+     * Open a notification event stream, replaying what was missed after the last event id
+     */
+    public SseEmitter openStream(Long userId, Long lastEventId) {
+        List<NotificationDto> missed = List.of();
+        if (lastEventId != null) {
+            // Rows younger than the settle delay may sit below the last event id and still be committing,
+            // so replay starts from the settled head; clients drop events they already have by id
+            LocalDateTime settled = LocalDateTime.now()
+                    .minusNanos(appConfig.getNotifications().getSyncSettleMs() * 1_000_000);
+            long replayAfterId = Math.min(lastEventId, notificationRepository.findLatestIdCreatedBefore(settled));
+            missed = notificationRepository.findFeedSinceId(userId, broadcastCutoff(), replayAfterId,
+                    PageRequest.of(0, appConfig.getNotifications().getStreamReplayLimit()));
+        }
+
+        return streamRegistry.open(userId, missed);
+    }
+
+    /**
+     * Get online users and open WebSocket sessions on this node
+     */
+    public PresenceSummary getPresence() {
+        return PresenceSummary.builder()
+                .onlineUsers(presenceRegistry.getOnlineUsers())
+                .openSessions(presenceRegistry.getOpenSessions())
+                .build();
     }
 
     /**
      * Mark notification as read
      */
     @Transactional
-    public void markAsRead(Long notificationId, User user) {
-        Notification notification = notificationRepository.findById(notificationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Notification", "id", notificationId));
+    public void markAsRead(Long notificationId, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean tracked = unreadCounter.isTracked(userId);
+
+        // The update returns the type, so the counter is adjusted without reading the row first
+        List<NotificationRepository.WrittenRow> read = notificationRepository.markAsRead(notificationId, userId, now);
+        if (!read.isEmpty()) {
+            changeRepository.record(userId, notificationId, NotificationChangeType.READ.name(), now);
+            decrementIfCounted(userId, read.get(0));
+            log.info("Notification {} marked as read", notificationId);
+            return;
+        }
+
+        if (notificationRepository.existsByIdAndRecipientId(notificationId, userId)) {
+            return;
+        }
 
-        if (!notification.getRecipient().getId().equals(user.getId())) {
-            throw new IllegalArgumentException("You can only mark your own notifications as read");
+        // Not an owned notification: it can only be a broadcast
+        if (!notificationRepository.existsByIdAndRecipientIdIsNull(notificationId)) {
+            throw new ResourceNotFoundException("Notification", "id", notificationId);
         }
 
-        notification.markAsRead();
-        notificationRepository.save(notification);
-        log.info("Notification {} marked as read", notificationId);
+        Optional<NotificationType> unreadBroadcastType = tracked
+                ? notificationRepository.findUnreadBroadcastType(notificationId, userId, broadcastCutoff())
+                : Optional.empty();
+        notificationReceiptRepository.upsertRead(notificationId, userId, now);
+        changeRepository.record(userId, notificationId, NotificationChangeType.READ.name(), now);
+        unreadBroadcastType.ifPresent(type -> unreadCounter.decrement(userId, type));
+        log.info("Broadcast {} marked as read by user: {}", notificationId, userId);
     }
 
     /**
-     * Mark all notifications as read for a user
+     * Mark all notifications as read for a user.
+     * Only advances the user's read watermark; row-level flags are compacted in the background.
      */
     @Transactional
-    public void markAllAsRead(User user) {
-        notificationRepository.markAllAsReadForUser(user);
-        log.info("All notifications marked as read for user: {}", user.getId());
+    public void markAllAsRead(Long userId) {
+        // Waits for in-flight inserts to this user, so the watermark only covers committed rows
+        lockRepository.lockForReadAll(userId);
+        readWatermarkRepository.advance(userId, LocalDateTime.now());
+        unreadCounter.reset(userId);
+        log.info("All notifications marked as read for user: {}", userId);
     }
 
     /**
      * Delete notification
      */
     @Transactional
-    public void deleteNotification(Long notificationId, User user) {
-        Notification notification = notificationRepository.findById(notificationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Notification", "id", notificationId));
+    public void deleteNotification(Long notificationId, Long userId) {
+        boolean tracked = unreadCounter.isTracked(userId);
+
+        List<NotificationRepository.WrittenRow> deleted = notificationRepository.deleteByIdAndRecipientId(notificationId, userId);
+        if (!deleted.isEmpty()) {
+            changeRepository.record(userId, notificationId, NotificationChangeType.DELETED.name(), LocalDateTime.now());
+            decrementIfCounted(userId, deleted.get(0));
+            log.info("Notification {} deleted", notificationId);
+            return;
+        }
 
-        if (!notification.getRecipient().getId().equals(user.getId())) {
-            throw new IllegalArgumentException("You can only delete your own notifications");
+        // Broadcasts are shared, so deleting only dismisses them for this user
+        if (!notificationRepository.existsByIdAndRecipientIdIsNull(notificationId)) {
+            throw new ResourceNotFoundException("Notification", "id", notificationId);
         }
 
-        notificationRepository.delete(notification);
-        log.info("Notification {} deleted", notificationId);
+        Optional<NotificationType> unreadBroadcastType = tracked
+                ? notificationRepository.findUnreadBroadcastType(notificationId, userId, broadcastCutoff())
+                : Optional.empty();
+        LocalDateTime now = LocalDateTime.now();
+        notificationReceiptRepository.upsertDismissed(notificationId, userId, now);
+        changeRepository.record(userId, notificationId, NotificationChangeType.DELETED.name(), now);
+        unreadBroadcastType.ifPresent(type -> unreadCounter.decrement(userId, type));
+        log.info("Broadcast {} dismissed by user: {}", notificationId, userId);
     }
 
     /**
-     * Clean up old read notifications (scheduled task)
+     * Clean up old read notifications on every shard (scheduled task)
      */
-    @Transactional
     public void cleanupOldNotifications() {
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
-        notificationRepository.deleteOldReadNotifications(cutoffDate);
+        LocalDateTime broadcastCutoff = broadcastCutoff();
+        notificationShards.scatter(() -> transactionTemplate.execute(status -> {
+            notificationRepository.deleteOldReadNotifications(cutoffDate);
+            notificationRepository.deleteOldBroadcasts(broadcastCutoff);
+            return null;
+        }));
         log.info("Old read notifications cleaned up");
     }
 
     /**
-     * Send notification to specific user via WebSocket
+     * Persist and push one batch of a segment fan-out; the shards of the batch are written in parallel
      */
-    private void sendToUser(Long userId, NotificationDto notification) {
-        try {
-            messagingTemplate.convertAndSendToUser(
-                    userId.toString(),
-                    "/queue/notifications",
-                    notification
-            );
-            log.info("Notification sent via WebSocket to user: {}", userId);
-        } catch (Exception e) {
-            log.error("Failed to send notification via WebSocket to user: {}", userId, e);
+    private int fanoutBatch(CreateNotificationRequest request, Long senderId, String senderName,
+                            List<Long> recipientIds) {
+        return notificationShards.scatter(notificationShards.partition(recipientIds, Long::longValue),
+                        shardRecipients -> fanoutShard(request, senderId, senderName, shardRecipients))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    private int fanoutShard(CreateNotificationRequest request, Long senderId, String senderName,
+                            List<Long> recipientIds) {
+        // Pushes are queued inside the batch transaction so they go out together when it commits
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Notification> notifications = recipientIds.stream()
+                    .map(recipientId -> Notification.builder()
+                            .title(request.getTitle())
+                            .message(request.getMessage())
+                            .type(request.getType())
+                            .recipientId(recipientId)
+                            .senderId(senderId)
+                            .actionUrl(request.getActionUrl())
+                            .actionLabel(request.getActionLabel())
+                            .expiresAt(request.getExpiresAt())
+                            .build())
+                    .collect(Collectors.toList());
+            lockRepository.lockRecipients(recipientIds);
+            long[] ids = batchRepository.insertAll(notifications, now);
+
+            // Recipient names are not loaded for fan-out, only ids are pushed
+            for (int i = 0; i < ids.length; i++) {
+                Notification notification = notifications.get(i);
+                unreadCounter.increment(notification.getRecipientId(), notification.getType());
+                NotificationDto dto = NotificationDto.builder()
+                        .id(ids[i])
+                        .title(notification.getTitle())
+                        .message(notification.getMessage())
+                        .type(notification.getType())
+                        .recipientId(notification.getRecipientId())
+                        .senderId(senderId)
+                        .senderName(senderName)
+                        .isRead(false)
+                        .isBroadcast(false)
+                        .actionUrl(notification.getActionUrl())
+                        .actionLabel(notification.getActionLabel())
+                        .createdAt(now)
+                        .expiresAt(notification.getExpiresAt())
+                        .groupCount(notification.getGroupCount())
+                        .build();
+                pushToUser(notification.getRecipientId(), dto);
+            }
+
+            return ids.length;
+        });
+    }
+
+    /**
+     * Insert a grouped notification or fold it into the recipient's open row with the same key.
+     * Only a new row counts as unread; either way the aggregate is pushed, replacing the previous one by id.
+     */
+    private NotificationDto createGrouped(CreateNotificationRequest request, Long recipientId, Long senderId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationRepository.GroupedRow> rows = upsertGrouped(request, recipientId, senderId, now);
+        if (rows.isEmpty()) {
+            // The open row is covered by the read watermark or expired: close it and start a new group
+            notificationRepository.closeGroup(recipientId, request.getGroupKey(), now);
+            rows = upsertGrouped(request, recipientId, senderId, now);
+        }
+
+        NotificationRepository.GroupedRow row = rows.get(0);
+        if (row.getGroupCount() == 1) {
+            unreadCounter.increment(recipientId, request.getType());
+        } else {
+            // Folded in place: synced clients refetch the aggregate
+            changeRepository.record(recipientId, row.getId(), NotificationChangeType.UPDATED.name(), now);
+        }
+        log.info("Grouped notification {} for user: {} ({} events)", row.getId(), recipientId, row.getGroupCount());
+
+        NotificationDto dto = notificationRepository.findViewsByIds(List.of(row.getId())).get(0);
+        pushToUser(recipientId, dto);
+        return dto;
+    }
+
+    private List<NotificationRepository.GroupedRow> upsertGrouped(CreateNotificationRequest request, Long recipientId,
+                                                                  Long senderId, LocalDateTime now) {
+        return notificationRepository.upsertGrouped(request.getTitle(), request.getMessage(), request.getType().name(),
+                recipientId, senderId, request.getActionUrl(), request.getActionLabel(), request.getExpiresAt(),
+                request.getGroupKey(), now);
+    }
+
+    /**
+     * Adjust a user's cached unread counter for a row that was counted as unread before a write
+     */
+    private void decrementIfCounted(Long userId, NotificationRepository.WrittenRow row) {
+        if (Boolean.TRUE.equals(row.getCounted())) {
+            unreadCounter.decrement(userId, NotificationType.valueOf(row.getType()));
         }
     }
 
     /**
-     * Send broadcast notification via WebSocket
+     * Push to a user unless their preferences hold pushes back (push channel off, quiet hours)
+     */
+    private void pushToUser(Long userId, NotificationDto dto) {
+        if (preferenceRegistry.acceptsPush(userId, dto.getType())) {
+            notificationDispatcher.sendToUser(userId, dto);
+        }
+    }
+
+    /**
+     * Reject expiry times that are not after the send time
+     */
+    private void validateTiming(CreateNotificationRequest request) {
+        LocalDateTime sendAt = request.getSendAt() != null ? request.getSendAt() : LocalDateTime.now();
+        if (request.getExpiresAt() != null && !request.getExpiresAt().isAfter(sendAt)) {
+            throw new IllegalArgumentException("expiresAt must be after the send time");
+        }
+    }
+
+    private boolean isDeferred(CreateNotificationRequest request) {
+        return request.getSendAt() != null && request.getSendAt().isAfter(LocalDateTime.now());
+    }
+
+    /**
+     * Store a notification until its send time; the scheduler picks it up once it commits.
+     * The returned DTO has no id yet and is dated at the send time.
+     */
+    private NotificationDto schedule(CreateNotificationRequest request, Long senderId) {
+        ScheduledNotification scheduled = scheduledNotificationRepository.save(ScheduledNotification.builder()
+                .title(request.getTitle())
+                .message(request.getMessage())
+                .type(request.getType())
+                .recipientId(request.getIsBroadcast() ? null : request.getRecipientId())
+                .senderId(senderId)
+                .isBroadcast(request.getIsBroadcast())
+                .actionUrl(request.getActionUrl())
+                .actionLabel(request.getActionLabel())
+                .sendAt(request.getSendAt())
+                .expiresAt(request.getExpiresAt())
+                .groupKey(request.getGroupKey())
+                .build());
+        eventPublisher.publishEvent(scheduled);
+        log.info("Notification scheduled: {} for {}", scheduled.getId(), scheduled.getSendAt());
+
+        return NotificationDto.builder()
+                .title(scheduled.getTitle())
+                .message(scheduled.getMessage())
+                .type(scheduled.getType())
+                .recipientId(scheduled.getRecipientId())
+                .senderId(senderId)
+                .isRead(false)
+                .isBroadcast(scheduled.getIsBroadcast())
+                .actionUrl(scheduled.getActionUrl())
+                .actionLabel(scheduled.getActionLabel())
+                .createdAt(scheduled.getSendAt())
+                .expiresAt(scheduled.getExpiresAt())
+                .groupKey(scheduled.getGroupKey())
+                .build();
+    }
+
+    /**
+     * Display name of a sender, read as a projection; "System" for none
+     */
+    private String senderName(Long senderId) {
+        return senderId == null ? "System" : userRepository.findNameById(senderId)
+                .map(UserRepository.NameView::getFullName)
+                .orElse("System");
+    }
+
+    /**
+     * Oldest broadcast still visible in feeds
+     */
+    private LocalDateTime broadcastCutoff() {
+        return LocalDateTime.now().minusDays(appConfig.getNotifications().getBroadcastRetentionDays());
+    }
+
+    /**
+     * Wrap a keyset feed slice with the cursor of its last row
      */
-    private void sendBroadcast(NotificationDto notification) {
-        try {
-            messagingTemplate.convertAndSend("/topic/notifications", notification);
-            log.info("Broadcast notification sent via WebSocket");
-        } catch (Exception e) {
-            log.error("Failed to send broadcast notification via WebSocket", e);
+    private PageResponse<NotificationDto> toPageResponse(Slice<NotificationDto> notifications,
+                                                         PageCursor cursor, Long totalElements) {
+        PageResponse<NotificationDto> response = PageResponse.of(notifications);
+        response.setTotalElements(totalElements);
+        response.setFirst(cursor == PageCursor.FIRST);
+
+        if (notifications.hasNext()) {
+            List<NotificationDto> content = notifications.getContent();
+            NotificationDto lastRow = content.get(content.size() - 1);
+            response.setNextCursor(new PageCursor(lastRow.getCreatedAt(), lastRow.getId()).encode());
         }
+        return response;
     }
 
     /**
      * Convert entity to DTO
      */
-    private NotificationDto toDto(Notification notification) {
+    private NotificationDto toDto(Notification notification, String recipientName, String senderName) {
         return NotificationDto.builder()
                 .id(notification.getId())
                 .title(notification.getTitle())
                 .message(notification.getMessage())
                 .type(notification.getType())
-                .recipientId(notification.getRecipient().getId())
-                .recipientName(notification.getRecipient().getFirstName() + " " + notification.getRecipient().getLastName())
-                .senderId(notification.getSender() != null ? notification.getSender().getId() : null)
-                .senderName(notification.getSender() != null ? 
-                        notification.getSender().getFirstName() + " " + notification.getSender().getLastName() : "System")
+                .recipientId(notification.getRecipientId())
+                .recipientName(recipientName)
+                .senderId(notification.getSenderId())
+                .senderName(senderName)
                 .isRead(notification.getIsRead())
                 .isBroadcast(notification.getIsBroadcast())
                 .actionUrl(notification.getActionUrl())
                 .actionLabel(notification.getActionLabel())
                 .createdAt(notification.getCreatedAt())
+                .expiresAt(notification.getExpiresAt())
+                .groupKey(notification.getGroupKey())
+                .groupCount(notification.getGroupCount())
+                .actorIds(notification.getGroupActorIds())
                 .build();
     }
 }
@@ -0,0 +1,203 @@
+package com.bappy.application.notification.service;
+
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.exception.BadRequestException;
+import com.bappy.application.notification.counter.UnreadNotificationCounter;
+import com.bappy.application.notification.dto.NotificationDto;
+import com.bappy.application.notification.dto.SyncCursor;
+import com.bappy.application.notification.dto.SyncResponse;
+import com.bappy.application.notification.entity.NotificationChange;
+import com.bappy.application.notification.entity.NotificationReadWatermark;
+import com.bappy.application.notification.repository.NotificationChangeRepository;
+import com.bappy.application.notification.repository.NotificationReadWatermarkRepository;
+import com.bappy.application.notification.repository.NotificationRepository;
+import com.bappy.application.notification.shard.NotificationShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Delta sync for reconnecting clients.
+ * New notifications are found by id; reads, deletions and group updates come from a short-lived change log.
+ * Clients further behind than the log retention or the backlog limit are told to reload.
+ * <p>
+ * Ids are taken when a row is inserted, not when it commits, so a row with a lower id can become visible
+ * after a higher one was returned. Cursors therefore never move past rows younger than the settle delay:
+ * those rows are returned but read again by the next sync, and clients apply them idempotently by id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationSyncService {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationChangeRepository changeRepository;
+    private final NotificationReadWatermarkRepository readWatermarkRepository;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationShards notificationShards;
+    private final TransactionTemplate transactionTemplate;
+    private final AppConfig appConfig;
+
+    /**
+     * Get what changed in a user's notifications since a notification id or sync cursor.
+     * Without a starting point, only the cursor to continue from after a full reload is returned.
+     */
+    @Transactional(readOnly = true)
+    public SyncResponse sync(Long userId, String since) {
+        // Positions at or below these were settled before this sync started and can no longer be overtaken
+        LocalDateTime settled = settleHorizon();
+        long settledNotificationId = notificationRepository.findLatestIdCreatedBefore(settled);
+        long settledChangeId = changeRepository.findLatestIdBefore(settled);
+
+        SyncCursor cursor = since == null || since.isBlank() ? null : resolve(since, settledNotificationId, settledChangeId);
+        if (cursor == null || isPruned(cursor) || isTooFarBehind(userId, cursor)) {
+            return fullReload(userId, settledNotificationId, settledChangeId);
+        }
+
+        int batchSize = appConfig.getNotifications().getSyncBatchSize();
+        List<NotificationDto> created = notificationRepository.findFeedSinceId(
+                userId, broadcastCutoff(), cursor.notificationId(), PageRequest.of(0, batchSize + 1));
+        List<NotificationChange> changes = changeRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(
+                userId, cursor.changeId(), PageRequest.of(0, batchSize + 1));
+
+        boolean moreCreated = created.size() > batchSize;
+        boolean moreChanges = changes.size() > batchSize;
+        if (moreCreated) {
+            created = created.subList(0, batchSize);
+        }
+        if (moreChanges) {
+            changes = changes.subList(0, batchSize);
+        }
+
+        List<Long> read = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        Set<Long> updatedIds = new LinkedHashSet<>();
+        for (NotificationChange change : changes) {
+            switch (change.getChangeType()) {
+                case READ -> read.add(change.getNotificationId());
+                case DELETED -> deleted.add(change.getNotificationId());
+                case UPDATED -> updatedIds.add(change.getNotificationId());
+            }
+        }
+        // Rows returned as created already carry their latest aggregate, deleted ones are gone
+        created.forEach(notification -> updatedIds.remove(notification.getId()));
+        deleted.forEach(updatedIds::remove);
+        List<NotificationDto> updated = updatedIds.isEmpty()
+                ? List.of()
+                : notificationRepository.findViewsByIds(updatedIds);
+
+        long nextNotificationId = created.isEmpty()
+                ? cursor.notificationId()
+                : Math.max(cursor.notificationId(),
+                        Math.min(created.get(created.size() - 1).getId(), settledNotificationId));
+        long nextChangeId = moreChanges
+                ? Math.max(cursor.changeId(), Math.min(changes.get(changes.size() - 1).getId(), settledChangeId))
+                : Math.max(cursor.changeId(), settledChangeId);
+
+        return SyncResponse.builder()
+                .created(created)
+                .updated(updated)
+                .read(read)
+                .deleted(deleted)
+                .readUpToId(readUpToId(userId))
+                .unreadCount(unreadCounter.getTotal(userId))
+                .nextCursor(new SyncCursor(nextNotificationId, nextChangeId).encode())
+                // A page held back entirely by the settle delay is not worth fetching again right away
+                .hasMore((moreCreated && nextNotificationId > cursor.notificationId())
+                        || (moreChanges && nextChangeId > cursor.changeId()))
+                .build();
+    }
+
+    /**
+     * Prune the change log of every shard past the sync retention window (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.sync-prune-ms:3600000}")
+    public void pruneChanges() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(appConfig.getNotifications().getSyncRetentionDays());
+        int pruned = notificationShards.scatter(() -> transactionTemplate.execute(
+                        status -> changeRepository.deleteOlderThan(cutoff))).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        if (pruned > 0) {
+            log.info("Notification change log pruned: {} entries", pruned);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Turn a notification id or cursor token into a cursor; null if the id is unknown or older than the change log
+     */
+    private SyncCursor resolve(String since, long settledNotificationId, long settledChangeId) {
+        if (!since.chars().allMatch(Character::isDigit)) {
+            return SyncCursor.decode(since);
+        }
+
+        Long notificationId;
+        try {
+            notificationId = Long.valueOf(since);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid sync position", e);
+        }
+        LocalDateTime retained = LocalDateTime.now().minusDays(appConfig.getNotifications().getSyncRetentionDays());
+        return notificationRepository.findCreatedAtById(notificationId)
+                .filter(createdAt -> createdAt.isAfter(retained))
+                .map(createdAt -> {
+                    // A plain id may be one the client saw before it settled, so start no later than the settled head
+                    Long firstChangeId = changeRepository.findFirstIdSince(createdAt);
+                    return new SyncCursor(Math.min(notificationId, settledNotificationId),
+                            firstChangeId != null ? firstChangeId - 1 : settledChangeId);
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Check if changes after the cursor may already have been pruned
+     */
+    private boolean isPruned(SyncCursor cursor) {
+        Long oldestId = changeRepository.findOldestId();
+        return oldestId != null && cursor.changeId() + 1 < oldestId;
+    }
+
+    /**
+     * Check if more new notifications are pending than a sync should page through
+     */
+    private boolean isTooFarBehind(Long userId, SyncCursor cursor) {
+        int maxBehind = appConfig.getNotifications().getSyncMaxBehind();
+        return !notificationRepository.findFeedIdsSinceId(
+                userId, broadcastCutoff(), cursor.notificationId(), PageRequest.of(maxBehind, 1)).isEmpty();
+    }
+
+    private SyncResponse fullReload(Long userId, long settledNotificationId, long settledChangeId) {
+        return SyncResponse.builder()
+                .readUpToId(readUpToId(userId))
+                .unreadCount(unreadCounter.getTotal(userId))
+                .nextCursor(new SyncCursor(settledNotificationId, settledChangeId).encode())
+                .fullReloadRequired(true)
+                .build();
+    }
+
+    private Long readUpToId(Long userId) {
+        return readWatermarkRepository.findById(userId)
+                .map(NotificationReadWatermark::getLastReadId)
+                .orElse(null);
+    }
+
+    private LocalDateTime settleHorizon() {
+        return LocalDateTime.now().minusNanos(appConfig.getNotifications().getSyncSettleMs() * 1_000_000);
+    }
+
+    private LocalDateTime broadcastCutoff() {
+        return LocalDateTime.now().minusDays(appConfig.getNotifications().getBroadcastRetentionDays());
+    }
+}
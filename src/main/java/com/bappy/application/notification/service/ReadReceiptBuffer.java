@@ -0,0 +1,138 @@
+package com.bappy.application.notification.service;
+
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.notification.counter.UnreadNotificationCounter;
+import com.bappy.application.notification.dto.ReadReceiptAck;
+import com.bappy.application.notification.entity.NotificationChangeType;
+import com.bappy.application.notification.repository.NotificationChangeRepository;
+import com.bappy.application.notification.repository.NotificationReceiptRepository;
+import com.bappy.application.notification.repository.NotificationRepository;
+import com.bappy.application.notification.shard.NotificationShards;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-node write-behind buffer for read receipts sent over STOMP.
+ * Receipts are flushed every few hundred milliseconds, or as soon as the buffer reaches the batch size,
+ * as one UPDATE (plus one broadcast receipt upsert) per user, then acknowledged over the socket.
+ * The acknowledgement lists every id of the flushed batch: ids that are unknown, not the user's or already
+ * read change nothing, and resending them would not either. Receipts still buffered when a node crashes
+ * are lost; clients resend unacknowledged ids.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReadReceiptBuffer {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationReceiptRepository notificationReceiptRepository;
+    private final NotificationChangeRepository changeRepository;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationShards notificationShards;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AppConfig appConfig;
+
+    private final Queue<Receipt> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Buffer read receipts of a user, flushing immediately once the batch size is reached
+     */
+    public void add(Long userId, Collection<Long> notificationIds) {
+        int added = 0;
+        for (Long notificationId : notificationIds) {
+            if (notificationId != null) {
+                pending.add(new Receipt(userId, notificationId));
+                added++;
+            }
+        }
+
+        if (size.addAndGet(added) >= appConfig.getNotifications().getReadReceiptBatchSize()
+                && flushLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Flush buffered receipts (scheduled)
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.read-receipt-flush-ms:250}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flush what is left on shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void drain() {
+        Map<Long, Set<Long>> byUser = new LinkedHashMap<>();
+        Receipt receipt;
+        while ((receipt = pending.poll()) != null) {
+            size.decrementAndGet();
+            byUser.computeIfAbsent(receipt.userId(), key -> new LinkedHashSet<>()).add(receipt.notificationId());
+        }
+
+        byUser.forEach(this::persist);
+    }
+
+    private void persist(Long userId, Set<Long> notificationIds) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            notificationShards.runOnShardOf(userId, () -> transactionTemplate.executeWithoutResult(status -> {
+                int updated = notificationRepository.markBatchAsRead(userId, notificationIds, now);
+                if (updated < notificationIds.size()) {
+                    notificationReceiptRepository.upsertReadBatch(userId, notificationIds, now);
+                }
+                changeRepository.recordBatch(userId, notificationIds, NotificationChangeType.READ.name(), now);
+                unreadCounter.invalidate(userId);
+            }));
+        } catch (Exception e) {
+            log.error("Failed to persist {} read receipts for user: {}", notificationIds.size(), userId, e);
+            return;
+        }
+
+        try {
+            messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/read-receipts",
+                    ReadReceiptAck.builder()
+                            .notificationIds(new ArrayList<>(notificationIds))
+                            .persistedAt(now)
+                            .build());
+        } catch (Exception e) {
+            log.error("Failed to acknowledge read receipts to user: {}", userId, e);
+        }
+    }
+
+    private record Receipt(Long userId, Long notificationId) {
+    }
+}
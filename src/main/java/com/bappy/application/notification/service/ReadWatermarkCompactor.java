@@ -0,0 +1,78 @@
+package com.bappy.application.notification.service;
+
+import com.bappy.application.notification.entity.NotificationReadWatermark;
+import com.bappy.application.notification.repository.NotificationReadWatermarkRepository;
+import com.bappy.application.notification.repository.NotificationRepository;
+import com.bappy.application.notification.shard.NotificationShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Background compaction of row-level read flags up to each user's read watermark.
+ * Works in small batches, each in its own transaction, so a huge inbox never holds long row locks.
+ * Shards are compacted in parallel.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReadWatermarkCompactor {
+
+    private static final int USERS_PER_RUN = 100;
+
+    private static final int ROWS_PER_BATCH = 1000;
+
+    private final NotificationReadWatermarkRepository readWatermarkRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationShards notificationShards;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Compact pending watermarks
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.watermark-compaction-ms:60000}",
+               initialDelayString = "${app.notifications.watermark-compaction-ms:60000}")
+    public void compact() {
+        notificationShards.scatter(this::compactShard);
+    }
+
+    /**
+     * Compact pending watermarks of the current shard
+     */
+    private Void compactShard() {
+        List<NotificationReadWatermark> pending = readWatermarkRepository
+                .findPendingCompaction(PageRequest.of(0, USERS_PER_RUN));
+
+        long rows = 0;
+        for (NotificationReadWatermark watermark : pending) {
+            rows += compact(watermark.getUserId(), watermark.getLastReadId());
+        }
+
+        if (!pending.isEmpty()) {
+            log.info("Read watermarks compacted: {} users, {} notifications", pending.size(), rows);
+        }
+        return null;
+    }
+
+    /**
+     * Set read flags for one user up to a watermark, then record progress
+     */
+    private long compact(Long userId, Long watermark) {
+        long rows = 0;
+        int updated;
+        do {
+            updated = transactionTemplate.execute(status -> notificationRepository
+                    .compactReadFlags(userId, watermark, ROWS_PER_BATCH, LocalDateTime.now()));
+            rows += updated;
+        } while (updated == ROWS_PER_BATCH);
+
+        transactionTemplate.executeWithoutResult(status -> readWatermarkRepository.markCompacted(userId, watermark));
+        return rows;
+    }
+}
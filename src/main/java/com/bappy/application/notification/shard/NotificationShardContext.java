@@ -0,0 +1,25 @@
+package com.bappy.application.notification.shard;
+
+/**
+ * Notification shard of the current thread, read by {@link NotificationShardDataSource} when a
+ * connection is requested. Unset means shard 0.
+ */
+final class NotificationShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private NotificationShardContext() {
+    }
+
+    static Integer get() {
+        return CURRENT.get();
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.bappy.application.notification.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Hands out connections of the notification shard the current thread is routed to.
+ * Shard 0 is the default data source; every other shard has its own pool whose connections have the
+ * shard schema first on their search path, so the notification tables resolve to the shard while users
+ * and the other shared tables still resolve to public.
+ * <p>
+ * Like replica routing, this must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * and the shard must be chosen before the transaction starts, see {@link NotificationShards}.
+ */
+@Slf4j
+public class NotificationShardDataSource extends AbstractDataSource {
+
+    private final DataSource defaultDataSource;
+    private final List<DataSource> shardPools;
+
+    /**
+     * @param shardPools pools of shards 1..n, in shard order
+     */
+    public NotificationShardDataSource(DataSource defaultDataSource, List<DataSource> shardPools) {
+        this.defaultDataSource = defaultDataSource;
+        this.shardPools = List.copyOf(shardPools);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Integer shard = NotificationShardContext.get();
+        if (shard == null || shard == 0) {
+            return defaultDataSource.getConnection();
+        }
+        return shardPools.get(shard - 1).getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Routed connections use the pools' own credentials");
+    }
+
+    /**
+     * Close the shard pools; the default data source is managed on its own
+     */
+    public void close() {
+        for (DataSource pool : shardPools) {
+            if (pool instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close notification shard pool", e);
+                }
+            }
+        }
+    }
+}
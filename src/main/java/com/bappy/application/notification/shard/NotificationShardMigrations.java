@@ -0,0 +1,30 @@
+package com.bappy.application.notification.shard;
+
+import org.flywaydb.core.Flyway;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Flyway migrations of the notification shard schemas, from {@code classpath:db/shard}.
+ * Each schema keeps its own history table, so shards added later are brought up to date on their own.
+ * Runs after the main migrations, which own shard 0 and the shared tables the shards reference.
+ */
+public final class NotificationShardMigrations {
+
+    public static final String LOCATION = "classpath:db/shard";
+
+    private NotificationShardMigrations() {
+    }
+
+    public static void migrate(DataSource dataSource, List<String> schemas) {
+        for (String schema : schemas) {
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .schemas(schema)
+                    .locations(LOCATION)
+                    .load()
+                    .migrate();
+        }
+    }
+}
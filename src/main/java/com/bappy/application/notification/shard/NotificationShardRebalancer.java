@@ -0,0 +1,205 @@
+package com.bappy.application.notification.shard;
+
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.exception.BadRequestException;
+import com.bappy.application.notification.dto.ShardMove;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Online moves of notification shard buckets, with every user in them, between shards.
+ * A move never blocks reads or writes:
+ * <ol>
+ *   <li>the bucket's rows are copied to the target shard while the source keeps serving it;</li>
+ *   <li>the bucket is pointed at the target, so this node routes it there at once and the others on
+ *       their next placement refresh;</li>
+ *   <li>after a grace period covering that refresh, the rows are drained from the source and merged into
+ *       the target, picking up anything other nodes wrote to the source in the meantime.</li>
+ * </ol>
+ * Moves in one run share the grace period. One run at a time per node; runs are not coordinated across nodes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationShardRebalancer {
+
+    private final NotificationShards shards;
+    private final NotificationShardRepository shardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AppConfig appConfig;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("notification-rebalance-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Moves that spread buckets evenly over all shards, taking buckets only from shards above their share
+     */
+    public List<ShardMove> plan() {
+        int shardCount = shards.getShardCount();
+        int buckets = shards.getBucketCount();
+        int[] counts = new int[shardCount];
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            counts[shards.shardOfBucket(bucket)]++;
+        }
+
+        List<ShardMove> moves = new ArrayList<>();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int from = shards.shardOfBucket(bucket);
+            if (counts[from] <= share(from, buckets, shardCount)) {
+                continue;
+            }
+            for (int to = 0; to < shardCount; to++) {
+                if (counts[to] < share(to, buckets, shardCount)) {
+                    moves.add(new ShardMove(bucket, from, to));
+                    counts[from]--;
+                    counts[to]++;
+                    break;
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Start moving buckets in the background until they are spread evenly
+     *
+     * @return the planned moves
+     */
+    public List<ShardMove> rebalance() {
+        requireEnabled();
+        shards.refresh();
+        List<ShardMove> moves = plan();
+        if (!moves.isEmpty()) {
+            startMoves(moves);
+        }
+        return moves;
+    }
+
+    /**
+     * Start moving one bucket to another shard in the background
+     */
+    public ShardMove moveBucket(int bucket, int toShard) {
+        requireEnabled();
+        if (bucket < 0 || bucket >= shards.getBucketCount()) {
+            throw new BadRequestException("Bucket must be between 0 and " + (shards.getBucketCount() - 1));
+        }
+        if (toShard < 0 || toShard >= shards.getShardCount()) {
+            throw new BadRequestException("Shard must be between 0 and " + (shards.getShardCount() - 1));
+        }
+        shards.refresh();
+        int fromShard = shards.shardOfBucket(bucket);
+        if (fromShard == toShard) {
+            throw new BadRequestException("Bucket " + bucket + " is already on shard " + toShard);
+        }
+
+        ShardMove move = new ShardMove(bucket, fromShard, toShard);
+        startMoves(List.of(move));
+        return move;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Move buckets, blocking until their rows are drained from the source shards
+     */
+    public void move(List<ShardMove> moves) {
+        for (ShardMove move : moves) {
+            transactionTemplate.executeWithoutResult(status -> shardRepository.mergeBucket(
+                    schema(move.getFromShard()), schema(move.getToShard()), shards.getBucketCount(), move.getBucket(), false));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ShardMove> switched = new ArrayList<>(moves.size());
+        for (ShardMove move : moves) {
+            if (shardRepository.moveBucket(move.getBucket(), move.getFromShard(), move.getToShard(), now)) {
+                switched.add(move);
+            } else {
+                log.warn("Notification shard bucket {} moved concurrently, skipping it", move.getBucket());
+            }
+        }
+        shards.refresh();
+        log.info("Notification shard buckets switched: {}, draining in {} ms", switched.size(), graceMs());
+
+        try {
+            Thread.sleep(graceMs());
+        } catch (InterruptedException e) {
+            // Switched buckets are drained anyway, so no rows are left behind on the source
+            Thread.currentThread().interrupt();
+        }
+
+        for (ShardMove move : switched) {
+            transactionTemplate.executeWithoutResult(status -> shardRepository.mergeBucket(
+                    schema(move.getFromShard()), schema(move.getToShard()), shards.getBucketCount(), move.getBucket(), true));
+            meterRegistry.counter("notifications.shard.buckets.moved").increment();
+            log.info("Notification shard bucket {} moved from shard {} to {}",
+                    move.getBucket(), move.getFromShard(), move.getToShard());
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void startMoves(List<ShardMove> moves) {
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("A notification shard rebalance is already running");
+        }
+        executor.execute(() -> {
+            try {
+                move(moves);
+            } catch (Exception e) {
+                log.error("Notification shard rebalance failed after planning {} moves", moves.size(), e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    private void requireEnabled() {
+        if (!shards.isEnabled()) {
+            throw new BadRequestException("Notification sharding is not enabled");
+        }
+    }
+
+    /**
+     * Even share of buckets for a shard; the first shards take the remainder
+     */
+    private static int share(int shard, int buckets, int shardCount) {
+        return buckets / shardCount + (shard < buckets % shardCount ? 1 : 0);
+    }
+
+    private String schema(int shard) {
+        return shards.getSchema(shard);
+    }
+
+    private long graceMs() {
+        return appConfig.getNotifications().getSharding().getMoveGraceMs();
+    }
+}
@@ -0,0 +1,186 @@
+package com.bappy.application.notification.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Plain JDBC access to the shard placement table and to rows crossing shards.
+ * Shards are schemas of one database, so copies between them are single schema-qualified statements;
+ * schema names are validated identifiers (see {@link NotificationShards}).
+ */
+@Repository
+@RequiredArgsConstructor
+public class NotificationShardRepository {
+
+    private static final String NOTIFICATION_COLUMNS = """
+            id, title, message, type, recipient_id, sender_id, is_read, is_broadcast, action_url, action_label,
+            created_at, updated_at, created_by, updated_by, expires_at, group_key, group_count, group_actor_ids""";
+
+    private static final String RECEIPT_COLUMNS = "notification_id, user_id, read_at, dismissed_at";
+
+    private static final String WATERMARK_COLUMNS = "user_id, last_read_id, compacted_id, updated_at";
+
+    private static final String CHANGE_COLUMNS = "id, user_id, notification_id, change_type, changed_at";
+
+    /**
+     * Rows already on the target win on conflict, except that read flags and group counters only move forward.
+     * A moved open group whose key already has an open row on the target is closed rather than duplicated.
+     * Rows the target logged as deleted (by a node that already switched, or by its expiry sweep) are skipped,
+     * so a drain after the copy does not bring them back.
+     */
+    private static final String MERGE_NOTIFICATIONS_SQL = """
+            WITH moved AS (%1$s)
+            INSERT INTO %2$s.notifications AS t (%3$s)
+            SELECT m.id, m.title, m.message, m.type, m.recipient_id, m.sender_id,
+                   m.is_read OR EXISTS (SELECT 1 FROM %2$s.notifications o
+                                        WHERE o.recipient_id = m.recipient_id AND o.group_key = m.group_key
+                                          AND o.is_read = FALSE AND o.id <> m.id),
+                   m.is_broadcast, m.action_url, m.action_label, m.created_at, m.updated_at, m.created_by,
+                   m.updated_by, m.expires_at, m.group_key, m.group_count, m.group_actor_ids
+            FROM moved m
+            WHERE NOT EXISTS (SELECT 1 FROM %2$s.notification_changes d
+                              WHERE d.user_id = m.recipient_id AND d.notification_id = m.id
+                                AND d.change_type = 'DELETED')
+            ON CONFLICT (id) DO UPDATE
+            SET is_read = t.is_read OR EXCLUDED.is_read,
+                group_count = GREATEST(t.group_count, EXCLUDED.group_count),
+                group_actor_ids = CASE WHEN EXCLUDED.group_count > t.group_count
+                                       THEN EXCLUDED.group_actor_ids ELSE t.group_actor_ids END,
+                updated_at = GREATEST(t.updated_at, EXCLUDED.updated_at)
+            """;
+
+    /**
+     * Notifications deleted on the source after they were copied must not come back on the target
+     */
+    private static final String APPLY_DELETES_SQL = """
+            DELETE FROM %2$s.notifications t
+            USING %1$s.notification_changes c
+            WHERE c.user_id %% ? = ? AND c.change_type = 'DELETED'
+              AND t.id = c.notification_id AND t.recipient_id = c.user_id
+            """;
+
+    /**
+     * Receipts only exist for broadcasts, which every shard holds; ones whose broadcast is gone are dropped
+     */
+    private static final String MERGE_RECEIPTS_SQL = """
+            WITH moved AS (%1$s)
+            INSERT INTO %2$s.notification_receipts AS t (%3$s)
+            SELECT %3$s FROM moved m
+            WHERE EXISTS (SELECT 1 FROM %2$s.notifications b WHERE b.id = m.notification_id)
+            ON CONFLICT (notification_id, user_id) DO UPDATE
+            SET read_at = COALESCE(t.read_at, EXCLUDED.read_at),
+                dismissed_at = COALESCE(t.dismissed_at, EXCLUDED.dismissed_at)
+            """;
+
+    private static final String MERGE_WATERMARKS_SQL = """
+            WITH moved AS (%1$s)
+            INSERT INTO %2$s.notification_read_watermarks AS t (%3$s)
+            SELECT %3$s FROM moved
+            ON CONFLICT (user_id) DO UPDATE
+            SET last_read_id = GREATEST(t.last_read_id, EXCLUDED.last_read_id),
+                compacted_id = LEAST(t.compacted_id, EXCLUDED.compacted_id),
+                updated_at = GREATEST(t.updated_at, EXCLUDED.updated_at)
+            """;
+
+    private static final String MERGE_CHANGES_SQL = """
+            WITH moved AS (%1$s)
+            INSERT INTO %2$s.notification_changes (%3$s)
+            SELECT %3$s FROM moved
+            ON CONFLICT (id) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Create the placement of every bucket that has none yet, on shard 0
+     */
+    public void createBuckets(int buckets, LocalDateTime now) {
+        jdbcTemplate.update("INSERT INTO notification_shard_buckets (bucket, shard, updated_at) " +
+                            "SELECT b, 0, ? FROM generate_series(0, ? - 1) b ON CONFLICT (bucket) DO NOTHING",
+                Timestamp.valueOf(now), buckets);
+    }
+
+    /**
+     * Shard of every bucket by bucket number; -1 for buckets without a placement
+     */
+    public int[] findBucketShards(int buckets) {
+        int[] shards = new int[buckets];
+        Arrays.fill(shards, -1);
+        jdbcTemplate.query("SELECT bucket, shard FROM notification_shard_buckets", rs -> {
+            int bucket = rs.getInt(1);
+            if (bucket < 0 || bucket >= buckets) {
+                throw new IllegalStateException("Notification shard bucket " + bucket + " is outside 0.." +
+                                                (buckets - 1) + "; the bucket count cannot change once sharding is enabled");
+            }
+            shards[bucket] = rs.getInt(2);
+        });
+        return shards;
+    }
+
+    /**
+     * Point a bucket at another shard, unless it moved since it was read
+     */
+    public boolean moveBucket(int bucket, int fromShard, int toShard, LocalDateTime now) {
+        return jdbcTemplate.update("UPDATE notification_shard_buckets SET shard = ?, updated_at = ? " +
+                                   "WHERE bucket = ? AND shard = ?",
+                toShard, Timestamp.valueOf(now), bucket, fromShard) > 0;
+    }
+
+    /**
+     * Copy one notification to another shard schema, keeping its id (broadcasts are held by every shard)
+     */
+    public void copyNotification(long id, String fromSchema, String toSchema) {
+        jdbcTemplate.update("INSERT INTO " + toSchema + ".notifications (" + NOTIFICATION_COLUMNS + ") " +
+                            "SELECT " + NOTIFICATION_COLUMNS + " FROM " + fromSchema + ".notifications WHERE id = ?",
+                id);
+    }
+
+    /**
+     * Merge the notifications, receipts, watermarks and change log of a bucket's users into another shard.
+     * With {@code drain} the rows are deleted from the source by the same statements, so none written
+     * there in the meantime are lost; otherwise they are only copied.
+     */
+    public void mergeBucket(String fromSchema, String toSchema, int buckets, int bucket, boolean drain) {
+        jdbcTemplate.update(MERGE_NOTIFICATIONS_SQL.formatted(
+                        source(fromSchema, "notifications", "recipient_id", NOTIFICATION_COLUMNS, drain),
+                        toSchema, NOTIFICATION_COLUMNS),
+                buckets, bucket);
+        jdbcTemplate.update(APPLY_DELETES_SQL.formatted(fromSchema, toSchema), buckets, bucket);
+        jdbcTemplate.update(MERGE_RECEIPTS_SQL.formatted(
+                        source(fromSchema, "notification_receipts", "user_id", RECEIPT_COLUMNS, drain),
+                        toSchema, RECEIPT_COLUMNS),
+                buckets, bucket);
+        jdbcTemplate.update(MERGE_WATERMARKS_SQL.formatted(
+                        source(fromSchema, "notification_read_watermarks", "user_id", WATERMARK_COLUMNS, drain),
+                        toSchema, WATERMARK_COLUMNS),
+                buckets, bucket);
+        jdbcTemplate.update(MERGE_CHANGES_SQL.formatted(
+                        source(fromSchema, "notification_changes", "user_id", CHANGE_COLUMNS, drain),
+                        toSchema, CHANGE_COLUMNS),
+                buckets, bucket);
+    }
+
+    /**
+     * Planner estimate of the notification rows on the current connection's shard
+     */
+    public long estimateNotifications() {
+        Long estimate = jdbcTemplate.queryForObject(
+                "SELECT GREATEST(reltuples, 0)::BIGINT FROM pg_class WHERE oid = 'notifications'::regclass", Long.class);
+        return estimate != null ? estimate : 0;
+    }
+
+    /**
+     * Rows of a bucket's users in a source table: selected for a copy, deleted and returned for a drain
+     */
+    private static String source(String schema, String table, String userColumn, String columns, boolean drain) {
+        String where = " WHERE " + userColumn + " % ? = ?";
+        return drain
+                ? "DELETE FROM " + schema + "." + table + where + " RETURNING " + columns
+                : "SELECT " + columns + " FROM " + schema + "." + table + where;
+    }
+}
@@ -0,0 +1,294 @@
+package com.bappy.application.notification.shard;
+
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.notification.dto.ShardStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Placement of notification data across shards, and routing of work to them.
+ * A user's notifications, broadcast receipts, read watermark and change log live on one shard, chosen by
+ * the user's bucket ({@code user_id mod buckets}); buckets map to shards through
+ * {@code notification_shard_buckets}, which the rebalancer updates and every node reloads periodically.
+ * Broadcasts are copied to every shard, so feeds never leave the user's shard.
+ * <p>
+ * Shard 0 is the public schema; shards 1..n are the configured schemas, in order. Work is routed by
+ * running it inside {@link #callOnShardOf}: the shard is picked up when the transaction fetches its
+ * connection, so it must be chosen before the transaction starts and cannot change inside it.
+ * With sharding disabled there is a single shard and routing just runs the work.
+ */
+@Component
+@Slf4j
+public class NotificationShards {
+
+    private static final Pattern SCHEMA_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private static final String DEFAULT_SCHEMA = "public";
+
+    private final NotificationShardRepository shardRepository;
+    private final boolean enabled;
+    private final int buckets;
+    private final List<String> schemas;
+    private final int scatterThreads;
+
+    /**
+     * Shard of each bucket; replaced as a whole on refresh
+     */
+    private volatile int[] bucketShards;
+
+    private ThreadPoolTaskExecutor scatterExecutor;
+
+    public NotificationShards(NotificationShardRepository shardRepository, AppConfig appConfig) {
+        AppConfig.Notifications.Sharding config = appConfig.getNotifications().getSharding();
+        this.shardRepository = shardRepository;
+        this.enabled = config.getEnabled();
+        this.buckets = enabled ? config.getBuckets() : 1;
+        this.scatterThreads = config.getScatterThreads();
+
+        List<String> schemas = new ArrayList<>();
+        schemas.add(DEFAULT_SCHEMA);
+        if (enabled) {
+            for (AppConfig.Notifications.Shard shard : config.getShards()) {
+                schemas.add(shard.getSchema());
+            }
+        }
+        this.schemas = List.copyOf(schemas);
+        this.bucketShards = new int[buckets];
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        for (String schema : schemas) {
+            if (!SCHEMA_NAME.matcher(schema).matches() || schemas.indexOf(schema) != schemas.lastIndexOf(schema)) {
+                throw new IllegalStateException("Invalid or duplicate notification shard schema: " + schema);
+            }
+        }
+
+        scatterExecutor = new ThreadPoolTaskExecutor();
+        scatterExecutor.setThreadNamePrefix("notification-shard-");
+        scatterExecutor.setCorePoolSize(scatterThreads);
+        scatterExecutor.setMaxPoolSize(scatterThreads);
+        scatterExecutor.initialize();
+
+        shardRepository.createBuckets(buckets, LocalDateTime.now());
+        refresh();
+        log.info("Notification sharding enabled: {} shards, {} buckets", schemas.size(), buckets);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Reload bucket placement, picking up moves made on other nodes (scheduled task)
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.sharding.refresh-ms:5000}",
+               initialDelayString = "${app.notifications.sharding.refresh-ms:5000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        int[] loaded = shardRepository.findBucketShards(buckets);
+        for (int bucket = 0; bucket < loaded.length; bucket++) {
+            if (loaded[bucket] < 0 || loaded[bucket] >= schemas.size()) {
+                throw new IllegalStateException("Notification shard bucket " + bucket + " is placed on unknown shard " +
+                                                loaded[bucket] + "; shards holding buckets cannot be removed");
+            }
+        }
+        bucketShards = loaded;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getShardCount() {
+        return schemas.size();
+    }
+
+    public int getBucketCount() {
+        return buckets;
+    }
+
+    public String getSchema(int shard) {
+        return schemas.get(shard);
+    }
+
+    public int bucketOf(long userId) {
+        return (int) Math.floorMod(userId, (long) buckets);
+    }
+
+    /**
+     * Shard currently holding a bucket
+     */
+    public int shardOfBucket(int bucket) {
+        return bucketShards[bucket];
+    }
+
+    /**
+     * Shard holding a user's notifications; shard 0 for none (broadcasts are written there first)
+     */
+    public int shardOf(Long userId) {
+        return userId == null ? 0 : bucketShards[bucketOf(userId)];
+    }
+
+    /**
+     * Shard the current thread is routed to
+     */
+    public int currentShard() {
+        Integer shard = NotificationShardContext.get();
+        return shard != null ? shard : 0;
+    }
+
+    /**
+     * Run work on the shard of a user
+     */
+    public <T> T callOnShardOf(Long userId, Supplier<T> work) {
+        return callOnShard(shardOf(userId), work);
+    }
+
+    public void runOnShardOf(Long userId, Runnable work) {
+        callOnShard(shardOf(userId), () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run work on a shard. Transactions started by the work use that shard's connections.
+     *
+     * @throws IllegalStateException if the current thread is inside a transaction on another shard
+     */
+    public <T> T callOnShard(int shard, Supplier<T> work) {
+        Integer previous = NotificationShardContext.get();
+        if (shard == (previous != null ? previous : 0)) {
+            return work.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to notification shard " + shard +
+                                            " inside a transaction on shard " + currentShard());
+        }
+
+        NotificationShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            NotificationShardContext.set(previous);
+        }
+    }
+
+    /**
+     * Run work once on every shard, in parallel, and gather the results in shard order
+     */
+    public <T> List<T> scatter(Supplier<T> work) {
+        if (!enabled) {
+            return List.of(work.get());
+        }
+
+        List<CompletableFuture<T>> futures = new ArrayList<>(schemas.size());
+        for (int shard = 0; shard < schemas.size(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> callOnShard(target, work), scatterExecutor));
+        }
+        return gather(futures);
+    }
+
+    /**
+     * Run work on the items of each shard, in parallel, and gather the results in shard order
+     */
+    public <T, R> List<R> scatter(Map<Integer, List<T>> itemsByShard, Function<List<T>, R> work) {
+        if (itemsByShard.size() == 1) {
+            Map.Entry<Integer, List<T>> only = itemsByShard.entrySet().iterator().next();
+            return List.of(callOnShard(only.getKey(), () -> work.apply(only.getValue())));
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>(itemsByShard.size());
+        itemsByShard.forEach((shard, items) -> futures.add(CompletableFuture.supplyAsync(
+                () -> callOnShard(shard, () -> work.apply(items)), scatterExecutor)));
+        return gather(futures);
+    }
+
+    /**
+     * Group items by the shard of their user, keeping their order within each shard
+     */
+    public <T> Map<Integer, List<T>> partition(Collection<T> items, ToLongFunction<T> userId) {
+        Map<Integer, List<T>> byShard = new TreeMap<>();
+        for (T item : items) {
+            byShard.computeIfAbsent(shardOf(userId.applyAsLong(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return byShard;
+    }
+
+    /**
+     * Copy a broadcast just written on the current shard to every other shard, in the same transaction
+     */
+    public void replicateBroadcast(long notificationId) {
+        int source = currentShard();
+        for (int shard = 0; shard < schemas.size(); shard++) {
+            if (shard != source) {
+                shardRepository.copyNotification(notificationId, schemas.get(source), schemas.get(shard));
+            }
+        }
+    }
+
+    /**
+     * Buckets and estimated size of every shard, gathered in parallel
+     */
+    public List<ShardStats> stats() {
+        int[] bucketCounts = new int[schemas.size()];
+        for (int shard : bucketShards) {
+            bucketCounts[shard]++;
+        }
+        List<Long> estimates = scatter(shardRepository::estimateNotifications);
+
+        List<ShardStats> stats = new ArrayList<>(schemas.size());
+        for (int shard = 0; shard < schemas.size(); shard++) {
+            stats.add(ShardStats.builder()
+                    .shard(shard)
+                    .schema(schemas.get(shard))
+                    .buckets(enabled ? bucketCounts[shard] : 0)
+                    .estimatedNotifications(estimates.get(shard))
+                    .build());
+        }
+        return stats;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static <T> List<T> gather(List<CompletableFuture<T>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+}
@@ -0,0 +1,278 @@
+package com.bappy.application.notification.stream;
+
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.notification.dto.NotificationDto;
+import com.bappy.application.notification.presence.PresenceRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongPredicate;
+
+/**
+ * Open Server-Sent Events notification streams on this node.
+ * Streams run on async servlet support, so no thread is held per connection; events carry the
+ * notification id so clients resume with {@code Last-Event-ID}. Streams count towards presence.
+ * Events are queued per stream and written by a small sender pool, so a slow client never blocks the
+ * thread delivering to it; a stream whose queue fills up is closed and the client resumes on reconnect.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationStreamRegistry {
+
+    private static final String EVENT_NAME = "notification";
+
+    private final PresenceRegistry presenceRegistry;
+    private final MeterRegistry meterRegistry;
+    private final AppConfig appConfig;
+
+    private final Map<Long, Set<Stream>> streamsByUser = new ConcurrentHashMap<>();
+
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    private ThreadPoolTaskExecutor sendExecutor;
+
+    private Counter evictedCounter;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("notifications.stream.connections", openStreams, AtomicInteger::get)
+                .description("Open notification event streams on this node")
+                .register(meterRegistry);
+        evictedCounter = Counter.builder("notifications.stream.evicted")
+                .description("Notification event streams closed because their send queue was full")
+                .register(meterRegistry);
+
+        // Each stream has at most one drain task queued, so the task queue is bounded by the open streams
+        int threads = appConfig.getNotifications().getStreamSendThreads();
+        sendExecutor = new ThreadPoolTaskExecutor();
+        sendExecutor.setThreadNamePrefix("notification-stream-");
+        sendExecutor.setCorePoolSize(threads);
+        sendExecutor.setMaxPoolSize(threads);
+        sendExecutor.initialize();
+    }
+
+    @PreDestroy
+    void stop() {
+        sendExecutor.shutdown();
+    }
+
+    /**
+     * Open a stream for a user, first replaying notifications missed since the last event
+     */
+    public SseEmitter open(Long userId, List<NotificationDto> missed) {
+        Stream stream = new Stream(UUID.randomUUID().toString(), userId,
+                new SseEmitter(appConfig.getNotifications().getStreamTimeoutMs()),
+                appConfig.getNotifications().getStreamQueueCapacity());
+        stream.emitter().onCompletion(() -> close(stream));
+        stream.emitter().onTimeout(() -> close(stream));
+        stream.emitter().onError(error -> close(stream));
+
+        // Registered before replaying, so nothing published meanwhile is missed (clients dedupe by id)
+        streamsByUser.compute(userId, (id, streams) -> {
+            Set<Stream> current = streams != null ? streams : ConcurrentHashMap.newKeySet();
+            current.add(stream);
+            return current;
+        });
+        openStreams.incrementAndGet();
+        presenceRegistry.register(stream.id(), userId);
+
+        // Written on the opening request's own thread, which has nothing else to deliver
+        for (NotificationDto notification : missed) {
+            if (!write(stream, event(notification))) {
+                break;
+            }
+        }
+        log.debug("Notification stream opened for user: {} ({} replayed)", userId, missed.size());
+        return stream.emitter();
+    }
+
+    /**
+     * Get the number of open streams of a user
+     */
+    public int count(Long userId) {
+        Set<Stream> streams = streamsByUser.get(userId);
+        return streams != null ? streams.size() : 0;
+    }
+
+    /**
+     * Send a notification to a user's streams
+     */
+    public void send(Long userId, NotificationDto notification) {
+        Set<Stream> streams = streamsByUser.get(userId);
+        if (streams != null) {
+            streams.forEach(stream -> enqueue(stream, event(notification)));
+        }
+    }
+
+    /**
+     * Send a notification to the streams of every user who accepts it
+     */
+    public void broadcast(NotificationDto notification, LongPredicate accepts) {
+        streamsByUser.forEach((userId, streams) -> {
+            if (accepts.test(userId)) {
+                streams.forEach(stream -> enqueue(stream, event(notification)));
+            }
+        });
+    }
+
+    /**
+     * Keep idle streams alive through proxies and detect dead or stalled connections
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.stream-heartbeat-ms:15000}")
+    public void heartbeat() {
+        streamsByUser.values().forEach(streams -> streams.forEach(stream ->
+                enqueue(stream, SseEmitter.event().comment("heartbeat"))));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static SseEmitter.SseEventBuilder event(NotificationDto notification) {
+        return SseEmitter.event()
+                .id(String.valueOf(notification.getId()))
+                .name(EVENT_NAME)
+                .data(notification, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Queue an event for a stream and make sure a sender drains it; a full queue closes the stream
+     */
+    private void enqueue(Stream stream, SseEmitter.SseEventBuilder event) {
+        if (stream.closing()) {
+            return;
+        }
+        if (!stream.pending().offer(event)) {
+            // The sender may be blocked on this client, so it completes the stream, not the delivering thread
+            log.debug("Notification stream of user {} fell behind, closing it", stream.userId());
+            evictedCounter.increment();
+            stream.close();
+            close(stream);
+        }
+        scheduleDrain(stream);
+    }
+
+    private void scheduleDrain(Stream stream) {
+        if (!stream.draining().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> drain(stream));
+        } catch (TaskRejectedException e) {
+            // Shutting down
+            stream.draining().set(false);
+        }
+    }
+
+    /**
+     * Write a stream's queued events in order, on a sender thread
+     */
+    private void drain(Stream stream) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while (!stream.closing() && (event = stream.pending().poll()) != null) {
+                write(stream, event);
+            }
+            if (stream.closing()) {
+                stream.pending().clear();
+                stream.emitter().complete();
+            }
+            stream.draining().set(false);
+        } while (!stream.pending().isEmpty() && stream.draining().compareAndSet(false, true));
+    }
+
+    private boolean write(Stream stream, SseEmitter.SseEventBuilder event) {
+        try {
+            stream.emitter().send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Notification stream of user {} is gone", stream.userId());
+            stream.close();
+            stream.emitter().completeWithError(e);
+            return false;
+        }
+    }
+
+    private void close(Stream stream) {
+        boolean[] removed = new boolean[1];
+        streamsByUser.computeIfPresent(stream.userId(), (id, streams) -> {
+            removed[0] = streams.remove(stream);
+            return streams.isEmpty() ? null : streams;
+        });
+        if (removed[0]) {
+            openStreams.decrementAndGet();
+        }
+        presenceRegistry.unregister(stream.id());
+    }
+
+    /**
+     * An open stream with its bounded queue of events not yet written
+     */
+    private static final class Stream {
+
+        private final String id;
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closing;
+
+        Stream(String id, Long userId, SseEmitter emitter, int queueCapacity) {
+            this.id = id;
+            this.userId = userId;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        String id() {
+            return id;
+        }
+
+        Long userId() {
+            return userId;
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+
+        BlockingQueue<SseEmitter.SseEventBuilder> pending() {
+            return pending;
+        }
+
+        AtomicBoolean draining() {
+            return draining;
+        }
+
+        boolean closing() {
+            return closing;
+        }
+
+        /**
+         * Stop queueing and writing events; the sender completes the emitter
+         */
+        void close() {
+            closing = true;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.bappy.application.notification.websocket;
+
+import com.bappy.application.notification.dto.ReadReceiptRequest;
+import com.bappy.application.notification.service.ReadReceiptBuffer;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+/**
+ * STOMP handler for read receipts.
+ * Clients send to {@code /app/notifications/read} and receive acks on {@code /user/queue/read-receipts}.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class ReadReceiptController {
+
+    private final ReadReceiptBuffer readReceiptBuffer;
+
+    /**
+     * Buffer read receipts for write-behind persistence
+     */
+    @MessageMapping("/notifications/read")
+    public void markAsRead(@Valid @Payload ReadReceiptRequest request, Principal principal) {
+        if (principal == null) {
+            log.warn("Read receipt rejected from unauthenticated session");
+            return;
+        }
+
+        readReceiptBuffer.add(Long.valueOf(principal.getName()), request.getNotificationIds());
+    }
+}
@@ -1,5 +1,6 @@
 package com.bappy.application.notification.websocket;
 
+import com.bappy.application.security.CustomUserDetailsService;
 import com.bappy.application.security.jwt.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,13 +12,13 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 /**
  * WebSocket authentication interceptor.
  * Validates JWT token from WebSocket connection.
+ * The session principal is named by user id, matching the user destinations used for pushes.
  */
 @Component
 @RequiredArgsConstructor
@@ -25,7 +26,7 @@ import org.springframework.util.StringUtils;
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -40,10 +41,10 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
                 try {
                     if (jwtTokenProvider.validateToken(token)) {
                         Long userId = jwtTokenProvider.getUserIdFromToken(token);
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(userId.toString());
+                        UserDetails userDetails = userDetailsService.loadUserById(userId);
                         
                         UsernamePasswordAuthenticationToken authentication = 
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                            new UsernamePasswordAuthenticationToken(userId.toString(), null, userDetails.getAuthorities());
                         
                         accessor.setUser(authentication);
                         log.info("WebSocket connection authenticated for user: {}", userId);
@@ -0,0 +1,106 @@
+package com.bappy.application.notification.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics for the STOMP message channels and sessions.
+ * Each channel publishes its executor queue depth and active threads plus a handling latency timer,
+ * tagged {@code channel=inbound|outbound|broker}; slow consumers closed by the transport limits are counted.
+ */
+@Component
+@Slf4j
+public class WebSocketMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter evictedCounter;
+
+    public WebSocketMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.evictedCounter = Counter.builder("websocket.sessions.evicted")
+                .description("Sessions closed because sends exceeded the time or buffer limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publish queue depth and active threads of a channel executor
+     */
+    public void monitor(String channel, ThreadPoolTaskExecutor executor) {
+        Gauge.builder("websocket.channel.queued", executor, WebSocketMetrics::queued)
+                .tag("channel", channel)
+                .description("Messages waiting for a channel thread")
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .description("Channel threads handling a message")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Interceptor timing how long a channel takes to handle each message
+     */
+    public ExecutorChannelInterceptor latencyInterceptor(String channel) {
+        Timer timer = Timer.builder("websocket.channel.handle")
+                .tag("channel", channel)
+                .description("Time to handle a message on a channel thread")
+                .register(meterRegistry);
+        ThreadLocal<Long> startedAt = new ThreadLocal<>();
+
+        return new ExecutorChannelInterceptor() {
+            @Override
+            public Message<?> beforeHandle(Message<?> message, MessageChannel messageChannel, MessageHandler handler) {
+                startedAt.set(System.nanoTime());
+                return message;
+            }
+
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel messageChannel,
+                                            MessageHandler handler, Exception ex) {
+                Long start = startedAt.get();
+                if (start != null) {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    startedAt.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * Decorator counting sessions the transport closed as slow consumers
+     */
+    public WebSocketHandlerDecoratorFactory evictionCounter() {
+        return handler -> new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                if (CloseStatus.SESSION_NOT_RELIABLE.equals(closeStatus)) {
+                    evictedCounter.increment();
+                    log.warn("WebSocket session {} evicted as a slow consumer", session.getId());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private static double queued(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            return 0;
+        }
+    }
+}
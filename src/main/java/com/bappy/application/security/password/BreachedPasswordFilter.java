@@ -0,0 +1,157 @@
+package com.bappy.application.security.password;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Read-only Bloom filter over SHA-1 password hashes, memory-mapped from a file
+ * produced by {@link BreachedPasswordFilterBuilder}.
+ *
+ * File layout (big-endian): magic (int), hash count (int), bit count (long),
+ * entry count (long), reserved (long), followed by the bit array.
+ * The bit array is mapped in 1 GiB chunks so filters larger than 2 GiB are supported.
+ */
+public final class BreachedPasswordFilter implements Closeable {
+
+    static final int MAGIC = 0x42504631; // "BPF1"
+    static final int HEADER_BYTES = 32;
+    static final int CHUNK_SHIFT = 30;
+    static final long CHUNK_BYTES = 1L << CHUNK_SHIFT;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final int numHashes;
+    private final long numBits;
+    private final long entryCount;
+
+    private BreachedPasswordFilter(FileChannel channel, MappedByteBuffer[] chunks,
+                                   int numHashes, long numBits, long entryCount) {
+        this.channel = channel;
+        this.chunks = chunks;
+        this.numHashes = numHashes;
+        this.numBits = numBits;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Memory-map a filter file
+     */
+    public static BreachedPasswordFilter open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Truncated breached password filter header: " + path);
+                }
+            }
+            header.flip();
+
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a breached password filter file: " + path);
+            }
+            int numHashes = header.getInt();
+            long numBits = header.getLong();
+            long entryCount = header.getLong();
+
+            long dataBytes = bytesFor(numBits);
+            if (numHashes <= 0 || numBits <= 0 || channel.size() < HEADER_BYTES + dataBytes) {
+                throw new IOException("Corrupt breached password filter file: " + path);
+            }
+
+            int chunkCount = (int) ((dataBytes + CHUNK_BYTES - 1) >>> CHUNK_SHIFT);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long offset = (long) i << CHUNK_SHIFT;
+                long size = Math.min(CHUNK_BYTES, dataBytes - offset);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + offset, size);
+            }
+
+            return new BreachedPasswordFilter(channel, chunks, numHashes, numBits, entryCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Check if a plaintext password may be in the breached corpus
+     */
+    public boolean mightContain(String password) {
+        return mightContainDigest(sha1(password));
+    }
+
+    /**
+     * Check if a SHA-1 digest may be in the breached corpus
+     */
+    public boolean mightContainDigest(byte[] sha1) {
+        long h1 = readLong(sha1, 0);
+        long h2 = readLong(sha1, 8);
+
+        for (int i = 0; i < numHashes; i++) {
+            long bit = bitIndex(h1, h2, i, numBits);
+            long byteIndex = bit >>> 3;
+            MappedByteBuffer chunk = chunks[(int) (byteIndex >>> CHUNK_SHIFT)];
+            int value = chunk.get((int) (byteIndex & (CHUNK_BYTES - 1)));
+            if ((value & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ==================== Shared with the builder ====================
+
+    /**
+     * Kirsch-Mitzenmacher double hashing over the two halves of the digest
+     */
+    static long bitIndex(long h1, long h2, int i, long numBits) {
+        return Math.floorMod(h1 + i * h2, numBits);
+    }
+
+    static long bytesFor(long numBits) {
+        return (numBits + 7) >>> 3;
+    }
+
+    static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFFL);
+        }
+        return value;
+    }
+
+    static byte[] sha1(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.bappy.application.security.password;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Command line tool that compiles a breached-password hash list into a
+ * {@link BreachedPasswordFilter} file.
+ *
+ * The input is one entry per line, either a SHA-1 hex digest optionally followed by
+ * ":count" (the Have I Been Pwned download format), or a plaintext password with --plain.
+ *
+ * Usage:
+ * <pre>
+ * mvn compile exec:java@build-breach-filter -Dexec.args="pwned-passwords-sha1.txt breached-passwords.bpf --fpp=0.01"
+ * </pre>
+ */
+public final class BreachedPasswordFilterBuilder {
+
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    private BreachedPasswordFilterBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BreachedPasswordFilterBuilder <input> <output> "
+                    + "[--fpp=0.01] [--expected=<entries>] [--plain]");
+            System.exit(1);
+        }
+
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        double fpp = DEFAULT_FALSE_POSITIVE_RATE;
+        long expected = -1;
+        boolean plain = false;
+
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--fpp=")) {
+                fpp = Double.parseDouble(arg.substring("--fpp=".length()));
+            } else if (arg.startsWith("--expected=")) {
+                expected = Long.parseLong(arg.substring("--expected=".length()));
+            } else if (arg.equals("--plain")) {
+                plain = true;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        if (expected <= 0) {
+            expected = countLines(input);
+        }
+
+        long start = System.nanoTime();
+        long added = build(input, output, expected, fpp, plain);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("Wrote %s: %d entries, %d bytes, %d ms%n",
+                output, added, Files.size(output), elapsedMs);
+    }
+
+    /**
+     * Build a filter file sized for the expected entry count and false positive rate
+     *
+     * @return number of entries added
+     */
+    public static long build(Path input, Path output, long expectedEntries, double fpp, boolean plain)
+            throws IOException {
+        long numBits = optimalNumBits(expectedEntries, fpp);
+        int numHashes = optimalNumHashes(expectedEntries, numBits);
+        long dataBytes = BreachedPasswordFilter.bytesFor(numBits);
+        long added = 0;
+
+        Files.deleteIfExists(output);
+        try (FileChannel channel = FileChannel.open(output,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+
+            int chunkCount = (int) ((dataBytes + BreachedPasswordFilter.CHUNK_BYTES - 1)
+                    >>> BreachedPasswordFilter.CHUNK_SHIFT);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long offset = (long) i << BreachedPasswordFilter.CHUNK_SHIFT;
+                long size = Math.min(BreachedPasswordFilter.CHUNK_BYTES, dataBytes - offset);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        BreachedPasswordFilter.HEADER_BYTES + offset, size);
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                byte[] digest = plain ? BreachedPasswordFilter.sha1(line) : parseHexDigest(line);
+                if (digest == null) {
+                    continue;
+                }
+
+                long h1 = BreachedPasswordFilter.readLong(digest, 0);
+                long h2 = BreachedPasswordFilter.readLong(digest, 8);
+                for (int i = 0; i < numHashes; i++) {
+                    long bit = BreachedPasswordFilter.bitIndex(h1, h2, i, numBits);
+                    long byteIndex = bit >>> 3;
+                    MappedByteBuffer chunk = chunks[(int) (byteIndex >>> BreachedPasswordFilter.CHUNK_SHIFT)];
+                    int offset = (int) (byteIndex & (BreachedPasswordFilter.CHUNK_BYTES - 1));
+                    chunk.put(offset, (byte) (chunk.get(offset) | (1 << (bit & 7))));
+                }
+                added++;
+            }
+
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+
+            // Header is written last so a partially built file is never accepted
+            ByteBuffer header = ByteBuffer.allocate(BreachedPasswordFilter.HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+            header.putInt(BreachedPasswordFilter.MAGIC);
+            header.putInt(numHashes);
+            header.putLong(numBits);
+            header.putLong(added);
+            header.putLong(0L);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+
+        return added;
+    }
+
+    static long optimalNumBits(long entries, double fpp) {
+        long n = Math.max(1, entries);
+        double bits = -n * Math.log(fpp) / (Math.log(2) * Math.log(2));
+        return Math.max(64, (long) Math.ceil(bits));
+    }
+
+    static int optimalNumHashes(long entries, long numBits) {
+        long n = Math.max(1, entries);
+        return Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+    }
+
+    /**
+     * Parse the leading 40 hex characters of a line, ignoring any ":count" suffix
+     */
+    private static byte[] parseHexDigest(String line) {
+        if (line.length() < 40) {
+            return null;
+        }
+
+        byte[] digest = new byte[20];
+        for (int i = 0; i < 20; i++) {
+            int hi = Character.digit(line.charAt(2 * i), 16);
+            int lo = Character.digit(line.charAt(2 * i + 1), 16);
+            if (hi < 0 || lo < 0) {
+                return null;
+            }
+            digest[i] = (byte) ((hi << 4) | lo);
+        }
+        return digest;
+    }
+
+    private static long countLines(Path input) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            long count = 0;
+            while (reader.readLine() != null) {
+                count++;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.bappy.application.security.password;
+
+import com.bappy.application.config.AppConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Offline breached-password screening backed by a memory-mapped Bloom filter.
+ * No network calls are made; the filter file is built ahead of time with
+ * {@link BreachedPasswordFilterBuilder}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BreachedPasswordService {
+
+    private final AppConfig appConfig;
+
+    private volatile BreachedPasswordFilter filter;
+
+    /**
+     * Map the filter file at startup
+     */
+    @PostConstruct
+    public void init() {
+        AppConfig.Security.BreachedPasswords config = appConfig.getSecurity().getBreachedPasswords();
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            log.info("Breached password screening is disabled");
+            return;
+        }
+
+        if (!StringUtils.hasText(config.getFilterPath())) {
+            throw new IllegalStateException("Breached password screening is enabled but no filter path is configured");
+        }
+
+        try {
+            filter = BreachedPasswordFilter.open(Path.of(config.getFilterPath()));
+            log.info("Breached password filter loaded: {} entries, {} bits, {} hashes",
+                    filter.getEntryCount(), filter.getNumBits(), filter.getNumHashes());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load breached password filter: " + config.getFilterPath(), e);
+        }
+    }
+
+    /**
+     * Check if password appears in the breached corpus (false positives possible, no false negatives)
+     */
+    public boolean isBreached(String password) {
+        BreachedPasswordFilter current = filter;
+        return current != null && password != null && current.mightContain(password);
+    }
+
+    @PreDestroy
+    public void close() {
+        BreachedPasswordFilter current = filter;
+        filter = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.warn("Failed to close breached password filter", e);
+            }
+        }
+    }
+}
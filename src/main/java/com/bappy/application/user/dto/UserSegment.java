@@ -0,0 +1,42 @@
+package com.bappy.application.user.dto;
+
+import com.bappy.application.user.entity.AuthProvider;
+import com.bappy.application.user.entity.UserStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * User segment definition.
+ * Values within a dimension are OR-ed, dimensions are AND-ed, and an empty dimension matches everyone.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSegment {
+
+    @Builder.Default
+    private Set<String> roles = new HashSet<>();  // e.g. ROLE_MODERATOR
+
+    @Builder.Default
+    private Set<UserStatus> statuses = new HashSet<>();
+
+    @Builder.Default
+    private Set<AuthProvider> providers = new HashSet<>();
+
+    /**
+     * Check if segment has no constraints (matches all users)
+     */
+    public boolean isUnrestricted() {
+        return isEmpty(roles) && isEmpty(statuses) && isEmpty(providers);
+    }
+
+    private static boolean isEmpty(Set<?> values) {
+        return values == null || values.isEmpty();
+    }
+}
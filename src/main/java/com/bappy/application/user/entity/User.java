@@ -1,6 +1,7 @@
 package com.bappy.application.user.entity;
 
 import com.bappy.application.common.entity.BaseEntity;
+import com.bappy.application.user.segment.UserSegmentListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -12,6 +13,7 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "users")
+@EntityListeners(UserSegmentListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,7 +22,8 @@ import java.util.Set;
 public class User extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 255)
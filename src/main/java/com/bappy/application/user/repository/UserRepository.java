@@ -10,7 +10,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for User entity.
@@ -62,4 +65,58 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u FROM User u WHERE u.status = 'ACTIVE'")
     Page<User> findAllActiveUsers(Pageable pageable);
+
+    /**
+     * Ids among the given ones that belong to existing users (bulk recipient check)
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Name of a user, without loading the entity or its roles (notification DTOs)
+     */
+    @Query("SELECT u.id AS id, u.firstName AS firstName, u.lastName AS lastName FROM User u WHERE u.id = :id")
+    Optional<NameView> findNameById(@Param("id") Long id);
+
+    /**
+     * Stream id, status and provider of every user (segment index warm-up)
+     */
+    @Query("SELECT u.id AS id, u.status AS status, u.provider AS provider FROM User u")
+    Stream<SegmentView> streamSegmentViews();
+
+    /**
+     * Stream user id and role name pairs (segment index warm-up)
+     */
+    @Query("SELECT u.id AS userId, r.name AS roleName FROM User u JOIN u.roles r")
+    Stream<RoleView> streamRoleViews();
+
+    /**
+     * Name of a user
+     */
+    interface NameView {
+        Long getId();
+        String getFirstName();
+        String getLastName();
+
+        default String getFullName() {
+            return getFirstName() + " " + getLastName();
+        }
+    }
+
+    /**
+     * Segment attributes of a user
+     */
+    interface SegmentView {
+        Long getId();
+        UserStatus getStatus();
+        AuthProvider getProvider();
+    }
+
+    /**
+     * Role membership of a user
+     */
+    interface RoleView {
+        Long getUserId();
+        String getRoleName();
+    }
 }
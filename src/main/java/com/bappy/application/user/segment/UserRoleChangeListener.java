@@ -0,0 +1,55 @@
+package com.bappy.application.user.segment;
+
+import com.bappy.application.user.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate listener for changes to a user's roles collection.
+ * JPA {@code @PostUpdate} does not fire when only a collection changes, so role changes are
+ * passed to {@link UserSegmentListener} from the collection events instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserRoleChangeListener implements PostCollectionUpdateEventListener, PostCollectionRecreateEventListener {
+
+    private static final String ROLES = User.class.getName() + ".roles";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserSegmentListener segmentListener;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        onRolesChanged(event);
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        onRolesChanged(event);
+    }
+
+    private void onRolesChanged(AbstractCollectionEvent event) {
+        if (event.getAffectedOwnerOrNull() instanceof User user && ROLES.equals(event.getCollection().getRole())) {
+            segmentListener.onSave(user);
+        }
+    }
+}
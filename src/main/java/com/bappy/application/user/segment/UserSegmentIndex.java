@@ -0,0 +1,230 @@
+package com.bappy.application.user.segment;
+
+import com.bappy.application.user.dto.UserSegment;
+import com.bappy.application.user.entity.AuthProvider;
+import com.bappy.application.user.entity.UserStatus;
+import com.bappy.application.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory segment indexes: one compressed bitmap of user ids per role, status and provider.
+ * Loaded once at startup, kept current by {@link UserSegmentListener} and {@link UserRoleChangeListener},
+ * and rebuilt periodically as a safety net for changes that bypass entity callbacks.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserSegmentIndex {
+
+    private final UserRepository userRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * Pending changes recorded while a rebuild is in progress, replayed onto the new snapshot
+     */
+    private List<Change> journal;
+
+    /**
+     * Build the indexes at startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * Periodically rebuild the indexes from the database
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.segment-index-rebuild-ms:3600000}",
+               initialDelayString = "${app.notifications.segment-index-rebuild-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        Snapshot fresh = new Snapshot();
+
+        try (Stream<UserRepository.SegmentView> users = userRepository.streamSegmentViews()) {
+            users.forEach(user -> new Change(user.getId(), false, Set.of(),
+                    user.getStatus(), user.getProvider()).addTo(fresh));
+        }
+
+        try (Stream<UserRepository.RoleView> roles = userRepository.streamRoleViews()) {
+            roles.forEach(role -> fresh.byRole(role.getRoleName()).addLong(role.getUserId()));
+        }
+
+        fresh.optimize();
+
+        lock.writeLock().lock();
+        try {
+            journal.forEach(change -> change.applyTo(fresh));
+            journal = null;
+            snapshot = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("User segment index built: {} users in {} ms",
+                fresh.all.getLongCardinality(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Record a user's current roles, status and provider
+     */
+    public void update(long userId, Set<String> roles, UserStatus status, AuthProvider provider) {
+        apply(new Change(userId, false, Set.copyOf(roles), status, provider));
+    }
+
+    /**
+     * Remove a user from every segment
+     */
+    public void remove(long userId) {
+        apply(new Change(userId, true, Set.of(), null, null));
+    }
+
+    /**
+     * Resolve a segment to the set of matching user ids
+     */
+    public Roaring64Bitmap resolve(UserSegment segment) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = copyOf(snapshot.all);
+            intersect(result, segment.getRoles(), snapshot.roles);
+            intersect(result, segment.getStatuses(), snapshot.statuses);
+            intersect(result, segment.getProviders(), snapshot.providers);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Iterate the user ids of a segment
+     */
+    public long forEach(UserSegment segment, LongConsumer consumer) {
+        Roaring64Bitmap ids = resolve(segment);
+        LongIterator iterator = ids.getLongIterator();
+        while (iterator.hasNext()) {
+            consumer.accept(iterator.next());
+        }
+        return ids.getLongCardinality();
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            change.applyTo(snapshot);
+            if (journal != null) {
+                journal.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static <K> void intersect(Roaring64Bitmap result, Set<K> keys, Map<K, Roaring64Bitmap> index) {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        Roaring64Bitmap union = new Roaring64Bitmap();
+        for (K key : keys) {
+            Roaring64Bitmap members = index.get(key);
+            if (members != null) {
+                union.or(members);
+            }
+        }
+        result.and(union);
+    }
+
+    private static Roaring64Bitmap copyOf(Roaring64Bitmap source) {
+        Roaring64Bitmap copy = new Roaring64Bitmap();
+        copy.or(source);
+        return copy;
+    }
+
+    /**
+     * Bitmaps of one index generation
+     */
+    private static class Snapshot {
+        private final Roaring64Bitmap all = new Roaring64Bitmap();
+        private final Map<String, Roaring64Bitmap> roles = new HashMap<>();
+        private final Map<UserStatus, Roaring64Bitmap> statuses = new EnumMap<>(UserStatus.class);
+        private final Map<AuthProvider, Roaring64Bitmap> providers = new EnumMap<>(AuthProvider.class);
+
+        Roaring64Bitmap byRole(String role) {
+            return roles.computeIfAbsent(role, key -> new Roaring64Bitmap());
+        }
+
+        Roaring64Bitmap byStatus(UserStatus status) {
+            return statuses.computeIfAbsent(status, key -> new Roaring64Bitmap());
+        }
+
+        Roaring64Bitmap byProvider(AuthProvider provider) {
+            return providers.computeIfAbsent(provider, key -> new Roaring64Bitmap());
+        }
+
+        void removeEverywhere(long userId) {
+            all.removeLong(userId);
+            roles.values().forEach(bitmap -> bitmap.removeLong(userId));
+            statuses.values().forEach(bitmap -> bitmap.removeLong(userId));
+            providers.values().forEach(bitmap -> bitmap.removeLong(userId));
+        }
+
+        void optimize() {
+            all.runOptimize();
+            roles.values().forEach(Roaring64Bitmap::runOptimize);
+            statuses.values().forEach(Roaring64Bitmap::runOptimize);
+            providers.values().forEach(Roaring64Bitmap::runOptimize);
+        }
+    }
+
+    /**
+     * A single user membership change
+     */
+    private record Change(long userId, boolean removed, Set<String> roles,
+                          UserStatus status, AuthProvider provider) {
+
+        void applyTo(Snapshot target) {
+            target.removeEverywhere(userId);
+            if (!removed) {
+                addTo(target);
+            }
+        }
+
+        void addTo(Snapshot target) {
+            target.all.addLong(userId);
+            roles.forEach(role -> target.byRole(role).addLong(userId));
+            if (status != null) {
+                target.byStatus(status).addLong(userId);
+            }
+            if (provider != null) {
+                target.byProvider(provider).addLong(userId);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.bappy.application.user.segment;
+
+import com.bappy.application.user.entity.AuthProvider;
+import com.bappy.application.user.entity.Role;
+import com.bappy.application.user.entity.User;
+import com.bappy.application.user.entity.UserStatus;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * JPA entity listener that keeps {@link UserSegmentIndex} in sync with user writes.
+ * Changes are applied after commit so rolled-back writes never reach the index.
+ * Changes to the roles collection alone arrive through {@link UserRoleChangeListener}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSegmentListener {
+
+    private final ObjectProvider<UserSegmentIndex> segmentIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(User user) {
+        long userId = user.getId();
+        Set<String> roles = user.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toSet());
+        UserStatus status = user.getStatus();
+        AuthProvider provider = user.getProvider();
+
+        afterCommit(() -> segmentIndex.getObject().update(userId, roles, status, provider));
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        long userId = user.getId();
+        afterCommit(() -> segmentIndex.getObject().remove(userId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
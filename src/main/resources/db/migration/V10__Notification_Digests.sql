@@ -0,0 +1,11 @@
+-- Digest emails for offline users: one row per user recording the newest notification already
+-- digested, so pending items come straight from notifications with no per-notification writes
+CREATE TABLE notification_digests (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    last_notification_id BIGINT NOT NULL,
+    sent_at TIMESTAMP NOT NULL
+);
+
+-- Unread personal notifications by age (digest candidate scans)
+CREATE INDEX idx_notifications_unread_personal_created ON notifications(created_at)
+    WHERE recipient_id IS NOT NULL AND is_read = FALSE;
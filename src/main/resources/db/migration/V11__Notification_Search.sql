@@ -0,0 +1,9 @@
+-- Full-text search over a user's notifications: titles weigh more than messages.
+-- The vector is generated by PostgreSQL on write, so the application never maintains it.
+ALTER TABLE notifications ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', COALESCE(title, '')), 'A') ||
+    setweight(to_tsvector('english', COALESCE(message, '')), 'B')
+) STORED;
+
+-- Matches are intersected with idx_notifications_recipient_id for the per-user scope
+CREATE INDEX idx_notifications_search ON notifications USING GIN (search_vector);
@@ -0,0 +1,13 @@
+-- Completed responses of requests sent with an Idempotency-Key, kept so retries can be replayed
+-- after a restart or on another node (only written with app.idempotency.persistent=true)
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(320) PRIMARY KEY,
+    fingerprint BYTEA NOT NULL,
+    status INT NOT NULL,
+    content_type VARCHAR(255),
+    body BYTEA NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Expired keys (cleanup)
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
@@ -0,0 +1,12 @@
+-- Entity ids come from sequences with the pooled-lo optimizer: one nextval reserves a block of 50 ids,
+-- so Hibernate knows ids before inserting and can batch inserts (IDENTITY forces one round trip per row).
+-- The increment must match allocationSize in the entity mappings. Plain SQL inserts keep using the column
+-- default and take one value per row, which stays clear of the blocks reserved by Hibernate.
+-- Notifications and notification changes stay on per-row ids: their ids order feeds, sync and read
+-- watermarks, which blocks reserved ahead of time would break; they are batch-inserted over JDBC instead.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE roles_id_seq INCREMENT BY 50;
+ALTER SEQUENCE refresh_tokens_id_seq INCREMENT BY 50;
+ALTER SEQUENCE email_verification_tokens_id_seq INCREMENT BY 50;
+ALTER SEQUENCE password_reset_tokens_id_seq INCREMENT BY 50;
+ALTER SEQUENCE scheduled_notifications_id_seq INCREMENT BY 50;
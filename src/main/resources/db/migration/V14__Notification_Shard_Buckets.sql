@@ -0,0 +1,8 @@
+-- Placement of notification shards: a user's notifications, receipts, watermark and change log live on
+-- the shard of their bucket (user_id mod bucket count). Rows are created when sharding is first enabled,
+-- all on shard 0 (this schema); rebalancing moves buckets to the other shards online.
+CREATE TABLE notification_shard_buckets (
+    bucket INTEGER PRIMARY KEY,
+    shard INTEGER NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,5 @@
+-- A row without a status is a claim: a request with the key is running on some node until expires_at.
+-- Other nodes wait for the stored response instead of running the request again.
+ALTER TABLE idempotency_keys ALTER COLUMN fingerprint DROP NOT NULL;
+ALTER TABLE idempotency_keys ALTER COLUMN status DROP NOT NULL;
+ALTER TABLE idempotency_keys ALTER COLUMN body DROP NOT NULL;
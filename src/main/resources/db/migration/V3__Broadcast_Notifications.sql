@@ -0,0 +1,15 @@
+-- Broadcasts are stored once with a NULL recipient and merged into feeds at read time
+ALTER TABLE notifications ALTER COLUMN recipient_id DROP NOT NULL;
+
+-- Per-user read/dismiss state, written only when a user interacts with a broadcast
+CREATE TABLE notification_receipts (
+    notification_id BIGINT NOT NULL REFERENCES notifications(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    read_at TIMESTAMP,
+    dismissed_at TIMESTAMP,
+    PRIMARY KEY (notification_id, user_id)
+);
+
+-- Create indexes for performance
+CREATE INDEX idx_notification_receipts_user ON notification_receipts(user_id);
+CREATE INDEX idx_notifications_broadcast ON notifications(created_at) WHERE recipient_id IS NULL;
@@ -0,0 +1,12 @@
+-- Composite indexes matching the (created_at DESC, id DESC) keyset order of feeds and user listings
+CREATE INDEX idx_notifications_recipient_created ON notifications(recipient_id, created_at DESC, id DESC);
+CREATE INDEX idx_notifications_recipient_unread_created ON notifications(recipient_id, created_at DESC, id DESC) WHERE is_read = FALSE;
+
+DROP INDEX idx_notifications_broadcast;
+CREATE INDEX idx_notifications_broadcast ON notifications(created_at DESC, id DESC) WHERE recipient_id IS NULL;
+
+CREATE INDEX idx_users_created ON users(created_at DESC, id DESC);
+CREATE INDEX idx_users_status_created ON users(status, created_at DESC, id DESC);
+
+-- Superseded by the composite indexes above
+DROP INDEX idx_notifications_recipient;
@@ -0,0 +1,12 @@
+-- "Mark all as read" advances a per-user watermark instead of rewriting every unread row:
+-- notifications with id <= last_read_id count as read for the user.
+-- Row-level is_read flags are compacted up to the watermark in the background.
+CREATE TABLE notification_read_watermarks (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    last_read_id BIGINT NOT NULL,
+    compacted_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_notification_read_watermarks_pending ON notification_read_watermarks(user_id)
+    WHERE compacted_id < last_read_id;
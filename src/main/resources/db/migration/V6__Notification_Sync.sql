@@ -0,0 +1,15 @@
+-- Delta sync: new notifications are found by id, read-state changes and deletions by change log position
+CREATE INDEX idx_notifications_recipient_id ON notifications(recipient_id, id);
+CREATE INDEX idx_notifications_broadcast_id ON notifications(id) WHERE recipient_id IS NULL;
+
+-- Short-lived per-user log of read and delete events, pruned after the sync retention window
+CREATE TABLE notification_changes (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    notification_id BIGINT NOT NULL,
+    change_type VARCHAR(20) NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_notification_changes_user ON notification_changes(user_id, id);
+CREATE INDEX idx_notification_changes_changed_at ON notification_changes(changed_at);
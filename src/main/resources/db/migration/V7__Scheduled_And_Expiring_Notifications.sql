@@ -0,0 +1,25 @@
+-- Expiring notifications drop out of feeds at expires_at and are swept in batches
+ALTER TABLE notifications ADD COLUMN expires_at TIMESTAMP;
+CREATE INDEX idx_notifications_expires ON notifications(expires_at) WHERE expires_at IS NOT NULL;
+
+-- Notifications waiting for their send time; the row is claimed (deleted) when the notification is created
+CREATE TABLE scheduled_notifications (
+    id BIGSERIAL PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    message VARCHAR(1000) NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    recipient_id BIGINT REFERENCES users(id) ON DELETE CASCADE,
+    sender_id BIGINT REFERENCES users(id) ON DELETE SET NULL,
+    is_broadcast BOOLEAN NOT NULL DEFAULT FALSE,
+    action_url VARCHAR(500),
+    action_label VARCHAR(100),
+    send_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT,
+    updated_by BIGINT
+);
+
+-- "Due soon" window scans
+CREATE INDEX idx_scheduled_notifications_send_at ON scheduled_notifications(send_at, id);
@@ -0,0 +1,11 @@
+-- Repeated events with the same group key collapse into one unread row per recipient:
+-- a new event bumps the counter and actor list with a single upsert instead of inserting a row
+ALTER TABLE notifications ADD COLUMN group_key VARCHAR(255);
+ALTER TABLE notifications ADD COLUMN group_count INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE notifications ADD COLUMN group_actor_ids BIGINT[];
+
+-- At most one open (unread) row per group; also the upsert conflict target
+CREATE UNIQUE INDEX uq_notifications_open_group ON notifications(recipient_id, group_key)
+    WHERE group_key IS NOT NULL AND is_read = FALSE;
+
+ALTER TABLE scheduled_notifications ADD COLUMN group_key VARCHAR(255);
@@ -0,0 +1,13 @@
+-- Per-user notification preferences; only users who changed something have a row.
+-- Nodes keep them in memory and reload rows changed since their last refresh.
+CREATE TABLE notification_preferences (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    muted_types VARCHAR(50)[] NOT NULL DEFAULT '{}',
+    disabled_channels VARCHAR(50)[] NOT NULL DEFAULT '{}',
+    quiet_hours_start TIME,
+    quiet_hours_end TIME,
+    time_zone VARCHAR(64),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_notification_preferences_updated ON notification_preferences(updated_at);
@@ -0,0 +1,74 @@
+-- Notification tables of one shard schema, matching the public tables as of V13.
+-- Ids are drawn from the public sequences, so they stay unique and increasing across shards
+-- (read watermarks and sync cursors compare them); users and the other shared tables stay in public.
+CREATE TABLE notifications (
+    id BIGINT PRIMARY KEY DEFAULT nextval('public.notifications_id_seq'),
+    title VARCHAR(255) NOT NULL,
+    message VARCHAR(1000) NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    recipient_id BIGINT REFERENCES public.users(id) ON DELETE CASCADE,
+    sender_id BIGINT REFERENCES public.users(id) ON DELETE SET NULL,
+    is_read BOOLEAN DEFAULT FALSE,
+    is_broadcast BOOLEAN DEFAULT FALSE,
+    action_url VARCHAR(500),
+    action_label VARCHAR(100),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT,
+    updated_by BIGINT,
+    expires_at TIMESTAMP,
+    group_key VARCHAR(255),
+    group_count INTEGER NOT NULL DEFAULT 1,
+    group_actor_ids BIGINT[],
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', COALESCE(title, '')), 'A') ||
+        setweight(to_tsvector('english', COALESCE(message, '')), 'B')
+    ) STORED
+);
+
+CREATE INDEX idx_notifications_sender ON notifications(sender_id);
+CREATE INDEX idx_notifications_is_read ON notifications(is_read);
+CREATE INDEX idx_notifications_created_at ON notifications(created_at);
+CREATE INDEX idx_notifications_recipient_unread ON notifications(recipient_id, is_read) WHERE is_read = FALSE;
+CREATE INDEX idx_notifications_recipient_created ON notifications(recipient_id, created_at DESC, id DESC);
+CREATE INDEX idx_notifications_recipient_unread_created ON notifications(recipient_id, created_at DESC, id DESC) WHERE is_read = FALSE;
+CREATE INDEX idx_notifications_broadcast ON notifications(created_at DESC, id DESC) WHERE recipient_id IS NULL;
+CREATE INDEX idx_notifications_recipient_id ON notifications(recipient_id, id);
+CREATE INDEX idx_notifications_broadcast_id ON notifications(id) WHERE recipient_id IS NULL;
+CREATE INDEX idx_notifications_expires ON notifications(expires_at) WHERE expires_at IS NOT NULL;
+CREATE UNIQUE INDEX uq_notifications_open_group ON notifications(recipient_id, group_key)
+    WHERE group_key IS NOT NULL AND is_read = FALSE;
+CREATE INDEX idx_notifications_unread_personal_created ON notifications(created_at)
+    WHERE recipient_id IS NOT NULL AND is_read = FALSE;
+CREATE INDEX idx_notifications_search ON notifications USING GIN (search_vector);
+
+CREATE TABLE notification_receipts (
+    notification_id BIGINT NOT NULL REFERENCES notifications(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES public.users(id) ON DELETE CASCADE,
+    read_at TIMESTAMP,
+    dismissed_at TIMESTAMP,
+    PRIMARY KEY (notification_id, user_id)
+);
+
+CREATE INDEX idx_notification_receipts_user ON notification_receipts(user_id);
+
+CREATE TABLE notification_read_watermarks (
+    user_id BIGINT PRIMARY KEY REFERENCES public.users(id) ON DELETE CASCADE,
+    last_read_id BIGINT NOT NULL,
+    compacted_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_notification_read_watermarks_pending ON notification_read_watermarks(user_id)
+    WHERE compacted_id < last_read_id;
+
+CREATE TABLE notification_changes (
+    id BIGINT PRIMARY KEY DEFAULT nextval('public.notification_changes_id_seq'),
+    user_id BIGINT NOT NULL REFERENCES public.users(id) ON DELETE CASCADE,
+    notification_id BIGINT NOT NULL,
+    change_type VARCHAR(20) NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_notification_changes_user ON notification_changes(user_id, id);
+CREATE INDEX idx_notification_changes_changed_at ON notification_changes(changed_at);
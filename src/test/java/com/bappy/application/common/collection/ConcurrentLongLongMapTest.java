@@ -0,0 +1,210 @@
+package com.bappy.application.common.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies the primitive map against {@link HashMap} and under concurrent writers.
+ */
+class ConcurrentLongLongMapTest {
+
+    private static final long ABSENT = -1;
+
+    @Test
+    void putGetAndOverwrite() {
+        ConcurrentLongLongMap map = new ConcurrentLongLongMap();
+
+        assertThat(map.put(7, 70, ABSENT)).isEqualTo(ABSENT);
+        assertThat(map.put(7, 71, ABSENT)).isEqualTo(70);
+        assertThat(map.get(7, ABSENT)).isEqualTo(71);
+        assertThat(map.get(8, ABSENT)).isEqualTo(ABSENT);
+        assertThat(map.containsKey(7)).isTrue();
+        assertThat(map.containsKey(8)).isFalse();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void putIfAbsentKeepsExistingValue() {
+        ConcurrentLongLongMap map = new ConcurrentLongLongMap();
+
+        assertThat(map.putIfAbsent(3, 30, ABSENT)).isEqualTo(ABSENT);
+        assertThat(map.putIfAbsent(3, 31, ABSENT)).isEqualTo(30);
+        assertThat(map.get(3, ABSENT)).isEqualTo(30);
+    }
+
+    @Test
+    void addAndGetStartsFromZero() {
+        ConcurrentLongLongMap map = new ConcurrentLongLongMap();
+
+        assertThat(map.addAndGet(5, 2)).isEqualTo(2);
+        assertThat(map.addAndGet(5, -3)).isEqualTo(-1);
+        assertThat(map.get(5, ABSENT)).isEqualTo(-1);
+    }
+
+    @Test
+    void keyZeroIsRejected() {
+        ConcurrentLongLongMap map = new ConcurrentLongLongMap();
+
+        assertThatThrownBy(() -> map.put(0, 1, ABSENT)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.get(0, ABSENT)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void growsFromTinySegmentsAndKeepsEveryEntry() {
+        ConcurrentLongLongMap map = new ConcurrentLongLongMap(1, 2);
+
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, key * 10, ABSENT);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key, ABSENT)).isEqualTo(key * 10);
+        }
+    }
+
+    @Test
+    void removeKeepsProbeChainsIntact() {
+        // One small segment forces collisions, so removals must not cut off keys probed past them
+        ConcurrentLongLongMap map = new ConcurrentLongLongMap(1, 2);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = 1 + random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                assertThat(map.put(key, i, ABSENT)).isEqualTo(expected.getOrDefault(key, ABSENT));
+                expected.put(key, (long) i);
+            } else {
+                assertThat(map.remove(key, ABSENT)).isEqualTo(expected.getOrDefault(key, ABSENT));
+                expected.remove(key);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 1; key <= 2_000; key++) {
+            assertThat(map.get(key, ABSENT)).as("key %d", key).isEqualTo(expected.getOrDefault(key, ABSENT));
+        }
+    }
+
+    @Test
+    void forEachKeyVisitsEveryKeyAndAllowsRemoval() {
+        ConcurrentLongLongMap map = new ConcurrentLongLongMap();
+        for (long key = 1; key <= 100; key++) {
+            map.put(key, key, ABSENT);
+        }
+
+        Set<Long> visited = new HashSet<>();
+        map.forEachKey(key -> {
+            visited.add(key);
+            map.remove(key, ABSENT);
+        });
+
+        assertThat(visited).hasSize(100);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        ConcurrentLongLongMap map = new ConcurrentLongLongMap();
+        for (long key = 1; key <= 100; key++) {
+            map.put(key, key, ABSENT);
+        }
+
+        map.clear();
+
+        assertThat(map.size()).isZero();
+        assertThat(map.get(50, ABSENT)).isEqualTo(ABSENT);
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        ConcurrentLongLongMap map = new ConcurrentLongLongMap(4, 2);
+        int threads = 8;
+        int rounds = 20_000;
+
+        runConcurrently(threads, thread -> {
+            for (int i = 0; i < rounds; i++) {
+                map.addAndGet(1 + i % 64, 1);
+            }
+        });
+
+        long total = 0;
+        for (long key = 1; key <= 64; key++) {
+            total += map.get(key, 0);
+        }
+        assertThat(total).isEqualTo((long) threads * rounds);
+    }
+
+    @Test
+    void concurrentWritersAndReadersSeeConsistentValues() throws Exception {
+        ConcurrentLongLongMap map = new ConcurrentLongLongMap(2, 2);
+        int threads = 8;
+        int keysPerThread = 5_000;
+
+        // Each writer owns a key range and only ever stores key * 3 there, so any value read must match
+        runConcurrently(threads, thread -> {
+            long first = 1 + (long) thread * keysPerThread;
+            for (long key = first; key < first + keysPerThread; key++) {
+                map.put(key, key * 3, ABSENT);
+                long other = 1 + (key * 7919) % ((long) threads * keysPerThread);
+                long value = map.get(other, ABSENT);
+                if (value != ABSENT && value != other * 3) {
+                    throw new AssertionError("Torn value " + value + " for key " + other);
+                }
+            }
+            for (long key = first; key < first + keysPerThread; key += 2) {
+                map.remove(key, ABSENT);
+            }
+        });
+
+        assertThat(map.size()).isEqualTo((long) threads * keysPerThread / 2);
+        for (long key = 1; key <= (long) threads * keysPerThread; key++) {
+            long offset = (key - 1) % keysPerThread;
+            assertThat(map.get(key, ABSENT)).isEqualTo(offset % 2 == 0 ? ABSENT : key * 3);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private interface Worker {
+        void run(int thread);
+    }
+
+    private static void runConcurrently(int threads, Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
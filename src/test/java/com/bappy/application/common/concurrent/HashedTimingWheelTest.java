@@ -0,0 +1,112 @@
+package com.bappy.application.common.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies that the hashed wheel never fires early, waits out extra rounds and honours cancellation.
+ */
+class HashedTimingWheelTest {
+
+    private HashedTimingWheel wheel;
+
+    @AfterEach
+    void tearDown() {
+        if (wheel != null) {
+            wheel.close();
+        }
+    }
+
+    @Test
+    void neverFiresEarly() throws InterruptedException {
+        // 8 buckets of 1ms: most delays are several revolutions long
+        wheel = new HashedTimingWheel("test-wheel", 1, 8);
+        Random random = new Random(7);
+        int tasks = 200;
+        CountDownLatch done = new CountDownLatch(tasks);
+        List<String> early = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < tasks; i++) {
+            long delayMs = random.nextInt(60);
+            long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+            wheel.schedule(delayMs, TimeUnit.MILLISECONDS, () -> {
+                long now = System.nanoTime();
+                if (now < due) {
+                    early.add(delayMs + "ms task ran " + (due - now) + "ns early");
+                }
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(early).isEmpty();
+    }
+
+    @Test
+    void taskBeyondOneRevolutionWaitsOutItsRounds() throws InterruptedException {
+        wheel = new HashedTimingWheel("test-wheel", 5, 4);
+        CountDownLatch done = new CountDownLatch(1);
+        long start = System.nanoTime();
+        long[] ranAfter = new long[1];
+
+        wheel.schedule(100, TimeUnit.MILLISECONDS, () -> {
+            ranAfter[0] = System.nanoTime() - start;
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ranAfter[0]).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void cancelledTasksDoNotRun() throws InterruptedException {
+        wheel = new HashedTimingWheel("test-wheel", 1, 16);
+        AtomicBoolean cancelledRan = new AtomicBoolean();
+        CountDownLatch control = new CountDownLatch(1);
+
+        // One cancelled before the wheel picks it up, one after it sits in a bucket
+        HashedTimingWheel.Timeout immediate = wheel.schedule(20, TimeUnit.MILLISECONDS, () -> cancelledRan.set(true));
+        immediate.cancel();
+        HashedTimingWheel.Timeout bucketed = wheel.schedule(40, TimeUnit.MILLISECONDS, () -> cancelledRan.set(true));
+        Thread.sleep(10);
+        bucketed.cancel();
+        wheel.schedule(80, TimeUnit.MILLISECONDS, control::countDown);
+
+        assertThat(control.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(cancelledRan).isFalse();
+        assertThat(bucketed.isCancelled()).isTrue();
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheWheel() throws InterruptedException {
+        wheel = new HashedTimingWheel("test-wheel", 1, 8);
+        CountDownLatch done = new CountDownLatch(1);
+
+        wheel.schedule(1, TimeUnit.MILLISECONDS, () -> {
+            throw new IllegalStateException("boom");
+        });
+        wheel.schedule(5, TimeUnit.MILLISECONDS, done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void closedWheelRejectsNewTasks() {
+        wheel = new HashedTimingWheel("test-wheel", 1, 8);
+        wheel.close();
+
+        assertThatThrownBy(() -> wheel.schedule(1, TimeUnit.MILLISECONDS, () -> { }))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,129 @@
+package com.bappy.application.common.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies that the hierarchical wheel never fires early, cascades tasks down its levels in deadline
+ * order, re-cascades delays beyond its top level and honours cancellation.
+ */
+class HierarchicalTimingWheelTest {
+
+    private HierarchicalTimingWheel wheel;
+
+    @AfterEach
+    void tearDown() {
+        if (wheel != null) {
+            wheel.close();
+        }
+    }
+
+    @Test
+    void neverFiresEarlyOnAnyLevel() throws InterruptedException {
+        // 1ms ticks, 4 buckets per level, 3 levels: spans of 4, 16 and 64 ticks, so delays land on every level
+        wheel = new HierarchicalTimingWheel("test-wheel", 1, 2, 3);
+        Random random = new Random(11);
+        int tasks = 300;
+        CountDownLatch done = new CountDownLatch(tasks);
+        List<String> early = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < tasks; i++) {
+            long delayMs = random.nextInt(120);
+            long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+            wheel.schedule(delayMs, TimeUnit.MILLISECONDS, () -> {
+                long now = System.nanoTime();
+                if (now < due) {
+                    early.add(delayMs + "ms task ran " + (due - now) + "ns early");
+                }
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(early).isEmpty();
+    }
+
+    @Test
+    void cascadesTasksInDeadlineOrder() throws InterruptedException {
+        wheel = new HierarchicalTimingWheel("test-wheel", 1, 2, 3);
+        long[] delays = {150, 3, 70, 12, 40};
+        CountDownLatch done = new CountDownLatch(delays.length);
+        List<Long> fired = Collections.synchronizedList(new ArrayList<>());
+
+        for (long delay : delays) {
+            wheel.schedule(delay, TimeUnit.MILLISECONDS, () -> {
+                fired.add(delay);
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fired).containsExactly(3L, 12L, 40L, 70L, 150L);
+    }
+
+    @Test
+    void delayBeyondTopLevelIsReCascaded() throws InterruptedException {
+        // Top level spans 16 ticks of 2ms; the task goes round several times before it is due
+        wheel = new HierarchicalTimingWheel("test-wheel", 2, 2, 2);
+        CountDownLatch done = new CountDownLatch(1);
+        long start = System.nanoTime();
+        long[] ranAfter = new long[1];
+
+        wheel.schedule(150, TimeUnit.MILLISECONDS, () -> {
+            ranAfter[0] = System.nanoTime() - start;
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ranAfter[0]).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(150));
+    }
+
+    @Test
+    void cancelledTasksDoNotRun() throws InterruptedException {
+        wheel = new HierarchicalTimingWheel("test-wheel", 1, 2, 3);
+        AtomicBoolean cancelledRan = new AtomicBoolean();
+        CountDownLatch control = new CountDownLatch(1);
+
+        // One cancelled before the wheel picks it up, one after it was placed on a higher level
+        HierarchicalTimingWheel.Timeout immediate = wheel.schedule(20, TimeUnit.MILLISECONDS,
+                () -> cancelledRan.set(true));
+        immediate.cancel();
+        HierarchicalTimingWheel.Timeout placed = wheel.schedule(50, TimeUnit.MILLISECONDS,
+                () -> cancelledRan.set(true));
+        Thread.sleep(10);
+        placed.cancel();
+        wheel.schedule(100, TimeUnit.MILLISECONDS, control::countDown);
+
+        assertThat(control.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(cancelledRan).isFalse();
+        assertThat(placed.isCancelled()).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidGeometry() {
+        assertThatThrownBy(() -> new HierarchicalTimingWheel("test-wheel", 1, 32, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HierarchicalTimingWheel("test-wheel", 0, 2, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void closedWheelRejectsNewTasks() {
+        wheel = new HierarchicalTimingWheel("test-wheel", 1, 2, 3);
+        wheel.close();
+
+        assertThatThrownBy(() -> wheel.schedule(1, TimeUnit.MILLISECONDS, () -> { }))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
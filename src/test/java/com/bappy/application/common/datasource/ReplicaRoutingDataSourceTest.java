@@ -0,0 +1,184 @@
+package com.bappy.application.common.datasource;
+
+import com.bappy.application.security.UserPrincipal;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies read routing against two local databases standing in for a primary and a replica;
+ * each has a marker row naming it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReplicaRoutingDataSourceTest {
+
+    private static final long READ_YOUR_WRITES_MS = 60_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routingDataSource;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeAll
+    static void createDatabases() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE replica");
+        }
+        for (String name : List.of("primary", "replica")) {
+            try (Connection connection = DriverManager.getConnection(
+                    url(name), postgres.getUsername(), postgres.getPassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE node (name VARCHAR(20))");
+                statement.execute("INSERT INTO node VALUES ('" + name + "')");
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        primary = pool(url("primary"));
+        replica = pool(url("replica"));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        routingDataSource = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaPool("replica-1", replica)), READ_YOUR_WRITES_MS, meterRegistry);
+        lagMonitor = new ReplicaLagMonitor(routingDataSource, 5000, meterRegistry);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        routingDataSource.close();
+        primary.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToHealthyReplica() {
+        lagMonitor.check();
+
+        assertThat(readOnlyNode()).isEqualTo("replica");
+        assertThat(writeNode()).isEqualTo("primary");
+        assertThat(currentNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void readsStayOnPrimaryUntilReplicaPassesLagCheck() {
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        lagMonitor.check();
+
+        assertThat(readOnlyNode()).isEqualTo("replica");
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenReplicaIsDown() {
+        lagMonitor.check();
+        replica.close();
+
+        assertThat(readOnlyNode()).isEqualTo("primary");
+        assertThat(routingDataSource.getReplicas().get(0).isHealthy()).isFalse();
+
+        lagMonitor.check();
+
+        assertThat(routingDataSource.getReplicas().get(0).isHealthy()).isFalse();
+    }
+
+    @Test
+    void usersReadTheirOwnWritesFromPrimary() {
+        lagMonitor.check();
+        signIn(1L);
+
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        signIn(2L);
+        assertThat(readOnlyNode()).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWritesDoNotPinReads() {
+        lagMonitor.check();
+        signIn(1L);
+
+        writeTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE node SET name = name");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readOnlyNode()).isEqualTo("replica");
+    }
+
+    // ==================== Helper Methods ====================
+
+    private String readOnlyNode() {
+        return readOnlyTransaction.execute(status -> currentNode());
+    }
+
+    private String writeNode() {
+        return writeTransaction.execute(status -> currentNode());
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static void signIn(Long userId) {
+        UserPrincipal principal = new UserPrincipal(userId, "user" + userId + "@example.com", null, List.of(), Map.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setConnectionTimeout(2000);
+        return dataSource;
+    }
+
+    /**
+     * JDBC url of a database in the container; the container's own database stands in for the primary
+     */
+    private static String url(String name) {
+        String url = postgres.getJdbcUrl();
+        return name.equals("primary") ? url : url.replace("/" + postgres.getDatabaseName() + "?", "/" + name + "?");
+    }
+}
@@ -0,0 +1,50 @@
+package com.bappy.application.common.dto;
+
+import com.bappy.application.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies that page cursor tokens round-trip and that damaged tokens are refused.
+ */
+class PageCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_000_000), 42L);
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("|", "=", "+", "/");
+        assertThat(PageCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsTheFirstPagePosition() {
+        assertThat(PageCursor.decode(PageCursor.FIRST.encode())).isEqualTo(PageCursor.FIRST);
+    }
+
+    @Test
+    void missingTokenMeansFirstPage() {
+        assertThat(PageCursor.decode(null)).isEqualTo(PageCursor.FIRST);
+        assertThat(PageCursor.decode(" ")).isEqualTo(PageCursor.FIRST);
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        for (String token : new String[]{"not base64!", encode("2026-03-14T15:09:26"), encode("yesterday|42"),
+                encode("2026-03-14T15:09:26|forty-two"), encode("|42")}) {
+            assertThatThrownBy(() -> PageCursor.decode(token)).as(token).isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,187 @@
+package com.bappy.application.idempotency.service;
+
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.idempotency.entity.IdempotencyKey;
+import com.bappy.application.idempotency.repository.IdempotencyKeyRepository;
+import com.bappy.application.idempotency.service.IdempotencyStore.StoredResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the in-memory bounds of the idempotency store and how duplicates wait for a request in flight,
+ * on the same node or, through a persisted claim, on another one.
+ */
+class IdempotencyStoreTest {
+
+    private static final byte[] FINGERPRINT = {1, 2, 3, 4};
+
+    private AppConfig.Idempotency config;
+    private IdempotencyKeyRepository keyRepository;
+    private IdempotencyStore store;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        AppConfig appConfig = new AppConfig();
+        config = appConfig.getIdempotency();
+        config.setPersistent(false);
+        config.setWaitTimeoutMs(5000L);
+        keyRepository = mock(IdempotencyKeyRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        store = new IdempotencyStore(keyRepository, transactionTemplate, appConfig);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void completedResponseReplaysUntilItsTtl() throws Exception {
+        config.setTtlMs(100L);
+
+        assertThat(store.awaitOrClaim("a")).isNull();
+        store.complete("a", FINGERPRINT, 201, "application/json", body("created"));
+
+        StoredResponse stored = store.awaitOrClaim("a");
+        assertThat(stored.status()).isEqualTo(201);
+        assertThat(stored.fingerprint()).isEqualTo(FINGERPRINT);
+        assertThat(stored.body()).isEqualTo(body("created"));
+
+        Thread.sleep(150);
+        assertThat(store.awaitOrClaim("a")).as("expired, so the key is claimed again").isNull();
+    }
+
+    @Test
+    void entryBoundEvictsOldestResponses() throws Exception {
+        config.setMaxEntries(2);
+
+        for (String key : new String[]{"a", "b", "c"}) {
+            assertThat(store.awaitOrClaim(key)).isNull();
+            store.complete(key, FINGERPRINT, 200, null, body(key));
+        }
+
+        assertThat(store.awaitOrClaim("b")).isNotNull();
+        assertThat(store.awaitOrClaim("c")).isNotNull();
+        assertThat(store.awaitOrClaim("a")).isNull();
+    }
+
+    @Test
+    void byteBoundEvictsOldestResponses() throws Exception {
+        // Each entry is 4 fingerprint bytes plus a 100 byte body; room for two of them
+        config.setMaxCacheBytes(250L);
+
+        for (String key : new String[]{"a", "b", "c"}) {
+            assertThat(store.awaitOrClaim(key)).isNull();
+            store.complete(key, FINGERPRINT, 200, null, new byte[100]);
+        }
+
+        assertThat(store.awaitOrClaim("c")).isNotNull();
+        assertThat(store.awaitOrClaim("b")).isNotNull();
+        assertThat(store.awaitOrClaim("a")).isNull();
+    }
+
+    @Test
+    void waiterGetsTheResponseOfTheRequestInFlight() throws Exception {
+        assertThat(store.awaitOrClaim("a")).isNull();
+
+        Future<StoredResponse> waiter = executor.submit(() -> store.awaitOrClaim("a"));
+        Thread.sleep(50);
+        assertThat(waiter.isDone()).isFalse();
+        store.complete("a", FINGERPRINT, 200, "application/json", body("done"));
+
+        StoredResponse stored = waiter.get(5, TimeUnit.SECONDS);
+        assertThat(stored.body()).isEqualTo(body("done"));
+    }
+
+    @Test
+    void waiterClaimsTheKeyWhenTheRequestInFlightReleasesIt() throws Exception {
+        assertThat(store.awaitOrClaim("a")).isNull();
+
+        Future<StoredResponse> waiter = executor.submit(() -> store.awaitOrClaim("a"));
+        Thread.sleep(50);
+        store.release("a");
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isNull();
+        // The waiter now owns the key, so another duplicate has to wait again
+        config.setWaitTimeoutMs(50L);
+        assertThatThrownBy(() -> store.awaitOrClaim("a")).isInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void waiterTimesOutWhileTheRequestIsStillRunning() throws Exception {
+        config.setWaitTimeoutMs(50L);
+        assertThat(store.awaitOrClaim("a")).isNull();
+
+        assertThatThrownBy(() -> store.awaitOrClaim("a")).isInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void keyClaimedOnAnotherNodeIsPolledUntilItsResponseIsStored() throws Exception {
+        config.setPersistent(true);
+        when(keyRepository.claim(eq("a"), any(), any())).thenReturn(0);
+        IdempotencyKey row = IdempotencyKey.builder()
+                .key("a")
+                .fingerprint(FINGERPRINT)
+                .status(200)
+                .body(body("remote"))
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+        when(keyRepository.findLive(eq("a"), any()))
+                .thenReturn(Optional.empty(), Optional.empty(), Optional.of(row));
+
+        StoredResponse stored = store.awaitOrClaim("a");
+
+        assertThat(stored.body()).isEqualTo(body("remote"));
+    }
+
+    @Test
+    void keyClaimedOnAnotherNodeTimesOut() throws Exception {
+        config.setPersistent(true);
+        config.setWaitTimeoutMs(250L);
+        when(keyRepository.claim(eq("a"), any(), any())).thenReturn(0);
+        when(keyRepository.findLive(eq("a"), any())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> store.awaitOrClaim("a")).isInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void releasedPersistedClaimIsDeleted() throws Exception {
+        config.setPersistent(true);
+        when(keyRepository.claim(anyString(), any(), any())).thenReturn(1);
+        when(keyRepository.findLive(anyString(), any())).thenReturn(Optional.empty());
+
+        assertThat(store.awaitOrClaim("a")).isNull();
+        store.release("a");
+
+        verify(keyRepository).deleteClaim("a");
+    }
+
+    private static byte[] body(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
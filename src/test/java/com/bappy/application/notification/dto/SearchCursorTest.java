@@ -0,0 +1,44 @@
+package com.bappy.application.notification.dto;
+
+import com.bappy.application.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies that search cursor tokens round-trip and that damaged tokens are refused.
+ */
+class SearchCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        SearchCursor cursor = new SearchCursor(0.0607927, 42L);
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("|", "=", "+", "/");
+        assertThat(SearchCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsTheFirstPagePosition() {
+        assertThat(SearchCursor.decode(SearchCursor.FIRST.encode())).isEqualTo(SearchCursor.FIRST);
+        assertThat(SearchCursor.decode(null)).isEqualTo(SearchCursor.FIRST);
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        for (String token : new String[]{"not base64!", encode("0.5"), encode("high|42"), encode("0.5|x"),
+                encode("NaN|42"), encode("Infinity|42")}) {
+            assertThatThrownBy(() -> SearchCursor.decode(token)).as(token).isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,38 @@
+package com.bappy.application.notification.dto;
+
+import com.bappy.application.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies that sync cursor tokens round-trip and that damaged tokens are refused.
+ */
+class SyncCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        SyncCursor cursor = new SyncCursor(1_234_567_890_123L, 0L);
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("|", "=", "+", "/");
+        assertThat(SyncCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        for (String token : new String[]{"not base64!", "", encode("42"), encode("42|"), encode("x|1"),
+                encode("1|2|3"), encode("99999999999999999999|1")}) {
+            assertThatThrownBy(() -> SyncCursor.decode(token)).as(token).isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,167 @@
+package com.bappy.application.notification.repository;
+
+import com.bappy.application.common.dto.PageCursor;
+import com.bappy.application.notification.dto.NotificationDto;
+import com.bappy.application.notification.entity.Notification;
+import com.bappy.application.notification.entity.NotificationReceipt;
+import com.bappy.application.notification.entity.NotificationReceiptId;
+import com.bappy.application.user.entity.User;
+import com.bappy.application.user.entity.UserStatus;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that a feed page is read with a fixed number of statements, independent of page size.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class NotificationFeedQueryTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private Statistics statistics;
+
+    private Long recipientId;
+
+    private Long broadcastId;
+
+    @BeforeEach
+    void setUp() {
+        User sender = entityManager.persist(user("sender@example.com", "Sam", "Sender"));
+        User recipient = entityManager.persist(user("recipient@example.com", "Rita", "Recipient"));
+        recipientId = recipient.getId();
+
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            entityManager.persist(Notification.builder()
+                    .title("Direct " + i)
+                    .message("Direct message")
+                    .recipientId(recipientId)
+                    .senderId(sender.getId())
+                    .build());
+        }
+
+        Notification broadcast = entityManager.persist(Notification.builder()
+                .title("Broadcast")
+                .message("Broadcast message")
+                .isBroadcast(true)
+                .build());
+        broadcastId = broadcast.getId();
+        entityManager.persist(NotificationReceipt.builder()
+                .id(new NotificationReceiptId(broadcastId, recipientId))
+                .readAt(LocalDateTime.now())
+                .build());
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void keysetPageIsOneStatement() {
+        Slice<NotificationDto> page = notificationRepository.findFeedAfter(recipientId, since(),
+                PageCursor.FIRST.createdAt(), PageCursor.FIRST.id(), PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void offsetPageIsContentAndCountStatements() {
+        Page<NotificationDto> page = notificationRepository.findFeed(recipientId, since(), PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(page.getTotalElements()).isEqualTo(PAGE_SIZE + 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void projectionResolvesNamesAndBroadcastReadState() {
+        Slice<NotificationDto> page = notificationRepository.findFeedAfter(recipientId, since(),
+                PageCursor.FIRST.createdAt(), PageCursor.FIRST.id(), PageRequest.of(0, PAGE_SIZE + 1));
+
+        NotificationDto broadcast = page.getContent().stream()
+                .filter(dto -> dto.getId().equals(broadcastId))
+                .findFirst()
+                .orElseThrow();
+        assertThat(broadcast.getIsRead()).isTrue();
+        assertThat(broadcast.getSenderName()).isEqualTo("System");
+        assertThat(broadcast.getRecipientName()).isNull();
+
+        NotificationDto direct = page.getContent().stream()
+                .filter(dto -> !dto.getId().equals(broadcastId))
+                .findFirst()
+                .orElseThrow();
+        assertThat(direct.getIsRead()).isFalse();
+        assertThat(direct.getSenderName()).isEqualTo("Sam Sender");
+        assertThat(direct.getRecipientName()).isEqualTo("Rita Recipient");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void broadcastsSentBeforeSignupAreHidden() {
+        Long newcomerId = entityManager.persistAndFlush(user("newcomer@example.com", "Nia", "Newcomer")).getId();
+        entityManager.clear();
+
+        Page<NotificationDto> page = notificationRepository.findFeed(newcomerId, since(), PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(page.getContent()).extracting(NotificationDto::getId).doesNotContain(broadcastId);
+        assertThat(notificationRepository.countUnreadBroadcastsByType(newcomerId, since())).isEmpty();
+    }
+
+    private static LocalDateTime since() {
+        return LocalDateTime.now().minusDays(30);
+    }
+
+    private static User user(String email, String firstName, String lastName) {
+        return User.builder()
+                .email(email)
+                .firstName(firstName)
+                .lastName(lastName)
+                .status(UserStatus.ACTIVE)
+                .build();
+    }
+}
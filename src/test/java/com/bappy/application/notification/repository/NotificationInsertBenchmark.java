@@ -0,0 +1,199 @@
+package com.bappy.application.notification.repository;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for inserting 100k notifications, reported in rows per second.
+ * Each method issues the statements of one id strategy against PostgreSQL (needs Docker):
+ * <ul>
+ *   <li>{@code identityPerRow}: IDENTITY ids, where Hibernate disables batching and inserts row by row</li>
+ *   <li>{@code pooledLoBatched}: pooled-lo sequence ids, one nextval per 50 rows and batched inserts</li>
+ *   <li>{@code jdbcBatchedDefaultIds}: batched inserts taking ids from the column default, as fan-out does</li>
+ * </ul>
+ * with and without the driver's {@code reWriteBatchedInserts}.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.bappy.application.notification.repository.NotificationInsertBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationInsertBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final int ROWS_PER_TRANSACTION = 500;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO notifications (title, message, type, recipient_id, is_read, is_broadcast,
+                                       created_at, updated_at)
+            VALUES (?, ?, 'INFO', ?, FALSE, FALSE, ?, ?)
+            """;
+
+    private static final String INSERT_WITH_ID_SQL = """
+            INSERT INTO notifications (id, title, message, type, recipient_id, is_read, is_broadcast,
+                                       created_at, updated_at)
+            VALUES (?, ?, ?, 'INFO', ?, FALSE, FALSE, ?, ?)
+            """;
+
+    @Param({"false", "true"})
+    private boolean reWriteBatchedInserts;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private long recipientId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(
+                postgres.getJdbcUrl() + "&reWriteBatchedInserts=" + reWriteBatchedInserts,
+                postgres.getUsername(), postgres.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SEQUENCE notification_bench_seq INCREMENT BY " + ALLOCATION_SIZE);
+            try (ResultSet rs = statement.executeQuery(
+                    "INSERT INTO users (email) VALUES ('bench@example.com') RETURNING id")) {
+                rs.next();
+                recipientId = rs.getLong(1);
+            }
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE notifications CASCADE");
+            statement.execute("ALTER SEQUENCE notification_bench_seq RESTART");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long identityPerRow() throws SQLException {
+        long lastId = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                bind(ps, 1, i, now);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+                commitEvery(i);
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long pooledLoBatched() throws SQLException {
+        long nextId = 0;
+        long blockEnd = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement sequence = connection.prepareStatement("SELECT nextval('notification_bench_seq')");
+             PreparedStatement ps = connection.prepareStatement(INSERT_WITH_ID_SQL)) {
+            for (int i = 0; i < ROWS; i++) {
+                if (nextId == blockEnd) {
+                    try (ResultSet rs = sequence.executeQuery()) {
+                        rs.next();
+                        nextId = rs.getLong(1);
+                        blockEnd = nextId + ALLOCATION_SIZE;
+                    }
+                }
+                ps.setLong(1, nextId++);
+                bind(ps, 2, i, now);
+                ps.addBatch();
+                if ((i + 1) % ALLOCATION_SIZE == 0) {
+                    ps.executeBatch();
+                }
+                commitEvery(i);
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+        return nextId;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long jdbcBatchedDefaultIds() throws SQLException {
+        long lastId = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+            for (int i = 0; i < ROWS; i++) {
+                bind(ps, 1, i, now);
+                ps.addBatch();
+                if ((i + 1) % ROWS_PER_TRANSACTION == 0) {
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            lastId = keys.getLong(1);
+                        }
+                    }
+                    connection.commit();
+                }
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    private void bind(PreparedStatement ps, int first, int i, Timestamp now) throws SQLException {
+        ps.setString(first, "Benchmark " + i);
+        ps.setString(first + 1, "Benchmark notification");
+        ps.setLong(first + 2, recipientId);
+        ps.setTimestamp(first + 3, now);
+        ps.setTimestamp(first + 4, now);
+    }
+
+    private void commitEvery(int i) throws SQLException {
+        if ((i + 1) % ROWS_PER_TRANSACTION == 0) {
+            connection.commit();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(NotificationInsertBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
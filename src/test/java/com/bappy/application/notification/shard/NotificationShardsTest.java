@@ -0,0 +1,231 @@
+package com.bappy.application.notification.shard;
+
+import com.bappy.application.config.AppConfig;
+import com.bappy.application.notification.dto.ShardMove;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies routing, broadcast copies and online bucket moves against one PostgreSQL database holding the
+ * public schema (shard 0) and two shard schemas.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class NotificationShardsTest {
+
+    private static final List<String> SHARD_SCHEMAS = List.of("shard_a", "shard_b");
+
+    private static final int BUCKETS = 4;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private NotificationShardRepository shardRepository;
+    private NotificationShards shards;
+    private AppConfig appConfig;
+
+    @BeforeAll
+    static void migrate() {
+        HikariDataSource dataSource = pool(null);
+        try (dataSource) {
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            NotificationShardMigrations.migrate(dataSource, SHARD_SCHEMAS);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        HikariDataSource primary = pool(null);
+        List<DataSource> shardPools = new ArrayList<>();
+        pools.add(primary);
+        for (String schema : SHARD_SCHEMAS) {
+            HikariDataSource shardPool = pool(schema);
+            pools.add(shardPool);
+            shardPools.add(shardPool);
+        }
+
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(new NotificationShardDataSource(primary, shardPools));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        jdbcTemplate.execute("TRUNCATE users, notification_shard_buckets, " +
+                             "shard_a.notifications, shard_b.notifications CASCADE");
+
+        appConfig = new AppConfig();
+        AppConfig.Notifications.Sharding sharding = appConfig.getNotifications().getSharding();
+        sharding.setEnabled(true);
+        sharding.setBuckets(BUCKETS);
+        sharding.setMoveGraceMs(1000L);
+        for (String schema : SHARD_SCHEMAS) {
+            AppConfig.Notifications.Shard shard = new AppConfig.Notifications.Shard();
+            shard.setSchema(schema);
+            sharding.getShards().add(shard);
+        }
+
+        shardRepository = new NotificationShardRepository(jdbcTemplate);
+        shards = new NotificationShards(shardRepository, appConfig);
+        shards.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.stop();
+        pools.forEach(HikariDataSource::close);
+        pools.clear();
+    }
+
+    @Test
+    void userWorkRunsOnTheShardOfTheirBucket() {
+        long userId = createUser();
+        place(shards.bucketOf(userId), 1);
+
+        long id = shards.callOnShardOf(userId, () -> transactionTemplate.execute(status -> insert(userId)));
+
+        assertThat(count("shard_a", id)).isEqualTo(1);
+        assertThat(count("public", id)).isZero();
+        assertThat(shards.callOnShardOf(userId, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notifications WHERE recipient_id = ?", Long.class, userId))).isEqualTo(1);
+    }
+
+    @Test
+    void scatterRunsOnEveryShard() {
+        List<String> schemas = shards.scatter(() -> jdbcTemplate.queryForObject("SELECT current_schema()", String.class));
+
+        assertThat(schemas).containsExactly("public", "shard_a", "shard_b");
+    }
+
+    @Test
+    void broadcastsAreCopiedToEveryShard() {
+        long id = transactionTemplate.execute(status -> {
+            long broadcastId = insert(null);
+            shards.replicateBroadcast(broadcastId);
+            return broadcastId;
+        });
+
+        assertThat(count("public", id)).isEqualTo(1);
+        assertThat(count("shard_a", id)).isEqualTo(1);
+        assertThat(count("shard_b", id)).isEqualTo(1);
+    }
+
+    @Test
+    void shardCannotChangeInsideTransaction() {
+        long userId = createUser();
+        place(shards.bucketOf(userId), 2);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            shards.runOnShardOf(userId, () -> insert(userId));
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void movedBucketTakesRowsWrittenDuringTheMove() throws Exception {
+        long userId = createUser();
+        int bucket = shards.bucketOf(userId);
+        long before = shards.callOnShardOf(userId, () -> transactionTemplate.execute(status -> insert(userId)));
+        NotificationShardRebalancer rebalancer = new NotificationShardRebalancer(
+                shards, shardRepository, transactionTemplate, new SimpleMeterRegistry(), appConfig);
+
+        CompletableFuture<Void> move = CompletableFuture.runAsync(
+                () -> rebalancer.move(List.of(new ShardMove(bucket, 0, 2))));
+        while (shards.shardOfBucket(bucket) != 2 && !move.isDone()) {
+            Thread.sleep(10);
+        }
+        // A node that has not seen the switch yet still writes to the old shard
+        long during = shards.callOnShard(0, () -> transactionTemplate.execute(status -> insert(userId)));
+        move.get();
+
+        assertThat(count("shard_b", before)).isEqualTo(1);
+        assertThat(count("shard_b", during)).isEqualTo(1);
+        assertThat(count("public", before)).isZero();
+        assertThat(count("public", during)).isZero();
+        assertThat(shardRepository.findBucketShards(BUCKETS)[bucket]).isEqualTo(2);
+    }
+
+    @Test
+    void rowDeletedOnTheTargetDuringTheMoveStaysDeleted() throws Exception {
+        long userId = createUser();
+        int bucket = shards.bucketOf(userId);
+        long id = shards.callOnShardOf(userId, () -> transactionTemplate.execute(status -> insert(userId)));
+        NotificationShardRebalancer rebalancer = new NotificationShardRebalancer(
+                shards, shardRepository, transactionTemplate, new SimpleMeterRegistry(), appConfig);
+
+        CompletableFuture<Void> move = CompletableFuture.runAsync(
+                () -> rebalancer.move(List.of(new ShardMove(bucket, 0, 2))));
+        while (shards.shardOfBucket(bucket) != 2 && !move.isDone()) {
+            Thread.sleep(10);
+        }
+        // Between the copy and the drain, a node that already switched deletes the copied row
+        shards.callOnShard(2, () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM notifications WHERE id = ?", id);
+            return jdbcTemplate.update("INSERT INTO notification_changes (user_id, notification_id, change_type, " +
+                                       "changed_at) VALUES (?, ?, 'DELETED', now())", userId, id);
+        }));
+        move.get();
+
+        assertThat(count("shard_b", id)).isZero();
+        assertThat(count("public", id)).isZero();
+    }
+
+    // ==================== Helper Methods ====================
+
+    private long createUser() {
+        return jdbcTemplate.queryForObject("INSERT INTO users (email) VALUES (?) RETURNING id", Long.class,
+                "user" + System.nanoTime() + "@example.com");
+    }
+
+    private void place(int bucket, int shard) {
+        shardRepository.moveBucket(bucket, 0, shard, LocalDateTime.now());
+        shards.refresh();
+    }
+
+    private long insert(Long recipientId) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO notifications (title, message, type, recipient_id, is_read, is_broadcast)
+                VALUES ('Title', 'Message', 'INFO', ?, FALSE, ?) RETURNING id
+                """, Long.class, recipientId, recipientId == null);
+    }
+
+    private long count(String schema, long id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + schema + ".notifications WHERE id = ?",
+                Long.class, id);
+    }
+
+    private static HikariDataSource pool(String schema) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        dataSource.setMaximumPoolSize(4);
+        dataSource.setConnectionTimeout(2000);
+        if (schema != null) {
+            dataSource.setConnectionInitSql("SET search_path TO \"" + schema + "\", public");
+        }
+        return dataSource;
+    }
+}
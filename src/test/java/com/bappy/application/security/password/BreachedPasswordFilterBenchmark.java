@@ -0,0 +1,106 @@
+package com.bappy.application.security.password;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for breached password filter lookups.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.bappy.application.security.password.BreachedPasswordFilterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BreachedPasswordFilterBenchmark {
+
+    @Param({"1000000"})
+    private int entries;
+
+    private Path workDir;
+    private BreachedPasswordFilter filter;
+    private byte[][] breachedDigests;
+    private byte[][] unknownDigests;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("breach-bench");
+        Path input = workDir.resolve("passwords.txt");
+        Path output = workDir.resolve("passwords.bpf");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < entries; i++) {
+                writer.write("breached-" + i);
+                writer.newLine();
+            }
+        }
+
+        BreachedPasswordFilterBuilder.build(input, output, entries, 0.01, true);
+        filter = BreachedPasswordFilter.open(output);
+
+        breachedDigests = new byte[1024][];
+        unknownDigests = new byte[1024][];
+        for (int i = 0; i < 1024; i++) {
+            breachedDigests[i] = BreachedPasswordFilter.sha1("breached-" + ThreadLocalRandom.current().nextInt(entries));
+            unknownDigests[i] = BreachedPasswordFilter.sha1("unknown-" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        filter.close();
+        try (var files = Files.walk(workDir)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public int lookupBreachedDigest() {
+        int hits = 0;
+        for (byte[] digest : breachedDigests) {
+            if (filter.mightContainDigest(digest)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public int lookupUnknownDigest() {
+        int hits = 0;
+        for (byte[] digest : unknownDigests) {
+            if (filter.mightContainDigest(digest)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public boolean lookupPasswordWithHashing() {
+        return filter.mightContain("correct horse battery staple");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BreachedPasswordFilterBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
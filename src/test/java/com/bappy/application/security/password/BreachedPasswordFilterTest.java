@@ -0,0 +1,134 @@
+package com.bappy.application.security.password;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies that built filters find every entry they were built from and that damaged files are refused.
+ */
+class BreachedPasswordFilterTest {
+
+    private static final int ENTRIES = 5000;
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void findsEveryPlaintextEntry() throws IOException {
+        Path filterFile = build(passwords(ENTRIES), true, 0.01);
+
+        try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(filterFile)) {
+            assertThat(filter.getEntryCount()).isEqualTo(ENTRIES);
+            for (String password : passwords(ENTRIES)) {
+                assertThat(filter.mightContain(password)).as(password).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void findsEveryHexDigestEntryIgnoringCounts() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String password : passwords(ENTRIES)) {
+            lines.add(HexFormat.of().withUpperCase().formatHex(BreachedPasswordFilter.sha1(password)) + ":42");
+        }
+        lines.add("not a digest");
+        Path filterFile = build(lines, false, 0.01);
+
+        try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(filterFile)) {
+            assertThat(filter.getEntryCount()).isEqualTo(ENTRIES);
+            for (String password : passwords(ENTRIES)) {
+                assertThat(filter.mightContainDigest(BreachedPasswordFilter.sha1(password))).as(password).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() throws IOException {
+        Path filterFile = build(passwords(ENTRIES), true, 0.01);
+
+        int hits = 0;
+        try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(filterFile)) {
+            for (int i = 0; i < 10_000; i++) {
+                if (filter.mightContain("unknown-" + i)) {
+                    hits++;
+                }
+            }
+        }
+        assertThat(hits).isLessThan(300);
+    }
+
+    @Test
+    void rejectsWrongMagic() throws IOException {
+        Path filterFile = build(passwords(10), true, 0.01);
+        byte[] bytes = Files.readAllBytes(filterFile);
+        ByteBuffer.wrap(bytes).putInt(0, 0xCAFEBABE);
+        Files.write(filterFile, bytes);
+
+        assertThatThrownBy(() -> BreachedPasswordFilter.open(filterFile))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Not a breached password filter");
+    }
+
+    @Test
+    void rejectsTruncatedHeader() throws IOException {
+        Path filterFile = workDir.resolve("short.bpf");
+        Files.write(filterFile, new byte[BreachedPasswordFilter.HEADER_BYTES - 1]);
+
+        assertThatThrownBy(() -> BreachedPasswordFilter.open(filterFile))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Truncated");
+    }
+
+    @Test
+    void rejectsCorruptHeaderFields() throws IOException {
+        Path filterFile = build(passwords(10), true, 0.01);
+        byte[] bytes = Files.readAllBytes(filterFile);
+        ByteBuffer.wrap(bytes).putInt(4, 0);
+        Files.write(filterFile, bytes);
+
+        assertThatThrownBy(() -> BreachedPasswordFilter.open(filterFile))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Corrupt");
+    }
+
+    @Test
+    void rejectsTruncatedBitArray() throws IOException {
+        Path filterFile = build(passwords(ENTRIES), true, 0.01);
+        byte[] bytes = Files.readAllBytes(filterFile);
+        Files.write(filterFile, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThatThrownBy(() -> BreachedPasswordFilter.open(filterFile))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Corrupt");
+    }
+
+    // ==================== Helper Methods ====================
+
+    private Path build(List<String> lines, boolean plain, double fpp) throws IOException {
+        Path input = workDir.resolve("input.txt");
+        Path output = workDir.resolve("filter.bpf");
+        Files.write(input, lines);
+        BreachedPasswordFilterBuilder.build(input, output, lines.size(), fpp, plain);
+        return output;
+    }
+
+    private static List<String> passwords(int count) {
+        List<String> passwords = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            passwords.add("breached-" + i);
+        }
+        return passwords;
+    }
+}
@@ -0,0 +1,149 @@
+package com.bappy.application.user.segment;
+
+import com.bappy.application.user.dto.UserSegment;
+import com.bappy.application.user.entity.AuthProvider;
+import com.bappy.application.user.entity.UserStatus;
+import com.bappy.application.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies segment resolution, incremental updates and rebuilds of the in-memory segment index.
+ */
+class UserSegmentIndexTest {
+
+    private UserRepository userRepository;
+    private UserSegmentIndex index;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        index = new UserSegmentIndex(userRepository);
+        index.update(1, Set.of("ROLE_USER"), UserStatus.ACTIVE, AuthProvider.LOCAL);
+        index.update(2, Set.of("ROLE_USER", "ROLE_MODERATOR"), UserStatus.ACTIVE, AuthProvider.GOOGLE);
+        index.update(3, Set.of("ROLE_USER"), UserStatus.LOCKED, AuthProvider.GOOGLE);
+    }
+
+    @Test
+    void unrestrictedSegmentMatchesEveryone() {
+        assertThat(ids(new UserSegment())).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void valuesAreOredAndDimensionsAnded() {
+        UserSegment segment = UserSegment.builder()
+                .statuses(Set.of(UserStatus.ACTIVE, UserStatus.LOCKED))
+                .providers(Set.of(AuthProvider.GOOGLE))
+                .build();
+
+        assertThat(ids(segment)).containsExactly(2L, 3L);
+        assertThat(ids(UserSegment.builder()
+                .statuses(Set.of(UserStatus.LOCKED))
+                .providers(Set.of(AuthProvider.LOCAL, AuthProvider.GOOGLE))
+                .build())).containsExactly(3L);
+    }
+
+    @Test
+    void unknownValueMatchesNobody() {
+        assertThat(ids(UserSegment.builder().roles(Set.of("ROLE_ADMIN")).build())).isEmpty();
+    }
+
+    @Test
+    void updateReplacesPreviousMembership() {
+        UserSegment moderators = UserSegment.builder().roles(Set.of("ROLE_MODERATOR")).build();
+
+        index.update(2, Set.of("ROLE_USER"), UserStatus.ACTIVE, AuthProvider.GOOGLE);
+        index.update(1, Set.of("ROLE_USER", "ROLE_MODERATOR"), UserStatus.ACTIVE, AuthProvider.LOCAL);
+
+        assertThat(ids(moderators)).containsExactly(1L);
+    }
+
+    @Test
+    void removedUserLeavesEverySegment() {
+        index.remove(2);
+
+        assertThat(ids(new UserSegment())).containsExactly(1L, 3L);
+        assertThat(ids(UserSegment.builder().roles(Set.of("ROLE_MODERATOR")).build())).isEmpty();
+        assertThat(ids(UserSegment.builder().providers(Set.of(AuthProvider.GOOGLE)).build())).containsExactly(3L);
+    }
+
+    @Test
+    void rebuildReplaysChangesMadeWhileLoading() {
+        // User 5 is written while the rebuild streams the table; the stream has already passed it
+        Stream<UserRepository.SegmentView> users = Stream.<UserRepository.SegmentView>of(
+                        new SegmentRow(1L, UserStatus.ACTIVE, AuthProvider.LOCAL),
+                        new SegmentRow(4L, UserStatus.ACTIVE, AuthProvider.GITHUB))
+                .peek(user -> {
+                    if (user.getId() == 4L) {
+                        index.update(5, Set.of("ROLE_USER"), UserStatus.ACTIVE, AuthProvider.LOCAL);
+                    }
+                });
+        when(userRepository.streamSegmentViews()).thenReturn(users);
+        when(userRepository.streamRoleViews()).thenReturn(Stream.of(
+                new RoleRow(1L, "ROLE_USER"), new RoleRow(4L, "ROLE_MODERATOR")));
+
+        index.rebuild();
+
+        assertThat(ids(new UserSegment())).containsExactly(1L, 4L, 5L);
+        assertThat(ids(UserSegment.builder().roles(Set.of("ROLE_MODERATOR")).build())).containsExactly(4L);
+        assertThat(ids(UserSegment.builder().providers(Set.of(AuthProvider.GITHUB)).build())).containsExactly(4L);
+    }
+
+    @Test
+    void forEachVisitsEveryMemberAndReturnsTheCount() {
+        List<Long> visited = new ArrayList<>();
+
+        long count = index.forEach(UserSegment.builder().roles(Set.of("ROLE_USER")).build(), visited::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(visited).containsExactly(1L, 2L, 3L);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private List<Long> ids(UserSegment segment) {
+        Roaring64Bitmap bitmap = index.resolve(segment);
+        List<Long> ids = new ArrayList<>();
+        bitmap.forEach(ids::add);
+        return ids;
+    }
+
+    private record SegmentRow(Long id, UserStatus status, AuthProvider provider) implements UserRepository.SegmentView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public UserStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public AuthProvider getProvider() {
+            return provider;
+        }
+    }
+
+    private record RoleRow(Long userId, String roleName) implements UserRepository.RoleView {
+        @Override
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String getRoleName() {
+            return roleName;
+        }
+    }
+}